@@ -0,0 +1,75 @@
+package com.foodSystem.order_service.cache;
+
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of an order and its lines as held by {@link OrderCache}. Every hit is handed out
+ * as a new detached {@link Order}, so callers never share, or modify, the cached value.
+ */
+final class CachedOrder {
+
+    private final Long id;
+    private final Long userId;
+    private final Long productId;
+    private final String status;
+    private final Long version;
+    private final List<Line> items;
+
+    private CachedOrder(Order order) {
+        this.id = order.getId();
+        this.userId = order.getUserId();
+        this.productId = order.getProductId();
+        this.status = order.getStatus();
+        this.version = order.getVersion();
+        List<Line> lines = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            lines.add(new Line(item));
+        }
+        this.items = Collections.unmodifiableList(lines);
+    }
+
+    static CachedOrder of(Order order) {
+        return new CachedOrder(order);
+    }
+
+    Order toOrder() {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(userId);
+        order.setProductId(productId);
+        order.setStatus(status);
+        order.setVersion(version);
+        for (Line line : items) {
+            order.addItem(line.toItem());
+        }
+        return order;
+    }
+
+    private static final class Line {
+
+        private final Long id;
+        private final Long productId;
+        private final int quantity;
+        private final BigDecimal unitPrice;
+
+        Line(OrderItem item) {
+            this.id = item.getId();
+            this.productId = item.getProductId();
+            this.quantity = item.getQuantity();
+            this.unitPrice = item.getUnitPrice();
+        }
+
+        OrderItem toItem() {
+            OrderItem item = new OrderItem(productId, quantity);
+            item.setId(id);
+            item.setUnitPrice(unitPrice);
+            return item;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.foodSystem.order_service.cache;
+
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.event.OrderChangedEvent;
+import com.foodSystem.order_service.event.OrderSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for the order lookups that tracking screens poll: single orders by
+ * id and per-user filter pages. Entries expire after a TTL and are evicted precisely when an
+ * order they could contain is written, once that write has committed.
+ *
+ * Values are immutable {@link CachedOrder} copies, never the JPA entities themselves. A load
+ * may read an order just before a write commits and finish after that write's eviction; every
+ * eviction therefore bumps a generation counter (striped by order id and by user id), and a load
+ * that sees its generation change drops what it just cached.
+ */
+@Component
+public class OrderCache {
+
+    private static final int STRIPES = 1024;
+
+    private final Cache<Long, CachedOrder> orders;
+    private final Cache<UserPageKey, Page<CachedOrder>> userPages;
+    private final StatsCounter orderStats = new ConcurrentStatsCounter();
+    private final StatsCounter userPageStats = new ConcurrentStatsCounter();
+    private final AtomicLongArray orderGenerations = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray userGenerations = new AtomicLongArray(STRIPES);
+
+    public OrderCache(@Value("${orders.cache.max-orders:10000}") long maxOrders,
+                      @Value("${orders.cache.max-user-pages:2000}") long maxUserPages,
+                      @Value("${orders.cache.ttl:30s}") Duration ttl) {
+        this.orders = Caffeine.newBuilder()
+                .maximumSize(maxOrders)
+                .expireAfterWrite(ttl)
+                .recordStats(() -> orderStats)
+                .build();
+        this.userPages = Caffeine.newBuilder()
+                .maximumSize(maxUserPages)
+                .expireAfterWrite(ttl)
+                .recordStats(() -> userPageStats)
+                .build();
+    }
+
+    /**
+     * Returns a copy of the cached order or loads it; a {@code null} from the loader is not cached.
+     * The loader must initialize the order's lines.
+     */
+    public Order getOrder(Long id, Function<Long, Order> loader) {
+        CachedOrder cached = orders.getIfPresent(id);
+        if (cached == null) {
+            cached = load(orders, orderStats, id, orderGenerations, stripe(id), key -> {
+                Order order = loader.apply(key);
+                return order != null ? CachedOrder.of(order) : null;
+            });
+        }
+        return cached != null ? cached.toOrder() : null;
+    }
+
+    /**
+     * Returns a copy of the cached page or loads it. The loader must initialize the orders' lines.
+     */
+    public Page<Order> getUserPage(Long userId, String status, int page, int size,
+                                   Function<UserPageKey, Page<Order>> loader) {
+        UserPageKey pageKey = new UserPageKey(userId, status, page, size);
+        Page<CachedOrder> cached = userPages.getIfPresent(pageKey);
+        if (cached == null) {
+            cached = load(userPages, userPageStats, pageKey, userGenerations, stripe(userId),
+                    key -> loader.apply(key).map(CachedOrder::of));
+        }
+        return cached.map(CachedOrder::toOrder);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        evict(event.getBefore());
+        evict(event.getAfter());
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("orders", describe(orders));
+        stats.put("userPages", describe(userPages));
+        return stats;
+    }
+
+    // The generation is bumped before the entries go: a concurrent load either sees the bump or
+    // finished its put early enough to be evicted here
+    private void evict(OrderSnapshot order) {
+        if (order == null) {
+            return;
+        }
+        orderGenerations.incrementAndGet(stripe(order.getId()));
+        orders.invalidate(order.getId());
+        if (order.getUserId() != null) {
+            userGenerations.incrementAndGet(stripe(order.getUserId()));
+            userPages.asMap().keySet().removeIf(key -> key.userId.equals(order.getUserId()));
+        }
+    }
+
+    private static <K, V> V load(Cache<K, V> cache, StatsCounter stats, K key, AtomicLongArray generations,
+                                 int stripe, Function<K, V> loader) {
+        long generation = generations.get(stripe);
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException ex) {
+            stats.recordLoadFailure(System.nanoTime() - start);
+            throw ex;
+        }
+        if (value == null) {
+            stats.recordLoadFailure(System.nanoTime() - start);
+            return null;
+        }
+        stats.recordLoadSuccess(System.nanoTime() - start);
+        cache.put(key, value);
+        if (generations.get(stripe) != generation) {
+            cache.invalidate(key); // A write committed while this was loading; the value may predate it
+        }
+        return value;
+    }
+
+    private static int stripe(Long id) {
+        return (Long.hashCode(id) & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    private static Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", cache.estimatedSize());
+        description.put("hitCount", stats.hitCount());
+        description.put("missCount", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictionCount", stats.evictionCount());
+        description.put("averageLoadPenaltyMillis", stats.averageLoadPenalty() / 1_000_000d);
+        return description;
+    }
+
+    public static final class UserPageKey {
+
+        private final Long userId;
+        private final String status;
+        private final int page;
+        private final int size;
+
+        UserPageKey(Long userId, String status, int page, int size) {
+            this.userId = userId;
+            this.status = status;
+            this.page = page;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UserPageKey)) {
+                return false;
+            }
+            UserPageKey other = (UserPageKey) o;
+            return page == other.page && size == other.size
+                    && userId.equals(other.userId) && Objects.equals(status, other.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, status, page, size);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.foodSystem.order_service.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Body of product-service's {@code /api/products/batch}: products found by id, and the ids that do
+ * not exist. A requested id in neither could not be looked up.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductBatch {
+
+    private Map<Long, ProductSummary> products = new HashMap<>();
+    private List<Long> missing = new ArrayList<>();
+
+    public Map<Long, ProductSummary> getProducts() {
+        return products;
+    }
+
+    public void setProducts(Map<Long, ProductSummary> products) {
+        this.products = products;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+
+    ProductBatch merge(ProductBatch other) {
+        products.putAll(other.products);
+        missing.addAll(other.missing);
+        return this;
+    }
+}
@@ -0,0 +1,88 @@
+package com.foodSystem.order_service.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Non-blocking lookups against product-service. Distinct ids are sent to
+ * {@code /api/products/batch} in chunks of at most {@code batch-size}, the chunks in parallel, and
+ * the timeout bounds the whole lookup rather than each chunk. Ids whose chunk fails, or all of
+ * them once the timeout passes, are in neither the products nor the missing ids of the result.
+ * {@code batch-size} may not exceed the {@code products.batch.max-ids} that product-service accepts.
+ */
+@Component
+public class ProductClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductClient.class);
+
+    private final WebClient webClient;
+    private final Duration timeout;
+    private final int batchSize;
+
+    public ProductClient(@LoadBalanced WebClient.Builder webClientBuilder,
+                         @Value("${orders.clients.product-service.url:http://product-service}") String baseUrl,
+                         @Value("${orders.clients.product-service.timeout:500ms}") Duration timeout,
+                         @Value("${orders.clients.product-service.batch-size:500}") int batchSize,
+                         @Value("${products.batch.max-ids:500}") int maxIds) {
+        if (batchSize < 1 || batchSize > maxIds) {
+            throw new IllegalArgumentException("orders.clients.product-service.batch-size must be 1 to "
+                    + "products.batch.max-ids (" + maxIds + "), got " + batchSize);
+        }
+        this.webClient = webClientBuilder.clone().baseUrl(baseUrl).build();
+        this.timeout = timeout;
+        this.batchSize = batchSize;
+    }
+
+    public Mono<Map<Long, ProductSummary>> findProducts(Collection<Long> ids) {
+        return lookupProducts(ids).map(ProductBatch::getProducts);
+    }
+
+    /**
+     * Looks up the distinct non-null {@code ids}, telling products that do not exist apart from
+     * ids that could not be looked up. Never completes with an error.
+     */
+    public Mono<ProductBatch> lookupProducts(Collection<Long> ids) {
+        return Flux.fromIterable(ids)
+                .filter(Objects::nonNull)
+                .distinct()
+                .buffer(batchSize)
+                .flatMap(this::findBatch)
+                .reduceWith(ProductBatch::new, ProductBatch::merge)
+                .timeout(timeout)
+                .onErrorResume(ex -> {
+                    log.warn("Products unavailable: {}", ex.toString());
+                    return Mono.just(new ProductBatch());
+                });
+    }
+
+    private Mono<ProductBatch> findBatch(List<Long> ids) {
+        return webClient.post()
+                .uri("/api/products/batch")
+                .bodyValue(ids)
+                .retrieve()
+                .bodyToMono(ProductBatch.class)
+                .onErrorResume(ex -> {
+                    if (ex instanceof WebClientResponseException
+                            && ((WebClientResponseException) ex).getStatusCode().is4xxClientError()) {
+                        // Not an outage: product-service refused the request itself
+                        log.error("{} products not looked up: {}", ids.size(), ex.toString());
+                    } else {
+                        log.warn("{} products unavailable: {}", ids.size(), ex.toString());
+                    }
+                    return Mono.empty();
+                });
+    }
+}
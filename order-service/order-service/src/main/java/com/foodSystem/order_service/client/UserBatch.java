@@ -0,0 +1,34 @@
+package com.foodSystem.order_service.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Body of user-service's {@code /api/users/batch}: users found by id, and the ids that do not exist.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserBatch {
+
+    private Map<Long, UserSummary> users = new HashMap<>();
+    private List<Long> missing = new ArrayList<>();
+
+    public Map<Long, UserSummary> getUsers() {
+        return users;
+    }
+
+    public void setUsers(Map<Long, UserSummary> users) {
+        this.users = users;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
@@ -0,0 +1,76 @@
+package com.foodSystem.order_service.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Non-blocking lookups against user-service. Distinct ids are sent to {@code /api/users/batch}
+ * in chunks of at most {@code batch-size}, the chunks in parallel; ids that do not exist, or whose
+ * chunk fails or exceeds the timeout, are simply left out of the result. {@code batch-size} may not
+ * exceed the {@code users.batch.max-ids} that user-service accepts, or every chunk would be refused.
+ */
+@Component
+public class UserClient {
+
+    private static final Logger log = LoggerFactory.getLogger(UserClient.class);
+
+    private final WebClient webClient;
+    private final Duration timeout;
+    private final int batchSize;
+
+    public UserClient(@LoadBalanced WebClient.Builder webClientBuilder,
+                      @Value("${orders.clients.user-service.url:http://user-service}") String baseUrl,
+                      @Value("${orders.clients.user-service.timeout:500ms}") Duration timeout,
+                      @Value("${orders.clients.user-service.batch-size:500}") int batchSize,
+                      @Value("${users.batch.max-ids:500}") int maxIds) {
+        if (batchSize < 1 || batchSize > maxIds) {
+            throw new IllegalArgumentException("orders.clients.user-service.batch-size must be 1 to "
+                    + "users.batch.max-ids (" + maxIds + "), got " + batchSize);
+        }
+        this.webClient = webClientBuilder.clone().baseUrl(baseUrl).build();
+        this.timeout = timeout;
+        this.batchSize = batchSize;
+    }
+
+    public Mono<Map<Long, UserSummary>> findUsers(Collection<Long> ids) {
+        return Flux.fromIterable(ids)
+                .filter(Objects::nonNull)
+                .distinct()
+                .buffer(batchSize)
+                .flatMap(this::findBatch)
+                .flatMapIterable(batch -> batch.getUsers().values())
+                .collectMap(UserSummary::getId);
+    }
+
+    private Mono<UserBatch> findBatch(List<Long> ids) {
+        return webClient.post()
+                .uri("/api/users/batch")
+                .bodyValue(ids)
+                .retrieve()
+                .bodyToMono(UserBatch.class)
+                .timeout(timeout)
+                .onErrorResume(ex -> {
+                    if (ex instanceof WebClientResponseException
+                            && ((WebClientResponseException) ex).getStatusCode().is4xxClientError()) {
+                        // Not an outage: user-service refused the request itself
+                        log.error("{} users not looked up: {}", ids.size(), ex.toString());
+                    } else {
+                        log.warn("{} users unavailable: {}", ids.size(), ex.toString());
+                    }
+                    return Mono.empty();
+                });
+    }
+}
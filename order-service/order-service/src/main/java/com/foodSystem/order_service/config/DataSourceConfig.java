@@ -0,0 +1,50 @@
+package com.foodSystem.order_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Declaring the export pool turns off the datasource auto-configuration, so the regular
+    // datasource is declared here the way Boot would, bound from spring.datasource.*
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // The small read-only pool behind GET /orders/export, bound from orders.export.datasource.*
+    @Bean
+    @ConfigurationProperties("orders.export.datasource")
+    public DataSourceProperties exportDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("orders.export.datasource.hikari")
+    public HikariDataSource exportDataSource(
+            @Qualifier("exportDataSourceProperties") DataSourceProperties exportDataSourceProperties) {
+        HikariDataSource dataSource = exportDataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).build();
+        // What the export relies on, before orders.export.datasource.hikari.* is bound: MySQL keeps
+        // the result set server-side and streams it, and nothing is ever written through this pool
+        dataSource.addDataSourceProperty("useCursorFetch", "true");
+        dataSource.setReadOnly(true);
+        dataSource.setAutoCommit(false);
+        return dataSource;
+    }
+}
@@ -0,0 +1,34 @@
+package com.foodSystem.order_service.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class WebClientConfig {
+
+    // Non-blocking client shared by the user/product service clients, with a bounded connection
+    // pool and Eureka-based load balancing on the service name in the base URL.
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder(
+            @Value("${orders.clients.max-connections:200}") int maxConnections,
+            @Value("${orders.clients.connect-timeout:1s}") Duration connectTimeout) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("order-service-clients")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(connectTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis());
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+}
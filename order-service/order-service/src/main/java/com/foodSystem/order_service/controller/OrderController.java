@@ -1,7 +1,17 @@
 package com.foodSystem.order_service.controller;
 
+import com.foodSystem.order_service.cache.OrderCache;
+import com.foodSystem.order_service.dto.BatchOrderResponse;
+import com.foodSystem.order_service.dto.CursorSlice;
+import com.foodSystem.order_service.dto.OrderDetails;
+import com.foodSystem.order_service.dto.OrderStats;
 import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.service.IdempotencyService;
+import com.foodSystem.order_service.service.OrderBatchService;
+import com.foodSystem.order_service.service.OrderDetailsService;
+import com.foodSystem.order_service.service.OrderExportService;
 import com.foodSystem.order_service.service.OrderService;
+import com.foodSystem.order_service.stats.OrderStatistics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,10 +21,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/orders")
@@ -23,12 +44,55 @@ public class OrderController {
 
   @Autowired private OrderService orderService;
 
+  @Autowired private OrderBatchService orderBatchService;
+
+  @Autowired private OrderExportService orderExportService;
+
+  @Autowired private OrderCache orderCache;
+
+  @Autowired private OrderDetailsService orderDetailsService;
+
+  @Autowired private OrderStatistics orderStatistics;
+
+  @Autowired private IdempotencyService idempotencyService;
+
   @Operation(summary = "Get all orders", description = "Retrieves a list of all orders")
   @GetMapping
   public List<Order> getAllOrders() {
     return orderService.getAllOrders();
   }
 
+  @Operation(summary = "Export orders", description = "Streams all (optionally filtered) orders as NDJSON or CSV without loading them into memory")
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportOrders(
+      @Parameter(description = "Output format (ndjson/csv)", example = "ndjson") @RequestParam(defaultValue = "ndjson") String format,
+      @Parameter(description = "Order status") @RequestParam(required = false) String status,
+      @Parameter(description = "User ID") @RequestParam(required = false) Long userId,
+      @Parameter(description = "Product ID") @RequestParam(required = false) Long productId) {
+    OrderExportService.checkFormat(format);
+    StreamingResponseBody body = out -> orderExportService.export(format, status, userId, productId, out);
+    if (OrderExportService.CSV.equals(format)) {
+      return ResponseEntity.ok()
+          .contentType(MediaType.parseMediaType("text/csv"))
+          .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\"")
+          .body(body);
+    }
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+  }
+
+  @Operation(summary = "Get order statistics", description = "Order counts in total, per status, for the busiest products and per minute, read from in-memory counters")
+  @GetMapping("/stats")
+  public OrderStats getOrderStats(
+      @Parameter(description = "Number of products to include", example = "20") @RequestParam(defaultValue = "20") int top) {
+    return orderStatistics.snapshot(top);
+  }
+
+  @Operation(summary = "Get order cache statistics", description = "Size, hit, miss and eviction counts of the order lookup caches")
+  @GetMapping("/cache/stats")
+  public Map<String, Map<String, Object>> getCacheStats() {
+    return orderCache.stats();
+  }
+
   @Operation(summary = "Get order by ID", description = "Retrieves a specific order by its ID")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Order found"),
@@ -36,26 +100,83 @@ public class OrderController {
   })
   @GetMapping("/{id}")
   public ResponseEntity<Order> getOrderById(
+      @Parameter(description = "Order ID", required = true) @PathVariable Long id, WebRequest request) {
+    Optional<Order> order = orderService.getOrderById(id);
+    if (!order.isPresent()) {
+      return ResponseEntity.notFound().build();
+    }
+    String etag = eTag(order.get());
+    if (request.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+    return ResponseEntity.ok().eTag(etag).body(order.get());
+  }
+
+  @Operation(summary = "Get order details", description = "Retrieves an order with its user and product, fetched in parallel; unreachable references are listed as unresolved")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Order found"),
+      @ApiResponse(responseCode = "404", description = "Order not found")
+  })
+  @GetMapping("/{id}/details")
+  public Mono<ResponseEntity<OrderDetails>> getOrderDetails(
       @Parameter(description = "Order ID", required = true) @PathVariable Long id) {
-    return orderService
-        .getOrderById(id)
+    return orderDetailsService
+        .getOrderDetails(id)
         .map(ResponseEntity::ok)
-        .orElse(ResponseEntity.notFound().build());
+        .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
-  @Operation(summary = "Create a new order", description = "Creates a new order")
+  @Operation(summary = "Get paginated order details", description = "Retrieves a page of orders with users and products; each distinct id is looked up once per page")
+  @GetMapping("/details")
+  public Mono<Page<OrderDetails>> getOrderDetailsPage(Pageable pageable) {
+    return orderDetailsService.getOrderDetailsPage(orderService.getOrders(pageable, Sort.by("id")));
+  }
+
+  @Operation(summary = "Create a new order", description = "Creates a new order; retries carrying the same Idempotency-Key return the original order instead of creating another")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Order created, or replayed for a known Idempotency-Key"),
+      @ApiResponse(responseCode = "400", description = "Invalid lines or a product that does not exist"),
+      @ApiResponse(responseCode = "409", description = "A request with this Idempotency-Key is still in progress"),
+      @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used with a different body"),
+      @ApiResponse(responseCode = "503", description = "Product prices could not be looked up; retry after the Retry-After delay")
+  })
   @PostMapping
-  public Order createOrder(@RequestBody Order order) {
-    return orderService.createOrder(order);
+  public Order createOrder(
+      @Parameter(description = "Client-chosen key identifying this logical request") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      @RequestBody Order order) {
+    if (idempotencyKey == null) {
+      return orderService.createOrder(order);
+    }
+    return idempotencyService.createOrder(idempotencyKey, order);
+  }
+
+  @Operation(summary = "Create orders in bulk", description = "Creates an array of orders using chunked JDBC batches")
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public BatchOrderResponse createOrders(@RequestBody List<Order> orders) {
+    return orderBatchService.createOrders(orders);
+  }
+
+  @Operation(summary = "Create orders from an NDJSON stream", description = "Creates one order per line of the request body using chunked JDBC batches")
+  @PostMapping(value = "/batch", consumes = "application/x-ndjson")
+  public BatchOrderResponse createOrdersFromStream(HttpServletRequest request) throws IOException {
+    return orderBatchService.createOrders(request.getInputStream());
   }
 
-  @Operation(summary = "Update an order", description = "Updates an existing order by ID")
+  @Operation(summary = "Update an order", description = "Updates an existing order by ID; with If-Match the update only applies to the given version")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Order updated"),
+      @ApiResponse(responseCode = "400", description = "Invalid lines or a product that does not exist"),
+      @ApiResponse(responseCode = "412", description = "Order was modified since the If-Match version"),
+      @ApiResponse(responseCode = "503", description = "Product prices could not be looked up; retry after the Retry-After delay")
+  })
   @PutMapping("/{id}")
   public ResponseEntity<Order> updateOrder(
       @Parameter(description = "Order ID", required = true) @PathVariable Long id, 
+      @Parameter(description = "ETag of the version being replaced") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @RequestBody Order orderDetails) {
     System.out.println("order details: " + orderDetails);
-    return ResponseEntity.ok(orderService.updateOrder(id, orderDetails));
+    Order updated = orderService.updateOrder(id, orderDetails, expectedVersions(ifMatch));
+    return ResponseEntity.ok().eTag(eTag(updated)).body(updated);
   }
 
   @Operation(summary = "Delete an order", description = "Deletes an order by ID")
@@ -75,6 +196,15 @@ public class OrderController {
     return orderService.getOrders(pageable, sort);
   }
 
+  @Operation(summary = "Get orders by cursor", description = "Keyset pagination on (sortBy, id) without a count query; pass an empty cursor for the first page")
+  @GetMapping(value = "/page", params = "cursor")
+  public CursorSlice<Order> getOrdersByCursor(
+      Pageable pageable,
+      @Parameter(description = "Continuation token from the previous page") @RequestParam String cursor,
+      @Parameter(description = "Field to sort by", example = "id") @RequestParam(defaultValue = "id") String sortBy) {
+    return orderService.getOrdersByCursor(cursor, pageable.getPageSize(), sortBy);
+  }
+
   @Operation(summary = "Filter orders", description = "Filters orders by status, userId, or productId")
   @GetMapping("/filter")
   public Page<Order> getFilteredOrders(
@@ -85,6 +215,17 @@ public class OrderController {
     return orderService.getFilteredOrders(pageable, status, userId, productId);
   }
 
+  @Operation(summary = "Filter orders by cursor", description = "Keyset pagination of filtered orders without a count query; pass an empty cursor for the first page")
+  @GetMapping(value = "/filter", params = "cursor")
+  public CursorSlice<Order> getFilteredOrdersByCursor(
+          Pageable pageable,
+          @Parameter(description = "Continuation token from the previous page") @RequestParam String cursor,
+          @Parameter(description = "Order status") @RequestParam(required = false) String status,
+          @Parameter(description = "User ID") @RequestParam(required = false) Long userId,
+          @Parameter(description = "Product ID") @RequestParam(required = false) Long productId) {
+    return orderService.getFilteredOrdersByCursor(cursor, pageable.getPageSize(), status, userId, productId);
+  }
+
   @Operation(summary = "Search orders", description = "Searches orders by keyword")
   @GetMapping("/search")
   public Page<Order> searchOrders(
@@ -92,4 +233,29 @@ public class OrderController {
       @Parameter(description = "Search keyword", required = true) @RequestParam String keyword) {
     return orderService.searchOrders(pageable, keyword);
   }
+
+  private static String eTag(Order order) {
+    return "\"" + order.getVersion() + "\"";
+  }
+
+  // Versions named by an If-Match header; null when absent or "*" (any current version)
+  private static List<Long> expectedVersions(String ifMatch) {
+    if (ifMatch == null || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    List<Long> versions = new ArrayList<>();
+    for (String tag : ifMatch.split(",")) {
+      String value = tag.trim();
+      if (value.startsWith("W/")) {
+        continue; // Weak tags never match under the strong comparison If-Match requires
+      }
+      value = value.replace("\"", "");
+      try {
+        versions.add(Long.valueOf(value));
+      } catch (NumberFormatException ex) {
+        // Not one of our tags; it cannot match
+      }
+    }
+    return versions;
+  }
 }
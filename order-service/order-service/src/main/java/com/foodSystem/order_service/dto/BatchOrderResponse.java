@@ -0,0 +1,67 @@
+package com.foodSystem.order_service.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Summary of a bulk ingest: per-item results plus the throughput that was achieved.
+ */
+public class BatchOrderResponse {
+
+    private int received;
+    private int created;
+    private int failed;
+    private int chunks;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<BatchOrderResult> results = new ArrayList<>();
+
+    public void addResult(BatchOrderResult result) {
+        results.add(result);
+        received++;
+        if (BatchOrderResult.CREATED.equals(result.getStatus())) {
+            created++;
+        } else {
+            failed++;
+        }
+    }
+
+    public void chunkWritten() {
+        chunks++;
+    }
+
+    public void finish(long elapsedNanos) {
+        results.sort(Comparator.comparingInt(BatchOrderResult::getIndex));
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.rowsPerSecond = elapsedNanos > 0 ? created * 1_000_000_000d / elapsedNanos : created;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public List<BatchOrderResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,65 @@
+package com.foodSystem.order_service.dto;
+
+/**
+ * Outcome of a single order submitted through {@code POST /orders/batch}.
+ */
+public class BatchOrderResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private int index;      // Position of the order in the submitted array/stream
+    private Long orderId;   // Set when the order was persisted
+    private String status;  // CREATED or FAILED
+    private String error;   // Reason for a FAILED item
+
+    public BatchOrderResult() {
+    }
+
+    public BatchOrderResult(int index, Long orderId, String status, String error) {
+        this.index = index;
+        this.orderId = orderId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static BatchOrderResult created(int index, Long orderId) {
+        return new BatchOrderResult(index, orderId, CREATED, null);
+    }
+
+    public static BatchOrderResult failed(int index, String error) {
+        return new BatchOrderResult(index, null, FAILED, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,42 @@
+package com.foodSystem.order_service.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Unlike {@code Page}, it carries no total count;
+ * {@code nextCursor} is passed back as {@code cursor} to fetch the following page.
+ */
+public class CursorSlice<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,69 @@
+package com.foodSystem.order_service.dto;
+
+import com.foodSystem.order_service.client.ProductSummary;
+import com.foodSystem.order_service.client.UserSummary;
+import com.foodSystem.order_service.entity.Order;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An order together with the user and products it references. When a dependency is slow or down
+ * the matching field stays null (or the product is missing from {@code products}) and the
+ * reference is listed in {@code unresolved}.
+ */
+public class OrderDetails {
+
+    private final Order order;
+    private final UserSummary user;
+    private final ProductSummary product;
+    private final Map<Long, ProductSummary> products = new LinkedHashMap<>();
+    private final List<String> unresolved = new ArrayList<>();
+
+    // productLookup holds every product found for the request; only this order's lines are kept
+    public OrderDetails(Order order, UserSummary user, Map<Long, ProductSummary> productLookup) {
+        this.order = order;
+        this.user = user;
+        this.product = order.getProductId() != null ? productLookup.get(order.getProductId()) : null;
+        if (user == null && order.getUserId() != null) {
+            unresolved.add("user:" + order.getUserId());
+        }
+        Set<Long> productIds = new LinkedHashSet<>();
+        if (order.getProductId() != null) {
+            productIds.add(order.getProductId());
+        }
+        order.getItems().forEach(item -> productIds.add(item.getProductId()));
+        for (Long productId : productIds) {
+            ProductSummary summary = productLookup.get(productId);
+            if (summary != null) {
+                products.put(productId, summary);
+            } else {
+                unresolved.add("product:" + productId);
+            }
+        }
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public UserSummary getUser() {
+        return user;
+    }
+
+    public ProductSummary getProduct() {
+        return product;
+    }
+
+    public Map<Long, ProductSummary> getProducts() {
+        return products;
+    }
+
+    public List<String> getUnresolved() {
+        return unresolved;
+    }
+}
@@ -0,0 +1,58 @@
+package com.foodSystem.order_service.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time order aggregates served from in-memory counters.
+ */
+public class OrderStats {
+
+    private final long total;
+    private final Map<String, Long> byStatus;
+    private final Map<Long, Long> topProducts;
+    private final List<MinuteCount> createdPerMinute;
+
+    public OrderStats(long total, Map<String, Long> byStatus, Map<Long, Long> topProducts,
+                      List<MinuteCount> createdPerMinute) {
+        this.total = total;
+        this.byStatus = byStatus;
+        this.topProducts = topProducts;
+        this.createdPerMinute = createdPerMinute;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public Map<Long, Long> getTopProducts() {
+        return topProducts;
+    }
+
+    public List<MinuteCount> getCreatedPerMinute() {
+        return createdPerMinute;
+    }
+
+    public static class MinuteCount {
+
+        private final String minute; // ISO-8601 UTC start of the minute
+        private final long count;
+
+        public MinuteCount(String minute, long count) {
+            this.minute = minute;
+            this.count = count;
+        }
+
+        public String getMinute() {
+            return minute;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.foodSystem.order_service.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * The outcome of an order creation made under an {@code Idempotency-Key}, kept so that retries
+ * of the same request replay the original response instead of inserting another order.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint; // SHA-256 of the request body, hex encoded
+
+    private Long orderId;
+
+    @Lob
+    @Column(nullable = false)
+    private String response;    // Order JSON as first returned
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Transient
+    private boolean persisted;  // Lets save() issue a plain INSERT for the assigned key
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, String fingerprint, Long orderId, String response) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.orderId = orderId;
+        this.response = response;
+        this.createdAt = Instant.now();
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
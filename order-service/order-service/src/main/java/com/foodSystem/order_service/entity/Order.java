@@ -1,24 +1,69 @@
 package com.foodSystem.order_service.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.foodSystem.order_service.event.OrderEntityListener;
+import com.foodSystem.order_service.event.OrderSnapshot;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "orders") // "order" is a reserved keyword in SQL
+@Table(name = "orders", // "order" is a reserved keyword in SQL
+        indexes = {
+                // (key, id) composites back the keyset seeks used by cursor pagination
+                @Index(name = "idx_orders_status_id", columnList = "status, id"),
+                @Index(name = "idx_orders_user_id_id", columnList = "user_id, id"),
+                @Index(name = "idx_orders_product_id_id", columnList = "product_id, id")
+        })
+@EntityListeners(OrderEntityListener.class)
 public class Order {
     // Getters and Setters
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    // Pooled-lo over the existing hibernate_sequence table: one round trip hands out 50 ids,
+    // which is what lets Hibernate group inserts into JDBC batches.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_id_generator")
+    @GenericGenerator(
+            name = "order_id_generator",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     private Long id;
     private Long userId;    // References User Service
-    private Long productId; // References Product Service
+    private Long productId; // Product of the first line; kept for existing clients, cursor sorting and stats
     private String status;  // e.g., "PLACED", "DELIVERED"
 
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
+    @BatchSize(size = 50) // Lines of up to 50 orders are loaded with one IN query, not one query per order
+    private List<OrderItem> items = new ArrayList<>();
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0") // Backfills rows created before versioning
+    private Long version;   // Optimistic lock; exposed to clients as the ETag
+
+    @Transient
+    private OrderSnapshot loadedState; // As last read from / written to the database
+
+    @Transient
+    private List<Long> loadedProductIds = new ArrayList<>(); // Products of the lines as last read or written
+
+    @Transient
+    private boolean itemsGiven; // Whether a request body carried "items"; updates without it keep the lines
+
     public Order() {
     }
     public Order(long userId, long productId, String status) {
         this.userId = userId;
         this.productId = productId;
         this.status = status;
+        addItem(new OrderItem(productId, 1));
     }
 
     // Getters and Setters
@@ -54,4 +99,56 @@ public class Order {
         this.status = status;
     }
 
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    // Keeps the managed collection instance so orphan removal sees replaced lines
+    public void setItems(List<OrderItem> items) {
+        itemsGiven = true;
+        if (items == this.items) {
+            return;
+        }
+        this.items.clear();
+        if (items != null) {
+            items.forEach(this::addItem);
+        }
+    }
+
+    @JsonIgnore
+    public boolean isItemsGiven() {
+        return itemsGiven;
+    }
+
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public OrderSnapshot getLoadedState() {
+        return loadedState;
+    }
+
+    public void setLoadedState(OrderSnapshot loadedState) {
+        this.loadedState = loadedState;
+    }
+
+    @JsonIgnore
+    public List<Long> getLoadedProductIds() {
+        return loadedProductIds;
+    }
+
+    public void setLoadedProductIds(List<Long> loadedProductIds) {
+        this.loadedProductIds = loadedProductIds;
+    }
+
 }
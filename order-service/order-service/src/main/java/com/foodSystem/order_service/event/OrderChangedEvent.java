@@ -0,0 +1,35 @@
+package com.foodSystem.order_service.event;
+
+import com.foodSystem.order_service.entity.Order;
+
+/**
+ * Published when an order is written, so in-process indexes can be maintained incrementally.
+ * {@code before} is null for a creation and {@code after} is null for a deletion. Listeners
+ * should use {@code @TransactionalEventListener} so rolled-back writes are never applied.
+ */
+public class OrderChangedEvent {
+
+    private final OrderSnapshot before;
+    private final OrderSnapshot after;
+
+    public OrderChangedEvent(OrderSnapshot before, OrderSnapshot after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public static OrderChangedEvent created(Order order) {
+        return new OrderChangedEvent(null, OrderSnapshot.of(order));
+    }
+
+    public static OrderChangedEvent updated(OrderSnapshot before, Order order) {
+        return new OrderChangedEvent(before, OrderSnapshot.of(order));
+    }
+
+    public OrderSnapshot getBefore() {
+        return before;
+    }
+
+    public OrderSnapshot getAfter() {
+        return after;
+    }
+}
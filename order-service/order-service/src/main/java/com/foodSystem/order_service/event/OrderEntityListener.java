@@ -0,0 +1,52 @@
+package com.foodSystem.order_service.event;
+
+import com.foodSystem.order_service.entity.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.ArrayList;
+
+/**
+ * Turns JPA lifecycle callbacks into {@link OrderChangedEvent}s, so every write path
+ * (single saves, bulk ingest, repository calls) keeps the in-process indexes current.
+ * The state seen at load time is kept on the entity to describe what an update replaced; line
+ * products are recorded as the lines load, which may be after the order itself.
+ */
+public class OrderEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void onLoad(Order order) {
+        order.setLoadedState(OrderSnapshot.of(order));
+    }
+
+    @PostPersist
+    public void onPersist(Order order) {
+        OrderChangedEvent event = OrderChangedEvent.created(order);
+        eventPublisher.publishEvent(event);
+        written(order, event.getAfter());
+    }
+
+    @PostUpdate
+    public void onUpdate(Order order) {
+        OrderChangedEvent event = OrderChangedEvent.updated(OrderSnapshot.loaded(order), order);
+        eventPublisher.publishEvent(event);
+        written(order, event.getAfter());
+    }
+
+    @PostRemove
+    public void onRemove(Order order) {
+        eventPublisher.publishEvent(new OrderChangedEvent(OrderSnapshot.loaded(order), null));
+    }
+
+    private static void written(Order order, OrderSnapshot after) {
+        order.setLoadedState(after);
+        order.setLoadedProductIds(new ArrayList<>(after.getProductIds()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.foodSystem.order_service.event;
+
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.entity.OrderItem;
+import org.hibernate.Hibernate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of the indexed fields of an {@link Order} at the time of a change, including
+ * the product of every line.
+ */
+public class OrderSnapshot {
+
+    private final Long id;
+    private final Long userId;
+    private final Long productId;
+    private final String status;
+    private final List<Long> productIds; // One per line
+
+    public OrderSnapshot(Long id, Long userId, Long productId, String status, List<Long> productIds) {
+        this.id = id;
+        this.userId = userId;
+        this.productId = productId;
+        this.status = status;
+        this.productIds = Collections.unmodifiableList(new ArrayList<>(productIds));
+    }
+
+    public static OrderSnapshot of(Order order) {
+        return new OrderSnapshot(order.getId(), order.getUserId(), order.getProductId(), order.getStatus(),
+                lineProductIds(order));
+    }
+
+    /**
+     * The order as it was read: the fields from load time and the lines as they were loaded,
+     * which may have happened after the order itself.
+     */
+    public static OrderSnapshot loaded(Order order) {
+        OrderSnapshot loaded = order.getLoadedState() != null ? order.getLoadedState() : of(order);
+        return new OrderSnapshot(loaded.id, loaded.userId, loaded.productId, loaded.status,
+                order.getLoadedProductIds());
+    }
+
+    // Lines that were never loaded cannot have changed, and reading them here would hit the database mid-flush
+    private static List<Long> lineProductIds(Order order) {
+        if (!Hibernate.isInitialized(order.getItems())) {
+            return order.getLoadedProductIds();
+        }
+        List<Long> productIds = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            productIds.add(item.getProductId());
+        }
+        return productIds;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,6 @@
+package com.foodSystem.order_service.exception;
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
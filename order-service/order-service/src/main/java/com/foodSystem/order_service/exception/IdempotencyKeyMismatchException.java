@@ -0,0 +1,6 @@
+package com.foodSystem.order_service.exception;
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
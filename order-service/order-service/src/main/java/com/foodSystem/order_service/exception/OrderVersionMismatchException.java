@@ -0,0 +1,6 @@
+package com.foodSystem.order_service.exception;
+public class OrderVersionMismatchException extends RuntimeException {
+    public OrderVersionMismatchException(String message) {
+        super(message);
+    }
+}
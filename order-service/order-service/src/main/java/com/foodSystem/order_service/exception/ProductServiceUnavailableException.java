@@ -0,0 +1,7 @@
+package com.foodSystem.order_service.exception;
+
+public class ProductServiceUnavailableException extends RuntimeException {
+    public ProductServiceUnavailableException(String message) {
+        super(message);
+    }
+}
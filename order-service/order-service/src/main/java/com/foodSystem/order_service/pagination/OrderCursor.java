@@ -0,0 +1,101 @@
+package com.foodSystem.order_service.pagination;
+
+import com.foodSystem.order_service.entity.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Continuation token for keyset pagination. It records the sort key and the {@code (sortKey, id)}
+ * of the last row that was returned, so the next page can seek past it instead of using OFFSET.
+ * Clients treat the encoded form as opaque.
+ */
+public class OrderCursor {
+
+    public static final List<String> SORT_KEYS = Arrays.asList("id", "status", "userId", "productId");
+
+    private static final String SEPARATOR = "\u0000";
+
+    private final String sortKey;
+    private final Object value;   // Sort key value of the last row (String or Long, may be null)
+    private final Long lastId;
+
+    public OrderCursor(String sortKey, Object value, Long lastId) {
+        this.sortKey = sortKey;
+        this.value = value;
+        this.lastId = lastId;
+    }
+
+    public static OrderCursor after(String sortKey, Order last) {
+        return new OrderCursor(sortKey, valueOf(sortKey, last), last.getId());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}. An empty token means "first page" and
+     * yields {@code null}.
+     */
+    public static OrderCursor decode(String token, String sortKey) {
+        checkSortKey(sortKey);
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(sortKey)) {
+            throw new IllegalArgumentException("Cursor does not match sortBy=" + sortKey);
+        }
+        try {
+            Object value = parts[1].isEmpty() ? null : parseValue(sortKey, parts[1].substring(1));
+            return new OrderCursor(sortKey, value, Long.valueOf(parts[2]));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static void checkSortKey(String sortKey) {
+        if (!SORT_KEYS.contains(sortKey)) {
+            throw new IllegalArgumentException("Cursor paging supports sortBy " + SORT_KEYS + ", got " + sortKey);
+        }
+    }
+
+    public String encode() {
+        // "v" prefix distinguishes an empty string value from a null one
+        String raw = sortKey + SEPARATOR + (value == null ? "" : "v" + value) + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    private static Object valueOf(String sortKey, Order order) {
+        switch (sortKey) {
+            case "status":
+                return order.getStatus();
+            case "userId":
+                return order.getUserId();
+            case "productId":
+                return order.getProductId();
+            default:
+                return order.getId();
+        }
+    }
+
+    private static Object parseValue(String sortKey, String raw) {
+        return "status".equals(sortKey) ? raw : Long.valueOf(raw);
+    }
+}
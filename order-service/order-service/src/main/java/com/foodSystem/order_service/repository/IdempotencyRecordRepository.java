@@ -0,0 +1,24 @@
+package com.foodSystem.order_service.repository;
+
+import com.foodSystem.order_service.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.createdAt < :cutoff")
+    int deleteExpired(@Param("key") String key, @Param("cutoff") Instant cutoff);
+}
@@ -1,9 +1,33 @@
 package com.foodSystem.order_service.repository;
 import com.foodSystem.order_service.entity.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> , JpaSpecificationExecutor<Order> {
-}
\ No newline at end of file
+public interface OrderRepository extends JpaRepository<Order, Long> , JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    @Query("select o.status, count(o) from Order o group by o.status")
+    List<Object[]> countByStatus();
+
+    // Lines per product: an order counts once for every product it contains
+    @Query("select i.productId, count(i) from OrderItem i group by i.productId")
+    List<Object[]> countByProductId();
+
+    // What the statistics count of the given orders: their status, and the product of each line
+    @Query("select o.id, o.status from Order o where o.id in :ids")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.order.id, i.productId from OrderItem i where i.order.id in :ids")
+    List<Object[]> findLineProductIdsByOrderIdIn(@Param("ids") Collection<Long> ids);
+}
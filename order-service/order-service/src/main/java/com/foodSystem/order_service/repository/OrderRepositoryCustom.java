@@ -0,0 +1,25 @@
+package com.foodSystem.order_service.repository;
+
+import com.foodSystem.order_service.entity.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Returns at most {@code limit} orders matching {@code spec} in {@code sort} order, without the
+     * {@code COUNT(*)} query that {@code findAll(spec, pageable)} issues for every page.
+     */
+    List<Order> findSlice(Specification<Order> spec, Sort sort, int limit);
+
+    /**
+     * Streams orders matching {@code spec} in id order from a forward-only, read-only cursor that
+     * fetches {@code fetchSize} rows at a time, read through {@code session} rather than the
+     * transaction's entity manager. Must be consumed and closed while {@code session} is open.
+     */
+    Stream<Order> streamAll(EntityManager session, Specification<Order> spec, int fetchSize);
+}
@@ -0,0 +1,48 @@
+package com.foodSystem.order_service.repository;
+
+import com.foodSystem.order_service.entity.Order;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findSlice(Specification<Order> spec, Sort sort, int limit) {
+        return entityManager.createQuery(query(spec, sort)).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<Order> streamAll(EntityManager session, Specification<Order> spec, int fetchSize) {
+        return session.createQuery(query(spec, Sort.by("id")))
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private CriteriaQuery<Order> query(Specification<Order> spec, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = criteriaBuilder.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return query.select(root).orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+    }
+}
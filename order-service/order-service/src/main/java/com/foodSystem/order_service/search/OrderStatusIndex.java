@@ -0,0 +1,154 @@
+package com.foodSystem.order_service.search;
+
+import com.foodSystem.order_service.event.OrderChangedEvent;
+import com.foodSystem.order_service.event.OrderSnapshot;
+import com.foodSystem.order_service.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-process index of the distinct order statuses and how many orders carry each one.
+ * A keyword is resolved to the matching statuses here, so the database only ever sees an
+ * indexable {@code status IN (...)} instead of {@code LIKE '%kw%'}.
+ */
+@Component
+public class OrderStatusIndex {
+
+    // lower-cased status -> exact stored spellings -> number of orders
+    private final TreeMap<String, Map<String, Long>> statuses = new TreeMap<>();
+
+    // Guarded by statuses; the changes of each order while a rebuild runs, merged into one event
+    private Map<Long, OrderChangedEvent> pending;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    /**
+     * Recounts from the database. Changes committed meanwhile may or may not be in the counts, so
+     * they are buffered; once the counts are read, the status of each order changed meanwhile is
+     * read in the same snapshot, and the counts move that order from that status to its latest one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void rebuild() {
+        synchronized (statuses) {
+            pending = new HashMap<>();
+        }
+
+        TreeMap<String, Map<String, Long>> rebuilt = new TreeMap<>();
+        RuntimeException failure = null;
+        try {
+            for (Object[] row : orderRepository.countByStatus()) {
+                add(rebuilt, (String) row[0], (Long) row[1]);
+            }
+        } catch (RuntimeException ex) {
+            failure = ex;
+        }
+
+        synchronized (statuses) {
+            try {
+                if (failure == null) {
+                    try {
+                        reconcile(rebuilt, pending);
+                        statuses.clear();
+                        statuses.putAll(rebuilt);
+                    } catch (RuntimeException ex) {
+                        failure = ex;
+                    }
+                }
+                if (failure != null) {
+                    // Keep the previous counts, with what happened meanwhile applied to them
+                    pending.values().forEach(this::applyLive);
+                    throw failure;
+                }
+            } finally {
+                pending = null;
+            }
+        }
+    }
+
+    // Moves each changed order from the status the counts saw to its latest one
+    private void reconcile(TreeMap<String, Map<String, Long>> rebuilt, Map<Long, OrderChangedEvent> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<Long, String> counted = new HashMap<>();
+        for (Object[] row : orderRepository.findStatusesByIdIn(changed.keySet())) {
+            counted.put((Long) row[0], (String) row[1]);
+        }
+        for (Map.Entry<Long, OrderChangedEvent> entry : changed.entrySet()) {
+            if (counted.containsKey(entry.getKey())) {
+                add(rebuilt, counted.get(entry.getKey()), -1);
+            }
+            if (entry.getValue().getAfter() != null) {
+                add(rebuilt, entry.getValue().getAfter().getStatus(), 1);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (statuses) {
+            if (pending != null) {
+                OrderSnapshot order = event.getAfter() != null ? event.getAfter() : event.getBefore();
+                OrderChangedEvent earlier = pending.get(order.getId());
+                pending.put(order.getId(), earlier == null ? event
+                        : new OrderChangedEvent(earlier.getBefore(), event.getAfter()));
+                return;
+            }
+            applyLive(event);
+        }
+    }
+
+    /**
+     * Returns every stored status whose lower-cased form starts with {@code prefix}.
+     */
+    public List<String> findByPrefix(String prefix) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        List<String> matches = new ArrayList<>();
+        synchronized (statuses) {
+            for (Map<String, Long> spellings : statuses.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+                matches.addAll(spellings.keySet());
+            }
+        }
+        return matches;
+    }
+
+    private void applyLive(OrderChangedEvent event) {
+        if (event.getBefore() != null) {
+            add(statuses, event.getBefore().getStatus(), -1);
+        }
+        if (event.getAfter() != null) {
+            add(statuses, event.getAfter().getStatus(), 1);
+        }
+    }
+
+    private static void add(TreeMap<String, Map<String, Long>> statuses, String status, long delta) {
+        if (status == null) {
+            return;
+        }
+        String key = status.toLowerCase(Locale.ROOT);
+        Map<String, Long> spellings = statuses.computeIfAbsent(key, k -> new HashMap<>());
+        long count = spellings.getOrDefault(status, 0L) + delta;
+        if (count > 0) {
+            spellings.put(status, count);
+        } else {
+            spellings.remove(status);
+            if (spellings.isEmpty()) {
+                statuses.remove(key);
+            }
+        }
+    }
+}
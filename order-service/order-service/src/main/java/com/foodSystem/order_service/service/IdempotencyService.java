@@ -0,0 +1,186 @@
+package com.foodSystem.order_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodSystem.order_service.client.ProductSummary;
+import com.foodSystem.order_service.entity.IdempotencyRecord;
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.exception.IdempotencyKeyInProgressException;
+import com.foodSystem.order_service.exception.IdempotencyKeyMismatchException;
+import com.foodSystem.order_service.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Order creation under an {@code Idempotency-Key}. The first request for a key creates the order
+ * and records its response in the same transaction; retries replay that response. Recent keys are
+ * answered from a bounded in-memory cache, older ones from the {@code idempotency_keys} table,
+ * and duplicates arriving while the first request is still running wait for its outcome.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final Cache<String, IdempotencyRecord> recent;
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${orders.idempotency.retention:24h}")
+    private Duration retention;
+
+    @Value("${orders.idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    public IdempotencyService(@Value("${orders.idempotency.max-keys:10000}") long maxKeys,
+                              @Value("${orders.idempotency.ttl:10m}") Duration ttl) {
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Order createOrder(String key, Order request) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(request);
+        while (true) {
+            IdempotencyRecord record = find(key);
+            if (record != null) {
+                return replay(record, fingerprint);
+            }
+            CompletableFuture<IdempotencyRecord> claim = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(key, claim);
+            if (running == null) {
+                return replay(execute(key, fingerprint, request, claim), fingerprint);
+            }
+            record = await(key, running);
+            if (record != null) {
+                return replay(record, fingerprint);
+            }
+            // The first request failed without creating an order; let this one try
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(retention));
+    }
+
+    private IdempotencyRecord execute(String key, String fingerprint, Order request,
+                                      CompletableFuture<IdempotencyRecord> claim) {
+        IdempotencyRecord record = null;
+        try {
+            // Looked up before the transaction, so no connection waits on product-service
+            Map<Long, ProductSummary> products = orderService.resolveProducts(request);
+            try {
+                record = transactionTemplate.execute(status -> {
+                    // A key past its retention may still be stored until the next purge
+                    idempotencyRecordRepository.deleteExpired(key, Instant.now().minus(retention));
+                    Order order = orderService.createOrder(request, products);
+                    return idempotencyRecordRepository.saveAndFlush(
+                            new IdempotencyRecord(key, fingerprint, order.getId(), toJson(order)));
+                });
+            } catch (DataIntegrityViolationException ex) {
+                // Another instance committed the same key first; its order stands, ours rolled back
+                record = idempotencyRecordRepository.findById(key).orElseThrow(() -> ex);
+            }
+            recent.put(key, record);
+            return record;
+        } finally {
+            claim.complete(record); // null tells waiters to retry
+            inFlight.remove(key, claim);
+        }
+    }
+
+    private IdempotencyRecord find(String key) {
+        IdempotencyRecord record = recent.getIfPresent(key);
+        if (record != null) {
+            return record;
+        }
+        record = idempotencyRecordRepository.findById(key).orElse(null);
+        if (record == null || record.getCreatedAt().isBefore(Instant.now().minus(retention))) {
+            return null;
+        }
+        recent.put(key, record);
+        return record;
+    }
+
+    private IdempotencyRecord await(String key, CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IdempotencyKeyInProgressException("A request with Idempotency-Key " + key + " is still in progress");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for Idempotency-Key " + key);
+        } catch (ExecutionException ex) {
+            return null; // claims are only ever completed normally
+        }
+    }
+
+    private Order replay(IdempotencyRecord record, String fingerprint) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency-Key " + record.getKey() + " was already used with a different request body");
+        }
+        try {
+            return objectMapper.readValue(record.getResponse(), Order.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable stored response for Idempotency-Key " + record.getKey(), ex);
+        }
+    }
+
+    private String fingerprint(Order request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                    toJson(request).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String toJson(Order order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
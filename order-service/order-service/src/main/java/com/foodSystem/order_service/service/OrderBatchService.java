@@ -0,0 +1,158 @@
+package com.foodSystem.order_service.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodSystem.order_service.client.ProductSummary;
+import com.foodSystem.order_service.dto.BatchOrderResponse;
+import com.foodSystem.order_service.dto.BatchOrderResult;
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.exception.ProductServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk order ingest. Orders are written in chunks, each chunk in its own transaction, so that
+ * Hibernate can group the inserts into JDBC batches instead of one round trip per order.
+ * Lines cascade with their order and are batched the same way; their prices are captured with
+ * one batched product lookup per chunk. An order for a product that does not exist fails on its
+ * own, and a chunk whose products cannot be looked up is not written at all.
+ */
+@Service
+public class OrderBatchService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Value("${orders.batch.chunk-size:500}")
+    private int chunkSize;
+
+    public BatchOrderResponse createOrders(List<Order> orders) {
+        return ingest(orders.iterator());
+    }
+
+    public BatchOrderResponse createOrders(InputStream ndjson) throws IOException {
+        try (MappingIterator<Order> orders = objectMapper.readerFor(Order.class).readValues(ndjson)) {
+            return ingest(orders);
+        }
+    }
+
+    private BatchOrderResponse ingest(Iterator<Order> orders) {
+        BatchOrderResponse response = new BatchOrderResponse();
+        List<Order> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        long start = System.nanoTime();
+        int index = 0;
+
+        while (true) {
+            Order order;
+            try {
+                if (!orders.hasNext()) {
+                    break;
+                }
+                order = orders.next();
+            } catch (RuntimeException ex) {
+                // A malformed record leaves the stream unreadable; keep what was already written.
+                response.addResult(BatchOrderResult.failed(index, "Unreadable order: " + ex.getMessage()));
+                break;
+            }
+
+            String error = validate(order);
+            if (error != null) {
+                response.addResult(BatchOrderResult.failed(index, error));
+            } else {
+                order.setId(null);
+                order.setVersion(null);
+                chunk.add(order);
+                indexes.add(index);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, indexes, response);
+                }
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, indexes, response);
+        }
+
+        response.finish(System.nanoTime() - start);
+        return response;
+    }
+
+    private void writeChunk(List<Order> chunk, List<Integer> indexes, BatchOrderResponse response) {
+        List<Integer> unwritten = indexes;
+        try {
+            // Products are looked up before the transaction, which then only writes
+            Map<Long, ProductSummary> products = orderItemService.resolveProducts(chunk);
+            List<Order> priced = new ArrayList<>(chunk.size());
+            List<Integer> pricedIndexes = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                String error = orderItemService.validateProducts(chunk.get(i), products);
+                if (error != null) {
+                    response.addResult(BatchOrderResult.failed(indexes.get(i), error));
+                } else {
+                    priced.add(chunk.get(i));
+                    pricedIndexes.add(indexes.get(i));
+                }
+            }
+            unwritten = pricedIndexes;
+            if (!priced.isEmpty()) {
+                orderItemService.prepare(priced, products);
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Order order : priced) {
+                        entityManager.persist(order);
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                for (int i = 0; i < priced.size(); i++) {
+                    response.addResult(BatchOrderResult.created(pricedIndexes.get(i), priced.get(i).getId()));
+                }
+                response.chunkWritten();
+            }
+        } catch (ProductServiceUnavailableException ex) {
+            // Nothing was written; the whole chunk can be sent again once product-service answers
+            for (Integer i : unwritten) {
+                response.addResult(BatchOrderResult.failed(i, ex.getMessage()));
+            }
+        } catch (RuntimeException ex) {
+            for (Integer i : unwritten) {
+                response.addResult(BatchOrderResult.failed(i, "Chunk rolled back: " + ex.getMessage()));
+            }
+        }
+        chunk.clear();
+        indexes.clear();
+    }
+
+    private String validate(Order order) {
+        if (order == null) {
+            return "Order is empty";
+        }
+        if (order.getUserId() == null) {
+            return "userId is required";
+        }
+        if (order.getStatus() == null || order.getStatus().trim().isEmpty()) {
+            return "status is required";
+        }
+        return orderItemService.validate(order);
+    }
+}
@@ -0,0 +1,71 @@
+package com.foodSystem.order_service.service;
+
+import com.foodSystem.order_service.client.ProductClient;
+import com.foodSystem.order_service.client.ProductSummary;
+import com.foodSystem.order_service.client.UserClient;
+import com.foodSystem.order_service.client.UserSummary;
+import com.foodSystem.order_service.dto.OrderDetails;
+import com.foodSystem.order_service.entity.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Enriches orders with user and product data. Both services are queried in parallel and each
+ * distinct id is looked up once per request, however many orders on the page reference it.
+ */
+@Service
+public class OrderDetailsService {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private ProductClient productClient;
+
+    public Mono<OrderDetails> getOrderDetails(Long id) {
+        return Mono.justOrEmpty(orderService.getOrderById(id))
+                .flatMap(order -> enrich(Collections.singletonList(order)))
+                .map(details -> details.get(0));
+    }
+
+    public Mono<Page<OrderDetails>> getOrderDetailsPage(Page<Order> orders) {
+        return enrich(orders.getContent())
+                .<Page<OrderDetails>>map(details -> new PageImpl<>(details, orders.getPageable(), orders.getTotalElements()));
+    }
+
+    private Mono<List<OrderDetails>> enrich(List<Order> orders) {
+        Mono<Map<Long, UserSummary>> users = userClient.findUsers(
+                orders.stream().map(Order::getUserId).collect(Collectors.toSet()));
+        // Lines are read here, on the request thread, while the persistence context is still open
+        Set<Long> productIds = new HashSet<>();
+        for (Order order : orders) {
+            productIds.add(order.getProductId());
+            order.getItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+        Mono<Map<Long, ProductSummary>> products = productClient.findProducts(productIds);
+
+        return Mono.zip(users, products).map(lookups -> {
+            List<OrderDetails> details = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                details.add(new OrderDetails(order,
+                        lookups.getT1().get(order.getUserId()),
+                        lookups.getT2()));
+            }
+            return details;
+        });
+    }
+}
@@ -0,0 +1,154 @@
+package com.foodSystem.order_service.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.entity.OrderItem;
+import com.foodSystem.order_service.repository.OrderRepository;
+import com.foodSystem.order_service.specification.OrderSpecification;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders straight from a database cursor to the response, one block of rows at a time,
+ * so an export never holds more than one block of orders and their lines in the heap.
+ *
+ * Exports read through their own small pool ({@code exportDataSource} in {@link
+ * com.foodSystem.order_service.config.DataSourceConfig}) whose connections have {@code useCursorFetch}
+ * enabled, so MySQL keeps the result set server-side while lines are loaded on the same
+ * connection. Every other query keeps the regular datasource, where small results are better
+ * read in one round trip.
+ */
+@Service
+public class OrderExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${orders.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Autowired
+    @Qualifier("exportDataSource")
+    private DataSource cursors;
+
+    public void export(String format, String status, Long userId, Long productId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        boolean csv = CSV.equals(format);
+        if (csv) {
+            writer.write("id,userId,productId,status,quantity,unitPrice\n");
+        }
+
+        try (Connection connection = cursors.getConnection();
+             Session session = entityManagerFactory.unwrap(SessionFactory.class)
+                     .withOptions().connection(connection).openSession();
+             Stream<Order> orders = orderRepository.streamAll(session,
+                     OrderSpecification.matchesFilter(status, userId, productId), fetchSize)) {
+            session.setDefaultReadOnly(true);
+            Iterator<Order> rows = orders.iterator();
+            List<Order> block = new ArrayList<>(FLUSH_EVERY);
+            while (rows.hasNext()) {
+                block.add(rows.next());
+                if (block.size() == FLUSH_EVERY || !rows.hasNext()) {
+                    // Orders stay attached until their block is written, so the first lines access
+                    // loads the lines of the whole batch (@BatchSize) instead of one query per order
+                    for (Order order : block) {
+                        if (csv) {
+                            writeCsv(writer, order);
+                        } else {
+                            json.writeObject(order);
+                            json.flush();
+                            writer.write('\n');
+                        }
+                    }
+                    // Drop the rows from the persistence context so they can be collected
+                    block.forEach(session::detach);
+                    block.clear();
+                    writer.flush();
+                }
+            }
+        } catch (SQLException ex) {
+            throw new CannotGetJdbcConnectionException("No connection for the export", ex);
+        }
+        writer.flush();
+    }
+
+    public static void checkFormat(String format) {
+        if (!NDJSON.equals(format) && !CSV.equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format " + format + ", expected ndjson or csv");
+        }
+    }
+
+    // One row per line; orders without lines get a single row with empty line columns
+    private void writeCsv(Writer writer, Order order) throws IOException {
+        if (order.getItems().isEmpty()) {
+            writeCsvRow(writer, order, order.getProductId(), null);
+        }
+        for (OrderItem item : order.getItems()) {
+            writeCsvRow(writer, order, item.getProductId(), item);
+        }
+    }
+
+    private void writeCsvRow(Writer writer, Order order, Long productId, OrderItem item) throws IOException {
+        writer.write(String.valueOf(order.getId()));
+        writer.write(',');
+        writer.write(order.getUserId() != null ? order.getUserId().toString() : "");
+        writer.write(',');
+        writer.write(productId != null ? productId.toString() : "");
+        writer.write(',');
+        writer.write(escapeCsv(order.getStatus()));
+        writer.write(',');
+        if (item != null) {
+            writer.write(String.valueOf(item.getQuantity()));
+            writer.write(',');
+            writer.write(item.getUnitPrice() != null ? item.getUnitPrice().toPlainString() : "");
+        } else {
+            writer.write(',');
+        }
+        writer.write('\n');
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
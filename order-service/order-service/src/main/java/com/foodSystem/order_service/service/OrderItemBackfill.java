@@ -0,0 +1,64 @@
+package com.foodSystem.order_service.service;
+
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.entity.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Gives orders written before order lines existed a single line for their {@code productId}, so
+ * product filters only have to look at {@code order_items}. Runs in chunks on startup and does
+ * nothing once every order has a line.
+ */
+@Component
+public class OrderItemBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemBackfill.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${orders.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long total = 0;
+        int written;
+        do {
+            written = transactionTemplate.execute(status -> {
+                List<Object[]> orders = entityManager.createQuery(
+                                "select o.id, o.productId from Order o"
+                                        + " where o.productId is not null and o.items is empty order by o.id",
+                                Object[].class)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+                for (Object[] order : orders) {
+                    OrderItem item = new OrderItem((Long) order[1], 1);
+                    item.setOrder(entityManager.getReference(Order.class, order[0]));
+                    entityManager.persist(item);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return orders.size();
+            });
+            total += written;
+        } while (written == chunkSize);
+        if (total > 0) {
+            log.info("Backfilled order lines for {} orders", total);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.foodSystem.order_service.service;
+
+import com.foodSystem.order_service.client.ProductBatch;
+import com.foodSystem.order_service.client.ProductClient;
+import com.foodSystem.order_service.client.ProductSummary;
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.entity.OrderItem;
+import com.foodSystem.order_service.exception.ProductServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Prepares order lines for writing: single-product requests become one line, the legacy
+ * {@code productId} mirrors the first line, and unit prices are captured from product-service
+ * with one batched lookup for the distinct products of all the given orders. The lookup and the
+ * write are separate steps so that no HTTP call ever runs while a transaction holds a connection.
+ * A line is never written without a price: a product that does not exist is refused, and a
+ * lookup that fails fails the write.
+ */
+@Service
+public class OrderItemService {
+
+    @Autowired
+    private ProductClient productClient;
+
+    /**
+     * Returns why the lines of {@code order} cannot be written, or null if they can.
+     */
+    public String validate(Order order) {
+        if (order.getItems().isEmpty()) {
+            return order.getProductId() == null ? "productId or items is required" : null;
+        }
+        for (OrderItem item : order.getItems()) {
+            if (item.getProductId() == null) {
+                return "items.productId is required";
+            }
+            if (item.getQuantity() <= 0) {
+                return "items.quantity must be positive";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the products of the lines of {@code orders} in one batched call (the legacy
+     * {@code productId} stands in for orders without lines). This is a remote call, so it runs
+     * before any transaction opens and its result is handed to {@link #prepare}. Products that do
+     * not exist are left out, for {@link #validateProducts} to report per order.
+     *
+     * @throws ProductServiceUnavailableException if some product could not be looked up
+     */
+    public Map<Long, ProductSummary> resolveProducts(Collection<Order> orders) {
+        Set<Long> productIds = new HashSet<>();
+        for (Order order : orders) {
+            productIds.addAll(productIds(order));
+        }
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        ProductBatch batch = productClient.lookupProducts(productIds).block();
+        Set<Long> unresolved = new TreeSet<>(productIds);
+        if (batch != null) {
+            unresolved.removeAll(batch.getProducts().keySet());
+            unresolved.removeAll(batch.getMissing());
+        }
+        if (!unresolved.isEmpty()) {
+            throw new ProductServiceUnavailableException("Product service unavailable; prices of products "
+                    + unresolved + " could not be looked up");
+        }
+        return batch.getProducts();
+    }
+
+    /**
+     * Returns why {@code order} cannot be written with {@code products}, as returned by
+     * {@link #resolveProducts}, or null if every product it references exists and has a price.
+     */
+    public String validateProducts(Order order, Map<Long, ProductSummary> products) {
+        Set<Long> unknown = new TreeSet<>();
+        for (Long productId : productIds(order)) {
+            ProductSummary product = products.get(productId);
+            if (product == null || product.getPrice() == null) {
+                unknown.add(productId);
+            }
+        }
+        return unknown.isEmpty() ? null : "Unknown product " + (unknown.size() == 1 ? unknown.iterator().next() : unknown);
+    }
+
+    private static Set<Long> productIds(Order order) {
+        Set<Long> productIds = new HashSet<>();
+        if (order.getItems().isEmpty()) {
+            if (order.getProductId() != null) {
+                productIds.add(order.getProductId());
+            }
+        } else {
+            for (OrderItem item : order.getItems()) {
+                if (item.getProductId() != null) {
+                    productIds.add(item.getProductId());
+                }
+            }
+        }
+        return productIds;
+    }
+
+    /**
+     * Gives every order its lines and prices them from {@code products}, as returned by
+     * {@link #resolveProducts}. Does no I/O, so it is safe inside a transaction.
+     */
+    public void prepare(Collection<Order> orders, Map<Long, ProductSummary> products) {
+        for (Order order : orders) {
+            if (order.getItems().isEmpty()) {
+                order.addItem(new OrderItem(order.getProductId(), 1));
+            }
+            order.setProductId(order.getItems().get(0).getProductId());
+            for (OrderItem item : order.getItems()) {
+                item.setId(null);
+                price(item, products);
+            }
+        }
+    }
+
+    /**
+     * Applies a legacy single-product update to an existing order without touching its other
+     * lines: a one-line order gets its line moved to {@code productId} and re-priced, a new
+     * {@code productId} on an order of several lines is refused, and a null one changes nothing.
+     */
+    public void changeProduct(Order order, Long productId, Map<Long, ProductSummary> products) {
+        if (order.getItems().isEmpty()) {
+            if (productId == null) {
+                throw new IllegalArgumentException("productId or items is required");
+            }
+            order.setProductId(productId);
+            prepare(Collections.singletonList(order), products);
+            return;
+        }
+        OrderItem first = order.getItems().get(0);
+        if (productId != null && !productId.equals(first.getProductId())) {
+            if (order.getItems().size() > 1) {
+                throw new IllegalArgumentException("Order has " + order.getItems().size()
+                        + " lines; send items to change its products");
+            }
+            first.setProductId(productId);
+            price(first, products);
+        }
+        order.setProductId(first.getProductId());
+    }
+
+    public void price(OrderItem item, Map<Long, ProductSummary> products) {
+        ProductSummary product = products.get(item.getProductId());
+        if (product == null || product.getPrice() == null) {
+            throw new IllegalArgumentException("Unknown product " + item.getProductId());
+        }
+        // Never trust a client-supplied price
+        item.setUnitPrice(BigDecimal.valueOf(product.getPrice()));
+    }
+}
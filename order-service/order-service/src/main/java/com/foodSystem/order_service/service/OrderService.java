@@ -1,8 +1,15 @@
 package com.foodSystem.order_service.service;
 
+import com.foodSystem.order_service.cache.OrderCache;
+import com.foodSystem.order_service.client.ProductSummary;
+import com.foodSystem.order_service.dto.CursorSlice;
 import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.exception.OrderVersionMismatchException;
+import com.foodSystem.order_service.pagination.OrderCursor;
 import com.foodSystem.order_service.repository.OrderRepository;
+import com.foodSystem.order_service.search.OrderStatusIndex;
 import com.foodSystem.order_service.specification.OrderSpecification;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -10,8 +17,11 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -20,29 +30,84 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderStatusIndex orderStatusIndex;
+
+    @Autowired
+    private OrderCache orderCache;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return Optional.ofNullable(orderCache.getOrder(id, key -> orderRepository.findWithItemsById(key).orElse(null)));
     }
 
     public Order createOrder(Order order) {
+        return createOrder(order, resolveProducts(order));
+    }
+
+    /**
+     * Writes {@code order} with the products already looked up by {@link #resolveProducts}, for
+     * callers that save it inside their own transaction.
+     */
+    public Order createOrder(Order order, Map<Long, ProductSummary> products) {
+        orderItemService.prepare(Collections.singletonList(order), products);
         return orderRepository.save(order);
     }
 
-    public Order updateOrder(Long id, Order orderDetails) {
-    Order order = orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found"));
-        order.setUserId(orderDetails.getUserId());
-        order.setProductId(orderDetails.getProductId());
-        order.setStatus(orderDetails.getStatus());
-         if(orderRepository.save(order).getId()>0) {
-             return order;
-         }
-         else {
+    /**
+     * Validates the lines of {@code order} and looks up their products, refusing products that do
+     * not exist. Runs outside any transaction, so no connection is held while product-service answers.
+     */
+    public Map<Long, ProductSummary> resolveProducts(Order order) {
+        String error = orderItemService.validate(order);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        Map<Long, ProductSummary> products = orderItemService.resolveProducts(Collections.singletonList(order));
+        error = orderItemService.validateProducts(order, products);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        return products;
+    }
+
+    // expectedVersions comes from If-Match; null means unconditional
+    public Order updateOrder(Long id, Order orderDetails, List<Long> expectedVersions) {
+        // Without "items" the lines are kept, so only a given productId needs a lookup
+        Map<Long, ProductSummary> products = orderDetails.isItemsGiven() || orderDetails.getProductId() != null
+                ? resolveProducts(orderDetails) : Collections.<Long, ProductSummary>emptyMap();
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found"));
+            if (expectedVersions != null && !expectedVersions.contains(order.getVersion())) {
+                throw new OrderVersionMismatchException("Order " + id + " has been modified (current version " + order.getVersion() + ")");
+            }
+            order.setUserId(orderDetails.getUserId());
+            order.setStatus(orderDetails.getStatus());
+            if (orderDetails.isItemsGiven()) {
+                order.setProductId(orderDetails.getProductId());
+                order.setItems(orderDetails.getItems());
+                orderItemService.prepare(Collections.singletonList(order), products);
+            } else {
+                orderItemService.changeProduct(order, orderDetails.getProductId(), products);
+            }
+            // The version check is repeated atomically by the UPDATE ... WHERE version = ? that save issues
+            Order saved = orderRepository.save(order);
+            if (saved.getId() > 0) {
+                return saved;
+            }
+            else {
                 throw new RuntimeException("Error while creating order");
-         }
+            }
+        });
     }
 
     public void deleteOrder(Long id) {
@@ -56,24 +121,73 @@ public class OrderService {
         return orderRepository.findAll(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort));
     }
 
+    public CursorSlice<Order> getOrdersByCursor(String cursor, int size, String sortBy) {
+        return findByCursor(Specification.where(null), cursor, size, sortBy);
+    }
+
     public Page<Order> getFilteredOrders(Pageable pageable, String status, Long userId, Long productId) {
-        Specification<Order> spec = Specification.where(null);
-        if (status != null) {
-            spec = spec.and(OrderSpecification.hasStatus(status));
-        }
-        if (userId != null) {
-            spec = spec.and(OrderSpecification.hasUserId(userId));
+        PageRequest pageRequest = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        if (userId != null && productId == null) {
+            // Per-user (optionally per-status) pages are what order tracking screens poll
+            return orderCache.getUserPage(userId, status, pageRequest.getPageNumber(), pageRequest.getPageSize(),
+                    key -> withItems(orderRepository.findAll(OrderSpecification.matchesFilter(status, userId, null), pageRequest)));
         }
-        if (productId != null) {
-            spec = spec.and(OrderSpecification.hasProductId(productId));
+        return orderRepository.findAll(OrderSpecification.matchesFilter(status, userId, productId), pageRequest);
+    }
+
+    public CursorSlice<Order> getFilteredOrdersByCursor(String cursor, int size, String status, Long userId, Long productId) {
+        return findByCursor(OrderSpecification.matchesFilter(status, userId, productId), cursor, size, "id");
+    }
+
+    // Seeks on (sortBy, id) and reads one extra row to learn whether another page exists
+    private CursorSlice<Order> findByCursor(Specification<Order> spec, String cursor, int size, String sortBy) {
+        OrderCursor after = OrderCursor.decode(cursor, sortBy);
+        if (after != null) {
+            spec = spec.and(OrderSpecification.after(after));
         }
-        return orderRepository.findAll(spec, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        Sort sort = "id".equals(sortBy) ? Sort.by("id") : Sort.by(sortBy).and(Sort.by("id"));
+        List<Order> rows = orderRepository.findSlice(spec, sort, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<Order> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? OrderCursor.after(sortBy, content.get(size - 1)).encode() : null;
+        return new CursorSlice<>(content, size, hasNext, nextCursor);
     }
 
+    // Numeric keywords become exact id lookups; text keywords are resolved to stored statuses in memory
     public Page<Order> searchOrders(Pageable pageable, String keyword) {
-        Specification<Order> spec = Specification.where(OrderSpecification.containsKeyword(keyword));
+        String term = keyword.trim();
+        Long number = parseId(term);
+        Specification<Order> spec;
+        if (number != null) {
+            spec = OrderSpecification.matchesAnyId(number);
+        } else {
+            List<String> statuses = orderStatusIndex.findByPrefix(term);
+            if (statuses.isEmpty()) {
+                return Page.empty(pageable);
+            }
+            spec = OrderSpecification.hasStatusIn(statuses);
+        }
         return orderRepository.findAll(spec, pageable);
     }
 
+    // Cached pages outlive the session, so their lines are loaded up front (batched by @BatchSize)
+    private static Page<Order> withItems(Page<Order> page) {
+        page.forEach(order -> Hibernate.initialize(order.getItems()));
+        return page;
+    }
+
+    private Long parseId(String term) {
+        if (term.isEmpty() || term.length() > 18) {
+            return null;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isDigit(term.charAt(i))) {
+                return null;
+            }
+        }
+        return Long.valueOf(term);
+    }
+
 
 }
@@ -1,8 +1,18 @@
 package com.foodSystem.order_service.specification;
 
 import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.entity.OrderItem;
+import com.foodSystem.order_service.pagination.OrderCursor;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.Collection;
+
 public class OrderSpecification {
 
     public static Specification<Order> hasStatus(String status) {
@@ -15,17 +25,73 @@ public class OrderSpecification {
             criteriaBuilder.equal(root.get("userId"), userId);
     }
 
+    // Any line of the order; resolved as a semi-join on idx_order_items_product_id_order_id
     public static Specification<Order> hasProductId(Long productId) {
-        return (root, query, criteriaBuilder) ->
-            criteriaBuilder.equal(root.get("productId"), productId);
+        return (root, query, criteriaBuilder) -> containsProduct(root, query, criteriaBuilder, productId);
+    }
+
+    // Conjunction of the optional /orders/filter parameters; null parameters are ignored
+    public static Specification<Order> matchesFilter(String status, Long userId, Long productId) {
+        Specification<Order> spec = Specification.where(null);
+        if (status != null) {
+            spec = spec.and(hasStatus(status));
+        }
+        if (userId != null) {
+            spec = spec.and(hasUserId(userId));
+        }
+        if (productId != null) {
+            spec = spec.and(hasProductId(productId));
+        }
+        return spec;
+    }
+
+    public static Specification<Order> hasStatusIn(Collection<String> statuses) {
+        return (root, query, criteriaBuilder) -> root.get("status").in(statuses);
     }
 
-    public static Specification<Order> containsKeyword(String keyword) {
+    // Exact match of a numeric keyword against every id column; each branch is an index lookup
+    public static Specification<Order> matchesAnyId(Long value) {
         return (root, query, criteriaBuilder) ->
                 criteriaBuilder.or(
-                        criteriaBuilder.like(root.get("status"), "%" + keyword + "%"),
-                        criteriaBuilder.like(root.get("userId").as(String.class), "%" + keyword + "%"),
-                        criteriaBuilder.like(root.get("productId").as(String.class), "%" + keyword + "%")
+                        criteriaBuilder.equal(root.get("id"), value),
+                        criteriaBuilder.equal(root.get("userId"), value),
+                        containsProduct(root, query, criteriaBuilder, value)
                 );
     }
+
+    // Keyset seek: rows strictly after the cursor in (sortKey, id) ascending order
+    public static Specification<Order> after(OrderCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            Path<Long> id = root.get("id");
+            if ("id".equals(cursor.getSortKey())) {
+                return criteriaBuilder.greaterThan(id, cursor.getLastId());
+            }
+            if ("status".equals(cursor.getSortKey())) {
+                return seek(criteriaBuilder, root.<String>get("status"), (String) cursor.getValue(), id, cursor.getLastId());
+            }
+            return seek(criteriaBuilder, root.<Long>get(cursor.getSortKey()), (Long) cursor.getValue(), id, cursor.getLastId());
+        };
+    }
+
+    private static Predicate containsProduct(Root<Order> root, CriteriaQuery<?> query,
+                                             CriteriaBuilder criteriaBuilder, Long productId) {
+        Subquery<Long> orderIds = query.subquery(Long.class);
+        Root<OrderItem> item = orderIds.from(OrderItem.class);
+        orderIds.select(item.get("order").<Long>get("id"))
+                .where(criteriaBuilder.equal(item.get("productId"), productId));
+        return root.get("id").in(orderIds);
+    }
+
+    private static <T extends Comparable<? super T>> Predicate seek(CriteriaBuilder criteriaBuilder, Path<T> key, T value,
+                                                                     Path<Long> id, Long lastId) {
+        if (value == null) {
+            // NULLs sort first in MySQL, so everything non-null still lies ahead
+            return criteriaBuilder.or(
+                    criteriaBuilder.isNotNull(key),
+                    criteriaBuilder.and(criteriaBuilder.isNull(key), criteriaBuilder.greaterThan(id, lastId)));
+        }
+        return criteriaBuilder.or(
+                criteriaBuilder.greaterThan(key, value),
+                criteriaBuilder.and(criteriaBuilder.equal(key, value), criteriaBuilder.greaterThan(id, lastId)));
+    }
 }
@@ -0,0 +1,295 @@
+package com.foodSystem.order_service.stats;
+
+import com.foodSystem.order_service.dto.OrderStats;
+import com.foodSystem.order_service.event.OrderChangedEvent;
+import com.foodSystem.order_service.event.OrderSnapshot;
+import com.foodSystem.order_service.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live order aggregates kept in striped {@link LongAdder} counters, so dashboards read O(1)
+ * values instead of running COUNT/GROUP BY against the orders table.
+ *
+ * Creations per minute are kept in a ring buffer whose slots pack the minute (high 32 bits) and
+ * its count (low 32 bits) into one long, so a slot is rolled over and incremented with a single
+ * CAS. Orders carry no timestamp, so that window only covers minutes observed since startup.
+ *
+ * At most {@code max-products} product counters are kept: once there are more, counters at zero
+ * are dropped first, then the smallest ones, which start again from zero if the product sells
+ * again. Counts of the products at the top stay exact.
+ */
+@Component
+public class OrderStatistics {
+
+    private volatile Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private volatile Map<Long, LongAdder> byProduct = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLongArray perMinute;
+    private final int maxProducts;
+    private final AtomicBoolean pruning = new AtomicBoolean();
+
+    // Live events take the read lock; a rebuild takes the write lock to start and to finish buffering
+    private final ReadWriteLock rebuilding = new ReentrantReadWriteLock();
+    private Map<Long, OrderChangedEvent> pending; // Latest event per order while a rebuild runs
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    public OrderStatistics(@Value("${orders.stats.window-minutes:60}") int windowMinutes,
+                           @Value("${orders.stats.max-products:10000}") int maxProducts) {
+        this.perMinute = new AtomicLongArray(windowMinutes);
+        this.maxProducts = maxProducts;
+    }
+
+    /**
+     * Recounts from the database. Changes committed meanwhile may or may not be in the counts, so
+     * they are buffered; once the counts are read, the state of each order changed meanwhile is
+     * read in the same snapshot, and the counts move that order from that state to its latest one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void rebuild() {
+        rebuilding.writeLock().lock();
+        try {
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            rebuilding.writeLock().unlock();
+        }
+
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        Map<Long, LongAdder> products = new ConcurrentHashMap<>();
+        long count = 0;
+        RuntimeException failure = null;
+        try {
+            for (Object[] row : orderRepository.countByStatus()) {
+                counter(statuses, row[0] != null ? (String) row[0] : "").add((Long) row[1]);
+                count += (Long) row[1];
+            }
+            for (Object[] row : orderRepository.countByProductId()) {
+                if (row[0] != null) {
+                    counter(products, (Long) row[0]).add((Long) row[1]);
+                }
+            }
+        } catch (RuntimeException ex) {
+            failure = ex;
+        }
+
+        rebuilding.writeLock().lock();
+        try {
+            if (failure == null) {
+                try {
+                    count += reconcile(statuses, products, pending);
+                    trim(products);
+                    byStatus = statuses;
+                    byProduct = products;
+                    total.reset();
+                    total.add(count);
+                } catch (RuntimeException ex) {
+                    failure = ex;
+                }
+            }
+            if (failure != null) {
+                // Keep the previous counts, with what happened meanwhile applied to them
+                pending.values().forEach(this::applyLive);
+                throw failure;
+            }
+        } finally {
+            pending = null;
+            rebuilding.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves each changed order from the state the counts saw to its latest one, and returns how
+     * much the total moves by.
+     */
+    private long reconcile(Map<String, LongAdder> statuses, Map<Long, LongAdder> products,
+                           Map<Long, OrderChangedEvent> changed) {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        long delta = 0;
+        Map<Long, OrderSnapshot> counted = statesOf(changed.keySet());
+        for (Map.Entry<Long, OrderChangedEvent> entry : changed.entrySet()) {
+            OrderSnapshot was = counted.get(entry.getKey());
+            OrderSnapshot now = entry.getValue().getAfter();
+            if (was != null) {
+                delta--;
+                apply(statuses, products, was, -1);
+            }
+            if (now != null) {
+                delta++;
+                apply(statuses, products, now, 1);
+            }
+        }
+        return delta;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getBefore() == null) {
+            recordCreation(currentMinute());
+        }
+        rebuilding.readLock().lock();
+        try {
+            Map<Long, OrderChangedEvent> buffer = pending;
+            if (buffer != null) {
+                OrderSnapshot order = event.getAfter() != null ? event.getAfter() : event.getBefore();
+                buffer.put(order.getId(), event);
+                return;
+            }
+            applyLive(event);
+        } finally {
+            rebuilding.readLock().unlock();
+        }
+    }
+
+    public OrderStats snapshot(int topProducts) {
+        Map<String, Long> statuses = new TreeMap<>();
+        byStatus.forEach((status, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                statuses.put(status, value);
+            }
+        });
+
+        Map<Long, Long> products = new LinkedHashMap<>();
+        byProduct.entrySet().stream()
+                .map(entry -> new long[] {entry.getKey(), entry.getValue().sum()})
+                .filter(entry -> entry[1] > 0)
+                .sorted((a, b) -> Long.compare(b[1], a[1]))
+                .limit(topProducts)
+                .forEach(entry -> products.put(entry[0], entry[1]));
+
+        return new OrderStats(total.sum(), statuses, products, createdPerMinute());
+    }
+
+    private void applyLive(OrderChangedEvent event) {
+        OrderSnapshot before = event.getBefore();
+        OrderSnapshot after = event.getAfter();
+        if (before == null) {
+            total.increment();
+        } else if (after == null) {
+            total.decrement();
+        }
+        if (before != null && after != null
+                && Objects.equals(before.getStatus(), after.getStatus())
+                && Objects.equals(before.getProductIds(), after.getProductIds())) {
+            return;
+        }
+        Map<Long, LongAdder> products = byProduct;
+        if (before != null) {
+            apply(byStatus, products, before, -1);
+        }
+        if (after != null) {
+            apply(byStatus, products, after, 1);
+        }
+        if (products.size() > maxProducts && pruning.compareAndSet(false, true)) {
+            try {
+                trim(products);
+            } finally {
+                pruning.set(false);
+            }
+        }
+    }
+
+    private static void apply(Map<String, LongAdder> statuses, Map<Long, LongAdder> products,
+                              OrderSnapshot order, int delta) {
+        counter(statuses, order.getStatus() != null ? order.getStatus() : "").add(delta);
+        // Every line counts, not just the first one that Order.productId mirrors
+        for (Long productId : order.getProductIds()) {
+            if (productId != null) {
+                counter(products, productId).add(delta);
+            }
+        }
+    }
+
+    // Drops counters at zero, then the smallest, until at most maxProducts remain
+    private void trim(Map<Long, LongAdder> products) {
+        if (products.size() <= maxProducts) {
+            return;
+        }
+        products.values().removeIf(count -> count.sum() <= 0);
+        int excess = products.size() - maxProducts;
+        if (excess > 0) {
+            products.entrySet().stream()
+                    .map(entry -> new long[] {entry.getKey(), entry.getValue().sum()})
+                    .sorted((a, b) -> Long.compare(a[1], b[1]))
+                    .limit(excess)
+                    .forEach(entry -> products.remove(entry[0]));
+        }
+    }
+
+    // Status and line products of the given orders as the current transaction sees them; ids not found are absent
+    private Map<Long, OrderSnapshot> statesOf(Collection<Long> ids) {
+        Map<Long, List<Long>> lines = new HashMap<>();
+        for (Object[] row : orderRepository.findLineProductIdsByOrderIdIn(ids)) {
+            lines.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        Map<Long, OrderSnapshot> states = new HashMap<>();
+        for (Object[] row : orderRepository.findStatusesByIdIn(ids)) {
+            Long id = (Long) row[0];
+            states.put(id, new OrderSnapshot(id, null, null, (String) row[1],
+                    lines.getOrDefault(id, Collections.emptyList())));
+        }
+        return states;
+    }
+
+    private void recordCreation(long minute) {
+        int slot = (int) (minute % perMinute.length());
+        while (true) {
+            long current = perMinute.get(slot);
+            long next = (current >>> 32) == minute ? current + 1 : (minute << 32) | 1;
+            if (perMinute.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private List<OrderStats.MinuteCount> createdPerMinute() {
+        long now = currentMinute();
+        List<OrderStats.MinuteCount> minutes = new ArrayList<>(perMinute.length());
+        for (long minute = now - perMinute.length() + 1; minute <= now; minute++) {
+            long slot = perMinute.get((int) (minute % perMinute.length()));
+            long count = (slot >>> 32) == minute ? slot & 0xFFFFFFFFL : 0;
+            minutes.add(new OrderStats.MinuteCount(
+                    Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(minute)).toString(), count));
+        }
+        return minutes;
+    }
+
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    private static <K> LongAdder counter(Map<K, LongAdder> counters, K key) {
+        // get() first: computeIfAbsent locks the bin even for existing keys on Java 8
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
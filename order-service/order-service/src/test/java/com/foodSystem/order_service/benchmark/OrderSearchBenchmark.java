@@ -0,0 +1,122 @@
+package com.foodSystem.order_service.benchmark;
+
+import com.foodSystem.order_service.client.ProductBatch;
+import com.foodSystem.order_service.client.ProductClient;
+import com.foodSystem.order_service.client.ProductSummary;
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.repository.OrderRepository;
+import com.foodSystem.order_service.search.OrderStatusIndex;
+import com.foodSystem.order_service.service.OrderBatchService;
+import com.foodSystem.order_service.service.OrderService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * /orders/search latency against table size, comparing the old {@code LIKE '%kw%'} specification
+ * with the typed, index-backed search. Wipes the orders table of the configured database.
+ *
+ * Run with: mvn test -Dgroups=benchmark -Dsurefire.excludedGroups=none -Dbenchmark.sizes=10000,100000
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class OrderSearchBenchmark {
+
+    private static final String[] STATUSES = {"PLACED", "PREPARING", "DELIVERED", "CANCELLED"};
+    private static final int RUNS = 20;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderBatchService orderBatchService;
+
+    @Autowired
+    private OrderStatusIndex orderStatusIndex;
+
+    @MockBean
+    private ProductClient productClient;
+
+    @Test
+    public void searchLatencyByTableSize() {
+        when(productClient.lookupProducts(anyCollection())).thenAnswer(invocation -> {
+            ProductBatch batch = new ProductBatch();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                ProductSummary product = new ProductSummary();
+                product.setId(id);
+                product.setPrice(10.0);
+                batch.getProducts().put(id, product);
+            }
+            return Mono.just(batch);
+        });
+        orderRepository.deleteAllInBatch();
+        orderStatusIndex.rebuild();
+        Pageable pageable = PageRequest.of(0, 20);
+
+        System.out.printf("%10s %10s %12s %12s%n", "rows", "keyword", "like (ms)", "indexed (ms)");
+        int rows = 0;
+        for (String size : System.getProperty("benchmark.sizes", "10000,100000").split(",")) {
+            int target = Integer.parseInt(size.trim());
+            rows = seed(rows, target);
+            for (String keyword : Arrays.asList("DELIV", "4242")) {
+                Specification<Order> like = containsKeyword(keyword);
+                double before = medianMillis(() -> orderRepository.findAll(like, pageable));
+                double after = medianMillis(() -> orderService.searchOrders(pageable, keyword));
+                System.out.printf("%10d %10s %12.2f %12.2f%n", rows, keyword, before, after);
+            }
+        }
+    }
+
+    private int seed(int from, int to) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            orders.add(new Order(i % 5000, i % 800, STATUSES[i % STATUSES.length]));
+            if (orders.size() == 10_000) {
+                orderBatchService.createOrders(orders);
+                orders.clear();
+            }
+        }
+        if (!orders.isEmpty()) {
+            orderBatchService.createOrders(orders);
+        }
+        return to;
+    }
+
+    private double medianMillis(Runnable query) {
+        query.run(); // warm up
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2] / 1_000_000d;
+    }
+
+    // The specification /orders/search used before the typed search path
+    private static Specification<Order> containsKeyword(String keyword) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.or(
+                        criteriaBuilder.like(root.get("status"), "%" + keyword + "%"),
+                        criteriaBuilder.like(root.get("userId").as(String.class), "%" + keyword + "%"),
+                        criteriaBuilder.like(root.get("productId").as(String.class), "%" + keyword + "%"));
+    }
+}
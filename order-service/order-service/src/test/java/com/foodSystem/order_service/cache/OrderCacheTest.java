@@ -0,0 +1,147 @@
+package com.foodSystem.order_service.cache;
+
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.event.OrderChangedEvent;
+import com.foodSystem.order_service.event.OrderSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class OrderCacheTest {
+
+    private final OrderCache cache = new OrderCache(100, 100, Duration.ofMinutes(1));
+
+    @Test
+    public void testHitDoesNotReload() {
+        AtomicInteger loads = new AtomicInteger();
+        Order first = cache.getOrder(1L, id -> {
+            loads.incrementAndGet();
+            return order(id, 7L, "PLACED");
+        });
+        Order second = cache.getOrder(1L, id -> {
+            loads.incrementAndGet();
+            return order(id, 7L, "PLACED");
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals("PLACED", second.getStatus());
+        assertEquals(1, second.getItems().size());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testCallersCannotChangeTheCachedOrder() {
+        Order first = cache.getOrder(1L, id -> order(id, 7L, "PLACED"));
+        first.setStatus("CANCELLED");
+        first.getItems().clear();
+
+        Order second = cache.getOrder(1L, id -> order(id, 7L, "SHIPPED"));
+
+        assertEquals("PLACED", second.getStatus());
+        assertEquals(1, second.getItems().size());
+    }
+
+    @Test
+    public void testMissingOrderIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        assertNull(cache.getOrder(1L, id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        cache.getOrder(1L, id -> {
+            loads.incrementAndGet();
+            return order(id, 7L, "PLACED");
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testWriteEvictsOrderAndUserPages() {
+        Order order = order(1L, 7L, "PLACED");
+        cache.getOrder(1L, id -> order);
+        cache.getUserPage(7L, null, 0, 20, key -> page(order));
+
+        Order shipped = order(1L, 7L, "SHIPPED");
+        cache.onOrderChanged(OrderChangedEvent.updated(order.getLoadedState(), shipped));
+
+        assertEquals("SHIPPED", cache.getOrder(1L, id -> shipped).getStatus());
+        assertEquals("SHIPPED", cache.getUserPage(7L, null, 0, 20, key -> page(shipped))
+                .getContent().get(0).getStatus());
+    }
+
+    @Test
+    public void testWriteKeepsPagesOfOtherUsers() {
+        Order other = order(2L, 8L, "PLACED");
+        cache.getUserPage(8L, null, 0, 20, key -> page(other));
+
+        cache.onOrderChanged(OrderChangedEvent.created(order(1L, 7L, "PLACED")));
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getUserPage(8L, null, 0, 20, key -> {
+            loads.incrementAndGet();
+            return page(other);
+        });
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void testLoadRacingAWriteIsNotCached() {
+        // The loader reads the old row, then the write commits and evicts before the load returns
+        Order stale = cache.getOrder(1L, id -> {
+            Order old = order(id, 7L, "PLACED");
+            cache.onOrderChanged(OrderChangedEvent.updated(old.getLoadedState(), order(id, 7L, "SHIPPED")));
+            return old;
+        });
+        assertEquals("PLACED", stale.getStatus());
+
+        assertEquals("SHIPPED", cache.getOrder(1L, id -> order(id, 7L, "SHIPPED")).getStatus());
+    }
+
+    @Test
+    public void testPageLoadRacingAWriteIsNotCached() {
+        cache.getUserPage(7L, null, 0, 20, key -> {
+            Order old = order(1L, 7L, "PLACED");
+            cache.onOrderChanged(OrderChangedEvent.updated(old.getLoadedState(), order(1L, 7L, "SHIPPED")));
+            return page(old);
+        });
+
+        Page<Order> page = cache.getUserPage(7L, null, 0, 20, key -> page(order(1L, 7L, "SHIPPED")));
+        assertEquals("SHIPPED", page.getContent().get(0).getStatus());
+    }
+
+    @Test
+    public void testStats() {
+        cache.getOrder(1L, id -> order(id, 7L, "PLACED"));
+        cache.getOrder(1L, id -> order(id, 7L, "PLACED"));
+        cache.getOrder(1L, id -> order(id, 7L, "PLACED"));
+
+        Map<String, Object> orders = cache.stats().get("orders");
+        assertEquals(1L, orders.get("size"));
+        assertEquals(2L, orders.get("hitCount"));
+        assertEquals(1L, orders.get("missCount"));
+        assertEquals(0L, cache.stats().get("userPages").get("hitCount"));
+    }
+
+    private static Order order(Long id, Long userId, String status) {
+        Order order = new Order(userId, 3L, status);
+        order.setId(id);
+        order.setVersion(0L);
+        order.setLoadedState(OrderSnapshot.of(order));
+        return order;
+    }
+
+    private static Page<Order> page(Order order) {
+        return new PageImpl<>(Collections.singletonList(order), PageRequest.of(0, 20), 1);
+    }
+}
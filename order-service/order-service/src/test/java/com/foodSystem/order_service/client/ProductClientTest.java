@@ -0,0 +1,150 @@
+package com.foodSystem.order_service.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductClientTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final List<List<Long>> requests = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void batchSizeAboveWhatProductServiceAcceptsFailsAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> client(501, Duration.ofSeconds(5), request -> Mono.empty()));
+        assertThrows(IllegalArgumentException.class, () -> client(0, Duration.ofSeconds(5), request -> Mono.empty()));
+    }
+
+    @Test
+    public void distinctIdsAreSentInBatchesAndMerged() {
+        ProductClient client = client(2, Duration.ofSeconds(5), this::productService);
+
+        ProductBatch batch = client.lookupProducts(Arrays.asList(1L, 2L, 3L, 2L, null, 4L, 5L)).block();
+
+        assertEquals(3, requests.size());
+        for (List<Long> ids : requests) {
+            assertTrue(ids.size() <= 2, "Batch of " + ids.size());
+        }
+        // 4 does not exist
+        assertEquals(new TreeSet<>(Arrays.asList(1L, 2L, 3L, 5L)), new TreeSet<>(batch.getProducts().keySet()));
+        assertEquals(Collections.singletonList(4L), batch.getMissing());
+        assertEquals(Double.valueOf(50.0), batch.getProducts().get(5L).getPrice());
+    }
+
+    @Test
+    public void failedBatchIsNeitherFoundNorMissing() {
+        ProductClient client = client(2, Duration.ofSeconds(5), request -> {
+            List<Long> ids = ids(request);
+            return ids.contains(3L) ? Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build())
+                    : productService(request);
+        });
+
+        ProductBatch batch = client.lookupProducts(Arrays.asList(1L, 2L, 3L, 4L)).block();
+
+        assertEquals(new TreeSet<>(Arrays.asList(1L, 2L)), new TreeSet<>(batch.getProducts().keySet()));
+        assertEquals(Collections.emptyList(), batch.getMissing());
+    }
+
+    @Test
+    public void timeoutBoundsTheWholeLookup() {
+        // Each batch answers within the timeout, but the lookup as a whole does not
+        ProductClient client = client(1, Duration.ofMillis(300), request ->
+                productService(request).delayElement(Duration.ofMillis(200 * requests.size())));
+
+        ProductBatch batch = client.lookupProducts(Arrays.asList(1L, 2L, 3L)).block(Duration.ofSeconds(5));
+
+        assertTrue(batch.getProducts().isEmpty());
+        assertTrue(batch.getMissing().isEmpty());
+    }
+
+    private ProductClient client(int batchSize, Duration timeout, ExchangeFunction productService) {
+        return new ProductClient(WebClient.builder().exchangeFunction(productService), "http://product-service",
+                timeout, batchSize, 500);
+    }
+
+    // Answers /api/products/batch like product-service: every requested id but 4 exists
+    private Mono<ClientResponse> productService(ClientRequest request) {
+        List<Long> ids = ids(request);
+        Map<String, Object> products = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == 4L) {
+                missing.add(id);
+            } else {
+                Map<String, Object> product = new LinkedHashMap<>();
+                product.put("id", id);
+                product.put("name", "Product " + id);
+                product.put("price", 10.0 * id);
+                products.put(String.valueOf(id), product);
+            }
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("products", products);
+        body.put("missing", missing);
+        try {
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(JSON.writeValueAsString(body))
+                    .build());
+        } catch (Exception ex) {
+            return Mono.error(ex);
+        }
+    }
+
+    // The ids in a request body, recorded in requests
+    private List<Long> ids(ClientRequest request) {
+        MockClientHttpRequest written = new MockClientHttpRequest(request.method(), request.url());
+        request.body().insert(written, new BodyInserter.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return ExchangeStrategies.withDefaults().messageWriters();
+            }
+
+            @Override
+            public Optional<ServerHttpRequest> serverRequest() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Map<String, Object> hints() {
+                return Collections.emptyMap();
+            }
+        }).block();
+        try {
+            List<Long> ids = JSON.readValue(written.getBodyAsString().block(), new TypeReference<List<Long>>() {
+            });
+            requests.add(ids);
+            return ids;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
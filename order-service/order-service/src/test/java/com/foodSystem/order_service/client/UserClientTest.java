@@ -0,0 +1,140 @@
+package com.foodSystem.order_service.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserClientTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final List<List<Long>> requests = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void batchSizeAboveWhatUserServiceAcceptsFailsAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> client(501, 500, request -> Mono.empty()));
+        assertThrows(IllegalArgumentException.class, () -> client(0, 500, request -> Mono.empty()));
+    }
+
+    @Test
+    public void distinctIdsAreSentInBatchesAndMerged() {
+        UserClient client = client(2, 500, this::userService);
+
+        Map<Long, UserSummary> users = client.findUsers(Arrays.asList(1L, 2L, 3L, 2L, null, 4L, 5L)).block();
+
+        assertEquals(3, requests.size());
+        List<Long> sent = new ArrayList<>();
+        for (List<Long> batch : requests) {
+            assertTrue(batch.size() <= 2, "Batch of " + batch.size());
+            sent.addAll(batch);
+        }
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L, 4L, 5L)), new HashSet<>(sent));
+        assertEquals(5, sent.size());
+        // 4 does not exist
+        assertEquals(new TreeSet<>(Arrays.asList(1L, 2L, 3L, 5L)), new TreeSet<>(users.keySet()));
+        assertEquals("User 5", users.get(5L).getName());
+    }
+
+    @Test
+    public void refusedBatchIsLeftOutOfTheResult() {
+        UserClient client = client(2, 500, request -> {
+            List<Long> ids = ids(request);
+            return ids.contains(3L) ? Mono.just(ClientResponse.create(HttpStatus.BAD_REQUEST).build())
+                    : userService(request);
+        });
+
+        Map<Long, UserSummary> users = client.findUsers(Arrays.asList(1L, 2L, 3L, 4L)).block();
+
+        assertEquals(new TreeSet<>(Arrays.asList(1L, 2L)), new TreeSet<>(users.keySet()));
+    }
+
+    private UserClient client(int batchSize, int maxIds, ExchangeFunction userService) {
+        return new UserClient(WebClient.builder().exchangeFunction(userService), "http://user-service",
+                Duration.ofSeconds(5), batchSize, maxIds);
+    }
+
+    // Answers /api/users/batch like user-service: every requested id but 4 exists
+    private Mono<ClientResponse> userService(ClientRequest request) {
+        List<Long> ids = ids(request);
+        Map<String, Object> users = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == 4L) {
+                missing.add(id);
+            } else {
+                Map<String, Object> user = new LinkedHashMap<>();
+                user.put("id", id);
+                user.put("name", "User " + id);
+                users.put(String.valueOf(id), user);
+            }
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("users", users);
+        body.put("missing", missing);
+        try {
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(JSON.writeValueAsString(body))
+                    .build());
+        } catch (Exception ex) {
+            return Mono.error(ex);
+        }
+    }
+
+    // The ids in a request body, recorded in requests
+    private List<Long> ids(ClientRequest request) {
+        MockClientHttpRequest written = new MockClientHttpRequest(request.method(), request.url());
+        request.body().insert(written, new BodyInserter.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return ExchangeStrategies.withDefaults().messageWriters();
+            }
+
+            @Override
+            public Optional<ServerHttpRequest> serverRequest() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Map<String, Object> hints() {
+                return Collections.emptyMap();
+            }
+        }).block();
+        try {
+            List<Long> ids = JSON.readValue(written.getBodyAsString().block(), new TypeReference<List<Long>>() {
+            });
+            requests.add(ids);
+            return ids;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
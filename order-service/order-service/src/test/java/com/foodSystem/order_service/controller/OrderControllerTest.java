@@ -1,18 +1,34 @@
 package com.foodSystem.order_service.controller;
 
+import com.foodSystem.order_service.client.ProductBatch;
+import com.foodSystem.order_service.client.ProductClient;
+import com.foodSystem.order_service.client.ProductSummary;
 import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.entity.OrderItem;
 import com.foodSystem.order_service.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -25,8 +41,26 @@ public class OrderControllerTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @MockBean
+    private ProductClient productClient;
+
     @BeforeEach
     public void setup() {
+        // Every product exists except 404, at 2.50 per product id
+        when(productClient.lookupProducts(anyCollection())).thenAnswer(invocation -> {
+            ProductBatch batch = new ProductBatch();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                if (id == 404L) {
+                    batch.getMissing().add(id);
+                } else {
+                    ProductSummary product = new ProductSummary();
+                    product.setId(id);
+                    product.setPrice(2.5 * id);
+                    batch.getProducts().put(id, product);
+                }
+            }
+            return Mono.just(batch);
+        });
         orderRepository.deleteAll();
         Order order1 = new Order(1L, 1L, "completed");
         Order order2 = new Order(2L, 2L, "pending");
@@ -42,6 +76,17 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$[1].status").value("pending"));
     }
 
+    @Test
+    public void testExportOrdersAsCsv() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/orders/export?format=csv&status=pending"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id,userId,productId,status")))
+                .andExpect(content().string(containsString(",2,2,pending")));
+    }
+
     @Test
     public void testGetOrderById() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/orders/1")
@@ -60,6 +105,144 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.status").value("shipped"));
     }
 
+    @Test
+    public void testCreateOrderWithItems() throws Exception {
+        String newOrder = "{\"userId\":3,\"status\":\"PLACED\",\"items\":["
+                + "{\"productId\":7,\"quantity\":2},{\"productId\":8,\"quantity\":1}]}";
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newOrder))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId").value(7))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].unitPrice").value(17.5))
+                .andExpect(jsonPath("$.items[1].quantity").value(1));
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/filter?productId=8")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].items[0].productId").value(7));
+    }
+
+    @Test
+    public void testCreateOrderForUnknownProduct() throws Exception {
+        String newOrder = "{\"userId\":3,\"status\":\"PLACED\",\"items\":["
+                + "{\"productId\":7,\"quantity\":2},{\"productId\":404,\"quantity\":1}]}";
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newOrder))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unknown product 404"));
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    public void testCreateOrderWhenProductServiceIsDown() throws Exception {
+        // A failed lookup leaves every id out of both the products and the missing ids
+        when(productClient.lookupProducts(anyCollection())).thenReturn(Mono.just(new ProductBatch()));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":3,\"productId\":3,\"status\":\"shipped\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        Order order = orderRepository.findAll().get(0);
+        mockMvc.perform(MockMvcRequestBuilders.put("/orders/" + order.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":1,\"productId\":5,\"status\":\"shipped\"}"))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(2, orderRepository.count());
+        assertEquals("completed", orderRepository.findById(order.getId()).get().getStatus());
+    }
+
+    @Test
+    public void testCreateOrderIdempotentReplay() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String newOrder = "{\"userId\":3,\"productId\":3,\"status\":\"shipped\"}";
+        String first = mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newOrder))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newOrder))
+                .andExpect(status().isOk())
+                .andExpect(content().json(first));
+        assertEquals(3, orderRepository.count());
+    }
+
+    @Test
+    public void testCreateOrderIdempotencyKeyReusedWithDifferentBody() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":3,\"productId\":3,\"status\":\"shipped\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":4,\"productId\":3,\"status\":\"shipped\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testCreateOrdersBatch() throws Exception {
+        String orders = "[{\"userId\":3,\"productId\":3,\"status\":\"PLACED\"},"
+                + "{\"userId\":4,\"status\":\"PLACED\"}]";
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orders))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"));
+    }
+
+    @Test
+    public void testCreateOrdersBatchRejectsUnknownProductsOnly() throws Exception {
+        String orders = "[{\"userId\":3,\"productId\":3,\"status\":\"PLACED\"},"
+                + "{\"userId\":4,\"productId\":404,\"status\":\"PLACED\"}]";
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orders))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].error").value("Unknown product 404"));
+    }
+
+    @Test
+    public void testCreateOrdersBatchWhenProductServiceIsDown() throws Exception {
+        when(productClient.lookupProducts(anyCollection())).thenReturn(Mono.just(new ProductBatch()));
+
+        String orders = "[{\"userId\":3,\"productId\":3,\"status\":\"PLACED\"},"
+                + "{\"userId\":4,\"productId\":4,\"status\":\"PLACED\"}]";
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orders))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].error").value(containsString("Product service unavailable")));
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    public void testCreateOrdersBatchFromNdjson() throws Exception {
+        String orders = "{\"userId\":3,\"productId\":3,\"status\":\"PLACED\"}\n"
+                + "{\"userId\":4,\"productId\":4,\"status\":\"PLACED\"}\n";
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders/batch")
+                .contentType("application/x-ndjson")
+                .content(orders))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+    }
+
     @Test
     public void testUpdateOrder() throws Exception {
         String updatedOrder = "{\"userId\":1,\"productId\":1,\"status\":\"shipped\"}";
@@ -70,6 +253,47 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.status").value("shipped"));
     }
 
+    @Test
+    public void testUpdateOrderWithoutItemsKeepsLines() throws Exception {
+        Order order = new Order(3L, 7L, "PLACED");
+        order.addItem(new OrderItem(8L, 2));
+        Long id = orderRepository.save(order).getId();
+
+        String updatedOrder = "{\"userId\":3,\"productId\":7,\"status\":\"shipped\"}";
+        mockMvc.perform(MockMvcRequestBuilders.put("/orders/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(updatedOrder))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("shipped"))
+                .andExpect(jsonPath("$.items.length()").value(2));
+
+        Order updated = orderRepository.findWithItemsById(id).get();
+        assertEquals(2, updated.getItems().size());
+        assertEquals(8L, updated.getItems().get(1).getProductId());
+        assertEquals(2, updated.getItems().get(1).getQuantity());
+    }
+
+    @Test
+    public void testGetOrderByIdNotModified() throws Exception {
+        Order order = orderRepository.findAll().get(0);
+        String etag = "\"" + order.getVersion() + "\"";
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/" + order.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    public void testUpdateOrderWithStaleIfMatch() throws Exception {
+        Order order = orderRepository.findAll().get(0);
+        String updatedOrder = "{\"userId\":1,\"productId\":1,\"status\":\"shipped\"}";
+        mockMvc.perform(MockMvcRequestBuilders.put("/orders/" + order.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + (order.getVersion() + 1) + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(updatedOrder))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     public void testDeleteOrder() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.delete("/orders/1"))
@@ -85,6 +309,16 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.content[1].status").value("pending"));
     }
 
+    @Test
+    public void testGetOrdersWithCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/page?cursor=&size=1&sortBy=status")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].status").value("completed"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
     @Test
     public void testGetFilteredOrders() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/orders/filter?status=completed")
@@ -93,6 +327,46 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.content[0].status").value("completed"));
     }
 
+    @Test
+    public void testGetOrderStats() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/stats")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.byStatus.completed").value(1))
+                .andExpect(jsonPath("$.byStatus.pending").value(1));
+    }
+
+    @Test
+    public void testGetCacheStats() throws Exception {
+        Order order = orderRepository.findAll().get(0);
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/orders/" + order.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value(order.getStatus()));
+        }
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/cache/stats")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.hitCount").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.userPages.size").exists());
+    }
+
+    @Test
+    public void testGetOrderStatsCountsEveryLine() throws Exception {
+        String newOrder = "{\"userId\":3,\"status\":\"PLACED\",\"items\":["
+                + "{\"productId\":7,\"quantity\":2},{\"productId\":8,\"quantity\":1}]}";
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(newOrder))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/stats")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.topProducts['7']").value(1))
+                .andExpect(jsonPath("$.topProducts['8']").value(1));
+    }
+
     @Test
     public void testSearchOrders() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/orders/search?keyword=completed")
@@ -0,0 +1,179 @@
+package com.foodSystem.order_service.controller;
+
+import com.foodSystem.order_service.client.ProductClient;
+import com.foodSystem.order_service.client.ProductSummary;
+import com.foodSystem.order_service.client.UserClient;
+import com.foodSystem.order_service.client.UserSummary;
+import com.foodSystem.order_service.entity.Order;
+import com.foodSystem.order_service.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The details endpoints with user-service and product-service stubbed. A client that cannot reach
+ * its service completes with an empty map, which is what these stubs return for a service that is down.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderDetailsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private UserClient userClient;
+
+    @MockBean
+    private ProductClient productClient;
+
+    private Long firstId;
+
+    @BeforeEach
+    public void setup() {
+        orderRepository.deleteAll();
+        Order order1 = new Order(1L, 1L, "completed");
+        Order order2 = new Order(2L, 1L, "pending");
+        Order order3 = new Order(1L, 2L, "pending");
+        orderRepository.saveAll(Arrays.asList(order1, order2, order3));
+        firstId = order1.getId();
+    }
+
+    @Test
+    public void testGetOrderDetails() throws Exception {
+        usersUp();
+        productsUp();
+
+        perform("/orders/" + firstId + "/details")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.order.status").value("completed"))
+                .andExpect(jsonPath("$.user.name").value("User 1"))
+                .andExpect(jsonPath("$.product.name").value("Product 1"))
+                .andExpect(jsonPath("$.products['1'].price").value(10.0))
+                .andExpect(jsonPath("$.unresolved", empty()));
+    }
+
+    @Test
+    public void testGetOrderDetailsWhenUserServiceIsDown() throws Exception {
+        when(userClient.findUsers(anyCollection())).thenReturn(Mono.just(Collections.emptyMap()));
+        productsUp();
+
+        perform("/orders/" + firstId + "/details")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user").doesNotExist())
+                .andExpect(jsonPath("$.product.name").value("Product 1"))
+                .andExpect(jsonPath("$.unresolved", contains("user:1")));
+    }
+
+    @Test
+    public void testGetOrderDetailsWhenProductServiceIsDown() throws Exception {
+        usersUp();
+        when(productClient.findProducts(anyCollection())).thenReturn(Mono.just(Collections.emptyMap()));
+
+        perform("/orders/" + firstId + "/details")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.name").value("User 1"))
+                .andExpect(jsonPath("$.product").doesNotExist())
+                .andExpect(jsonPath("$.unresolved", contains("product:1")));
+    }
+
+    @Test
+    public void testGetOrderDetailsNotFound() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/" + (firstId + 100) + "/details")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetOrderDetailsPageLooksUpEachIdOnce() throws Exception {
+        usersUp();
+        productsUp();
+
+        perform("/orders/details?page=0&size=10")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[0].user.name").value("User 1"))
+                .andExpect(jsonPath("$.content[1].user.name").value("User 2"))
+                .andExpect(jsonPath("$.content[2].product.name").value("Product 2"));
+
+        verify(userClient, times(1)).findUsers(new HashSet<>(Arrays.asList(1L, 2L)));
+        verify(productClient, times(1)).findProducts(new HashSet<>(Arrays.asList(1L, 2L)));
+    }
+
+    @Test
+    public void testGetOrderDetailsPageWhenBothServicesAreDown() throws Exception {
+        when(userClient.findUsers(anyCollection())).thenReturn(Mono.just(Collections.emptyMap()));
+        when(productClient.findProducts(anyCollection())).thenReturn(Mono.just(Collections.emptyMap()));
+
+        perform("/orders/details?page=0&size=10")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[0].order.status").value("completed"))
+                .andExpect(jsonPath("$.content[0].unresolved", contains("user:1", "product:1")))
+                .andExpect(jsonPath("$.content[2].unresolved", contains("user:1", "product:2")));
+    }
+
+    private ResultActions perform(String url) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(url)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    // Answers with every requested id that the stubbed service knows, as the real clients do
+    private void usersUp() {
+        when(userClient.findUsers(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, UserSummary> users = new HashMap<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                UserSummary user = new UserSummary();
+                user.setId(id);
+                user.setName("User " + id);
+                users.put(id, user);
+            }
+            return Mono.just(users);
+        });
+    }
+
+    private void productsUp() {
+        when(productClient.findProducts(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, ProductSummary> products = new HashMap<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                ProductSummary product = new ProductSummary();
+                product.setId(id);
+                product.setName("Product " + id);
+                product.setPrice(10.0 * id);
+                products.put(id, product);
+            }
+            return Mono.just(products);
+        });
+    }
+}
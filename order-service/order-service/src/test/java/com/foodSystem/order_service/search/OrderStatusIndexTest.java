@@ -0,0 +1,80 @@
+package com.foodSystem.order_service.search;
+
+import com.foodSystem.order_service.event.OrderChangedEvent;
+import com.foodSystem.order_service.event.OrderSnapshot;
+import com.foodSystem.order_service.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrderStatusIndexTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+    private final OrderStatusIndex index = index();
+
+    @Test
+    public void testChangesDuringRebuildAreReconciledWithWhatTheCountsSaw() {
+        // Order 1 was shipped before the counts were read, order 2 cancelled after; order 3 was
+        // created and deleted meanwhile, and order 4 was created after
+        when(orderRepository.countByStatus()).thenAnswer(invocation -> {
+            index.onOrderChanged(updated(1L, "PLACED", "SHIPPED"));
+            index.onOrderChanged(updated(2L, "PLACED", "CANCELLED"));
+            index.onOrderChanged(new OrderChangedEvent(null, snapshot(3L, "REFUNDED")));
+            index.onOrderChanged(new OrderChangedEvent(snapshot(3L, "REFUNDED"), null));
+            index.onOrderChanged(new OrderChangedEvent(null, snapshot(4L, "DELIVERED")));
+            return Arrays.asList(new Object[] {"SHIPPED", 1L}, new Object[] {"PLACED", 1L});
+        });
+        when(orderRepository.findStatusesByIdIn(anyCollection())).thenReturn(Arrays.asList(
+                new Object[] {1L, "SHIPPED"}, new Object[] {2L, "PLACED"}));
+
+        index.rebuild();
+
+        assertEquals(Collections.singletonList("SHIPPED"), index.findByPrefix("sh"));
+        assertEquals(Collections.singletonList("CANCELLED"), index.findByPrefix("c"));
+        assertEquals(Collections.singletonList("DELIVERED"), index.findByPrefix("d"));
+        assertEquals(Collections.emptyList(), index.findByPrefix("p"));
+        assertEquals(Collections.emptyList(), index.findByPrefix("r"));
+    }
+
+    @Test
+    public void testFailedRebuildKeepsTheLiveStatusesAndWhatHappenedMeanwhile() {
+        index.onOrderChanged(new OrderChangedEvent(null, snapshot(1L, "PLACED")));
+        when(orderRepository.countByStatus()).thenAnswer(invocation -> {
+            index.onOrderChanged(updated(1L, "PLACED", "SHIPPED"));
+            index.onOrderChanged(updated(1L, "SHIPPED", "DELIVERED"));
+            throw new IllegalStateException("database down");
+        });
+
+        assertThrows(IllegalStateException.class, index::rebuild);
+
+        assertEquals(Collections.emptyList(), index.findByPrefix("p"));
+        assertEquals(Collections.emptyList(), index.findByPrefix("s"));
+        assertEquals(Collections.singletonList("DELIVERED"), index.findByPrefix("d"));
+
+        index.onOrderChanged(updated(1L, "DELIVERED", "PLACED"));
+        assertEquals(Collections.singletonList("PLACED"), index.findByPrefix("p"));
+    }
+
+    private OrderStatusIndex index() {
+        OrderStatusIndex index = new OrderStatusIndex();
+        ReflectionTestUtils.setField(index, "orderRepository", orderRepository);
+        return index;
+    }
+
+    private static OrderChangedEvent updated(Long id, String from, String to) {
+        return new OrderChangedEvent(snapshot(id, from), snapshot(id, to));
+    }
+
+    private static OrderSnapshot snapshot(Long id, String status) {
+        return new OrderSnapshot(id, 7L, 1L, status, Collections.singletonList(1L));
+    }
+}
@@ -0,0 +1,123 @@
+package com.foodSystem.order_service.stats;
+
+import com.foodSystem.order_service.dto.OrderStats;
+import com.foodSystem.order_service.event.OrderChangedEvent;
+import com.foodSystem.order_service.event.OrderSnapshot;
+import com.foodSystem.order_service.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrderStatisticsTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+    private final OrderStatistics statistics = statistics(3);
+
+    @Test
+    public void testSmallestProductCountersAreDroppedBeyondTheCap() {
+        // Product 1 comes last with the fewest orders, so it is the one dropped
+        for (long product = 4; product >= 1; product--) {
+            for (long order = 0; order < product; order++) {
+                statistics.onOrderChanged(created(product * 10 + order, "PLACED", product));
+            }
+        }
+
+        OrderStats stats = statistics.snapshot(10);
+
+        assertEquals(10, stats.getTotal());
+        assertEquals(Arrays.asList(4L, 3L, 2L), new ArrayList<>(stats.getTopProducts().keySet()));
+    }
+
+    @Test
+    public void testCountersAtZeroAreDroppedFirst() {
+        statistics.onOrderChanged(created(1L, "PLACED", 1L));
+        statistics.onOrderChanged(created(2L, "PLACED", 2L));
+        statistics.onOrderChanged(created(3L, "PLACED", 3L));
+        statistics.onOrderChanged(new OrderChangedEvent(snapshot(1L, "PLACED", 1L), null));
+        statistics.onOrderChanged(created(4L, "PLACED", 4L));
+
+        assertEquals(Arrays.asList(2L, 3L, 4L), sorted(statistics.snapshot(10).getTopProducts().keySet()));
+    }
+
+    @Test
+    public void testChangesDuringRebuildAreReconciledWithWhatTheCountsSaw() {
+        // Order 1 moved before the counts were read, order 2 after; order 3 was created after and order 4 deleted
+        when(orderRepository.countByStatus()).thenAnswer(invocation -> {
+            statistics.onOrderChanged(updated(1L, "PLACED", "SHIPPED", 1L));
+            statistics.onOrderChanged(updated(2L, "PLACED", "CANCELLED", 2L));
+            statistics.onOrderChanged(created(3L, "PLACED", 1L));
+            statistics.onOrderChanged(new OrderChangedEvent(snapshot(4L, "PLACED", 2L), null));
+            return Arrays.asList(new Object[] {"SHIPPED", 1L}, new Object[] {"PLACED", 2L});
+        });
+        when(orderRepository.countByProductId()).thenReturn(Arrays.asList(
+                new Object[] {1L, 1L}, new Object[] {2L, 2L}));
+        when(orderRepository.findStatusesByIdIn(anyCollection())).thenReturn(Arrays.asList(
+                new Object[] {1L, "SHIPPED"}, new Object[] {2L, "PLACED"}, new Object[] {4L, "PLACED"}));
+        when(orderRepository.findLineProductIdsByOrderIdIn(anyCollection())).thenReturn(Arrays.asList(
+                new Object[] {1L, 1L}, new Object[] {2L, 2L}, new Object[] {4L, 2L}));
+
+        statistics.rebuild();
+        OrderStats stats = statistics.snapshot(10);
+
+        assertEquals(3, stats.getTotal());
+        assertEquals(Long.valueOf(1), stats.getByStatus().get("SHIPPED"));
+        assertEquals(Long.valueOf(1), stats.getByStatus().get("CANCELLED"));
+        assertEquals(Long.valueOf(1), stats.getByStatus().get("PLACED"));
+        assertEquals(Long.valueOf(2), stats.getTopProducts().get(1L));
+        assertEquals(Long.valueOf(1), stats.getTopProducts().get(2L));
+    }
+
+    @Test
+    public void testFailedRebuildKeepsTheLiveCountsAndWhatHappenedMeanwhile() {
+        statistics.onOrderChanged(created(1L, "PLACED", 1L));
+        when(orderRepository.countByStatus()).thenAnswer(invocation -> {
+            statistics.onOrderChanged(created(2L, "PLACED", 2L));
+            throw new IllegalStateException("database down");
+        });
+
+        assertThrows(IllegalStateException.class, statistics::rebuild);
+        OrderStats stats = statistics.snapshot(10);
+
+        assertEquals(2, stats.getTotal());
+        assertEquals(Long.valueOf(2), stats.getByStatus().get("PLACED"));
+
+        statistics.onOrderChanged(created(3L, "PLACED", 3L));
+        assertEquals(3, statistics.snapshot(10).getTotal());
+    }
+
+    private OrderStatistics statistics(int maxProducts) {
+        OrderStatistics statistics = new OrderStatistics(60, maxProducts);
+        ReflectionTestUtils.setField(statistics, "orderRepository", orderRepository);
+        return statistics;
+    }
+
+    private static OrderChangedEvent created(Long id, String status, Long productId) {
+        return new OrderChangedEvent(null, snapshot(id, status, productId));
+    }
+
+    private static OrderChangedEvent updated(Long id, String from, String to, Long productId) {
+        return new OrderChangedEvent(snapshot(id, from, productId), snapshot(id, to, productId));
+    }
+
+    private static OrderSnapshot snapshot(Long id, String status, Long productId) {
+        return new OrderSnapshot(id, 7L, productId, status, Collections.singletonList(productId));
+    }
+
+    private static List<Long> sorted(Iterable<Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        Collections.sort(list);
+        return list;
+    }
+}
@@ -0,0 +1,317 @@
+package com.foodSystem.product_service.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodSystem.product_service.dto.MenuResponse;
+import com.foodSystem.product_service.dto.MenuSummary;
+import com.foodSystem.product_service.dto.ProductResponse;
+import com.foodSystem.product_service.event.CategoryChangedEvent;
+import com.foodSystem.product_service.event.MenuChangedEvent;
+import com.foodSystem.product_service.event.ProductChangedEvent;
+import com.foodSystem.product_service.exception.CatalogNotLoadedException;
+import com.foodSystem.product_service.mapper.ProductMapper;
+import com.foodSystem.product_service.repository.MenuRepository;
+import com.foodSystem.product_service.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the current {@link CatalogSnapshot} for single-item reads. Readers only do a volatile
+ * read and a map lookup. The changes of a transaction are collected while it runs and, once it
+ * commits, the touched products and menus are reloaded and a new snapshot is swapped in;
+ * untouched entries are shared with the previous snapshot.
+ *
+ * Menu bodies are serialized and gzipped here, once per menu version, so the menu endpoints can
+ * write them out as they are.
+ */
+@Component
+public class CatalogCache {
+
+    private static final int IN_CHUNK = 1000;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * The current snapshot, or {@link CatalogNotLoadedException} until the startup rebuild has
+     * loaded it, so that readers answer 503 rather than 404 for everything in the meantime.
+     */
+    public CatalogSnapshot loaded() {
+        CatalogSnapshot current = snapshot;
+        if (!current.isLoaded()) {
+            throw new CatalogNotLoadedException("Catalog is still loading");
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        readOnly(() -> {
+            List<ProductResponse> loaded = productRepository.findAllResponses(Pageable.unpaged()).getContent();
+            ProductMapper.setCategories(loaded, productRepository.findCategoryNames());
+            Map<Long, CatalogEntry<ProductResponse>> products = new HashMap<>(loaded.size() * 2);
+            for (ProductResponse product : loaded) {
+                products.put(product.getId(), productEntry(product));
+            }
+            Map<Long, CatalogEntry<MenuResponse>> menus = menuEntries(names(menuRepository.findNames()), products);
+            snapshot = new CatalogSnapshot(snapshot.getVersion() + 1, products, menus, menuList(menus));
+        });
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        record(changes -> changes.products.add(event.getProductId()));
+    }
+
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        record(changes -> changes.menus.add(event.getMenuId()));
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        record(changes -> changes.categories.add(event.getCategoryId()));
+    }
+
+    // Collects into the current transaction's change set, applied once after it commits
+    private void record(Consumer<Changes> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Changes changes = new Changes();
+            change.accept(changes);
+            apply(changes);
+            return;
+        }
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Changes created = new Changes();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogCache.this);
+                }
+            });
+            changes = created;
+        }
+        change.accept(changes);
+    }
+
+    // Serialized so that a slower writer cannot publish data older than what is already visible
+    private synchronized void apply(Changes changes) {
+        if (!snapshot.isLoaded()) {
+            return; // The rebuild has not started yet and will read this change
+        }
+        readOnly(() -> {
+            Set<Long> productIds = new HashSet<>(changes.products);
+            productIds.addAll(inChunks(changes.menus, productRepository::findIdsByMenuIdIn));
+            productIds.addAll(inChunks(changes.categories, productRepository::findIdsByCategoryIdIn));
+            List<ProductResponse> loaded = inChunks(productIds, productRepository::findResponsesByIdIn);
+            ProductMapper.setCategories(loaded, inChunks(productIds, productRepository::findCategoryNames));
+
+            CatalogSnapshot current = snapshot;
+            Map<Long, CatalogEntry<ProductResponse>> products = new HashMap<>(current.products());
+            Set<Long> menuIds = new HashSet<>(changes.menus);
+            for (Long id : productIds) {
+                CatalogEntry<ProductResponse> previous = products.remove(id);
+                if (previous != null && previous.getBody().getMenuId() != null) {
+                    menuIds.add(previous.getBody().getMenuId());
+                }
+            }
+            for (ProductResponse product : loaded) {
+                products.put(product.getId(), productEntry(product));
+                if (product.getMenuId() != null) {
+                    menuIds.add(product.getMenuId());
+                }
+            }
+
+            Map<Long, CatalogEntry<MenuResponse>> menus = new HashMap<>(current.menus());
+            menus.keySet().removeAll(menuIds);
+            menus.putAll(menuEntries(names(inChunks(menuIds, menuRepository::findNames)), products));
+            snapshot = new CatalogSnapshot(current.getVersion() + 1, products, menus, menuList(menus));
+        });
+    }
+
+    // Reloads run in their own read-only transaction, also when called after another one committed
+    private void readOnly(Runnable work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        template.executeWithoutResult(status -> work.run());
+    }
+
+    private static <T> List<T> inChunks(Collection<Long> ids, Function<Collection<Long>, List<T>> query) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> all = new ArrayList<>(ids);
+        List<T> results = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            results.addAll(query.apply(all.subList(from, Math.min(from + IN_CHUNK, all.size()))));
+        }
+        return results;
+    }
+
+    private static Map<Long, String> names(List<Object[]> rows) {
+        Map<Long, String> names = new HashMap<>();
+        for (Object[] row : rows) {
+            names.put((Long) row[0], (String) row[1]);
+        }
+        return names;
+    }
+
+    // One pass over the products for all the menus being (re)built
+    private Map<Long, CatalogEntry<MenuResponse>> menuEntries(Map<Long, String> names,
+                                                              Map<Long, CatalogEntry<ProductResponse>> products) {
+        Map<Long, List<CatalogEntry<ProductResponse>>> byMenu = new HashMap<>();
+        for (Long menuId : names.keySet()) {
+            byMenu.put(menuId, new ArrayList<>());
+        }
+        for (CatalogEntry<ProductResponse> product : products.values()) {
+            List<CatalogEntry<ProductResponse>> menu = byMenu.get(product.getBody().getMenuId());
+            if (menu != null) {
+                menu.add(product);
+            }
+        }
+
+        Map<Long, CatalogEntry<MenuResponse>> menus = new HashMap<>(names.size() * 2);
+        for (Map.Entry<Long, List<CatalogEntry<ProductResponse>>> menu : byMenu.entrySet()) {
+            List<CatalogEntry<ProductResponse>> entries = menu.getValue();
+            entries.sort(Comparator.comparing(entry -> entry.getBody().getId()));
+            String name = names.get(menu.getKey());
+            long hash = hash(hash(FNV_OFFSET, String.valueOf(menu.getKey())), name);
+            List<ProductResponse> bodies = new ArrayList<>(entries.size());
+            for (CatalogEntry<ProductResponse> entry : entries) {
+                bodies.add(entry.getBody());
+                hash = hash(hash, entry.getETag());
+            }
+            MenuResponse body = new MenuResponse(menu.getKey(), name, Collections.unmodifiableList(bodies));
+            String eTag = eTag(hash);
+            menus.put(menu.getKey(), new CatalogEntry<>(body, eTag, serialize(body, eTag)));
+        }
+        return menus;
+    }
+
+    private CatalogEntry<List<MenuSummary>> menuList(Map<Long, CatalogEntry<MenuResponse>> menus) {
+        List<CatalogEntry<MenuResponse>> entries = new ArrayList<>(menus.values());
+        entries.sort(Comparator.comparing(entry -> entry.getBody().getId()));
+        List<MenuSummary> summaries = new ArrayList<>(entries.size());
+        long hash = FNV_OFFSET;
+        for (CatalogEntry<MenuResponse> entry : entries) {
+            MenuResponse menu = entry.getBody();
+            summaries.add(new MenuSummary(menu.getId(), menu.getName(), menu.getProducts().size()));
+            hash = hash(hash, entry.getETag());
+        }
+        List<MenuSummary> body = Collections.unmodifiableList(summaries);
+        String eTag = eTag(hash);
+        return new CatalogEntry<>(body, eTag, serialize(body, eTag));
+    }
+
+    // The gzip variant is compressed once at the highest level and kept only if it is smaller
+    private SerializedBody serialize(Object body, String eTag) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (OutputStream gzip = new BestGzipOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            byte[] gzip = compressed.size() < json.length ? compressed.toByteArray() : null;
+            return new SerializedBody(json, gzip, eTag, eTag.substring(0, eTag.length() - 1) + "-gzip\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CatalogEntry<ProductResponse> productEntry(ProductResponse product) {
+        List<String> categories = new ArrayList<>(product.getCategories());
+        Collections.sort(categories);
+        product.setCategories(Collections.unmodifiableList(categories));
+
+        long hash = hash(FNV_OFFSET, String.valueOf(product.getId()));
+        hash = hash(hash, product.getName());
+        hash = hash(hash, product.getDescription());
+        hash = hash(hash, Double.toString(product.getPrice()));
+        hash = hash(hash, Boolean.toString(product.isAvailable()));
+        hash = hash(hash, String.valueOf(product.getMenuId()));
+        hash = hash(hash, product.getMenuName());
+        for (String category : categories) {
+            hash = hash(hash, category);
+        }
+        return new CatalogEntry<>(product, eTag(hash));
+    }
+
+    // FNV-1a over the field, then a separator so that ("ab", "c") and ("a", "bc") differ
+    private static long hash(long hash, String field) {
+        if (field != null) {
+            for (int i = 0; i < field.length(); i++) {
+                hash = (hash ^ field.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return (hash ^ (field != null ? 0x1F : 0x00)) * FNV_PRIME;
+    }
+
+    // Derived from content only, so it is the same after a restart and on every instance
+    private static String eTag(long hash) {
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private static final class BestGzipOutputStream extends GZIPOutputStream {
+
+        BestGzipOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+
+    private static final class Changes {
+        final Set<Long> products = new HashSet<>();
+        final Set<Long> menus = new HashSet<>();
+        final Set<Long> categories = new HashSet<>();
+    }
+}
@@ -0,0 +1,37 @@
+package com.foodSystem.product_service.catalog;
+
+/**
+ * One immutable catalog item with the strong ETag of its content and, for bodies served as raw
+ * bytes, their serialized forms; all computed once when the snapshot holding it is built.
+ */
+public final class CatalogEntry<T> {
+
+    private final T body;
+    private final String eTag;
+    private final SerializedBody serialized;
+
+    CatalogEntry(T body, String eTag) {
+        this(body, eTag, null);
+    }
+
+    CatalogEntry(T body, String eTag, SerializedBody serialized) {
+        this.body = body;
+        this.eTag = eTag;
+        this.serialized = serialized;
+    }
+
+    public T getBody() {
+        return body;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * The body as JSON bytes, or null for entries that are serialized per request.
+     */
+    public SerializedBody getSerialized() {
+        return serialized;
+    }
+}
@@ -0,0 +1,66 @@
+package com.foodSystem.product_service.catalog;
+
+import com.foodSystem.product_service.dto.MenuResponse;
+import com.foodSystem.product_service.dto.MenuSummary;
+import com.foodSystem.product_service.dto.ProductResponse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The catalog (menus, their products and the products' categories) as of one committed version.
+ * Never modified after construction; {@link CatalogCache} publishes a new one per write.
+ */
+public final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, Collections.emptyMap(), Collections.emptyMap(), null);
+
+    private final long version;
+    private final Map<Long, CatalogEntry<ProductResponse>> products;
+    private final Map<Long, CatalogEntry<MenuResponse>> menus;
+    private final CatalogEntry<List<MenuSummary>> menuList;
+
+    CatalogSnapshot(long version, Map<Long, CatalogEntry<ProductResponse>> products,
+                    Map<Long, CatalogEntry<MenuResponse>> menus, CatalogEntry<List<MenuSummary>> menuList) {
+        this.version = version;
+        this.products = products;
+        this.menus = menus;
+        this.menuList = menuList;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public CatalogEntry<ProductResponse> getProduct(Long id) {
+        return products.get(id);
+    }
+
+    public CatalogEntry<MenuResponse> getMenu(Long id) {
+        return menus.get(id);
+    }
+
+    /**
+     * False for the empty snapshot in place until the catalog is first loaded, in which a missing
+     * product or menu says nothing about whether it exists.
+     */
+    public boolean isLoaded() {
+        return menuList != null;
+    }
+
+    /**
+     * All menus without their products, ordered by id; null until the catalog is first loaded.
+     */
+    public CatalogEntry<List<MenuSummary>> getMenuList() {
+        return menuList;
+    }
+
+    Map<Long, CatalogEntry<ProductResponse>> products() {
+        return products;
+    }
+
+    Map<Long, CatalogEntry<MenuResponse>> menus() {
+        return menus;
+    }
+}
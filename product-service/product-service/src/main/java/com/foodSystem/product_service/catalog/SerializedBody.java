@@ -0,0 +1,39 @@
+package com.foodSystem.product_service.catalog;
+
+/**
+ * A response body serialized to JSON once, with a gzip copy when that is smaller. The two
+ * encodings are different representations, so each carries its own strong ETag.
+ */
+public final class SerializedBody {
+
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String eTag;
+    private final String gzipETag;
+
+    SerializedBody(byte[] json, byte[] gzip, String eTag, String gzipETag) {
+        this.json = json;
+        this.gzip = gzip;
+        this.eTag = eTag;
+        this.gzipETag = gzipETag;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * The gzip encoded body, or null when compressing did not make it smaller.
+     */
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getGzipETag() {
+        return gzipETag;
+    }
+}
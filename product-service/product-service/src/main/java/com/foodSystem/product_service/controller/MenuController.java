@@ -0,0 +1,114 @@
+package com.foodSystem.product_service.controller;
+
+import com.foodSystem.product_service.catalog.CatalogCache;
+import com.foodSystem.product_service.catalog.CatalogEntry;
+import com.foodSystem.product_service.catalog.SerializedBody;
+import com.foodSystem.product_service.dto.MenuResponse;
+import com.foodSystem.product_service.dto.MenuSummary;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Menus straight from the catalog snapshot. Bodies were serialized and compressed when the
+ * snapshot was built, so a request only picks the encoding and writes the bytes.
+ */
+@RestController
+@RequestMapping("/api/menus")
+@Tag(name = "Menu Controller", description = "API endpoints for reading menus")
+public class MenuController {
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Operation(summary = "Get all menus", description = "Retrieves all menus with their product counts, pre-serialized and gzip-compressed once per catalog version, with a strong ETag")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Menus found", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = MenuSummary.class)))),
+        @ApiResponse(responseCode = "304", description = "Menus unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "503", description = "Catalog still loading after startup; retry after the Retry-After delay")
+    })
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllMenus(
+            @Parameter(description = "Encodings the client accepts", example = "gzip") @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        CatalogEntry<List<MenuSummary>> menus = catalogCache.loaded().getMenuList();
+        return write(menus.getSerialized(), acceptEncoding, request);
+    }
+
+    @Operation(summary = "Get menu by ID", description = "Retrieves a menu with its products, pre-serialized and gzip-compressed once per menu version, with a strong ETag")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Menu found", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = MenuResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Menu unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "404", description = "Menu not found"),
+        @ApiResponse(responseCode = "503", description = "Catalog still loading after startup; retry after the Retry-After delay")
+    })
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getMenuById(
+            @Parameter(description = "Menu ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Encodings the client accepts", example = "gzip") @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        CatalogEntry<MenuResponse> menu = catalogCache.loaded().getMenu(id);
+        if (menu == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return write(menu.getSerialized(), acceptEncoding, request);
+    }
+
+    private static ResponseEntity<byte[]> write(SerializedBody body, String acceptEncoding, WebRequest request) {
+        boolean gzip = body.getGzip() != null && acceptsGzip(acceptEncoding);
+        String eTag = gzip ? body.getGzipETag() : body.getETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? body.getGzip() : body.getJson());
+    }
+
+    // gzip if listed without q=0, otherwise "*" listed without q=0. An explicit gzip entry wins
+    // over "*" wherever it appears, so every entry is read before deciding.
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                refused |= parts[i].replace(" ", "").toLowerCase(Locale.ROOT).matches("q=0(\\.0*)?");
+            }
+            if (name.equals("gzip")) {
+                gzip = !refused;
+            } else if (name.equals("*")) {
+                any = !refused;
+            }
+        }
+        if (gzip != null) {
+            return gzip;
+        }
+        return any != null && any;
+    }
+}
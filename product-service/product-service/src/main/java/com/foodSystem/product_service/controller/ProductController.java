@@ -1,18 +1,35 @@
 package com.foodSystem.product_service.controller;
 
+import com.foodSystem.product_service.catalog.CatalogCache;
+import com.foodSystem.product_service.catalog.CatalogEntry;
+import com.foodSystem.product_service.dto.ProductBatchResponse;
+import com.foodSystem.product_service.dto.ProductImportResponse;
+import com.foodSystem.product_service.dto.ProductResponse;
+import com.foodSystem.product_service.dto.ProductSearchCriteria;
+import com.foodSystem.product_service.dto.ProductSearchPage;
 import com.foodSystem.product_service.entity.Product;
+import com.foodSystem.product_service.feed.ProductChangeFeed;
+import com.foodSystem.product_service.service.ProductImportService;
+import com.foodSystem.product_service.service.ProductSearchService;
 import com.foodSystem.product_service.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.api.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 
@@ -24,9 +41,21 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
     @Operation(summary = "Get all products", description = "Retrieves a paginated list of all products")
     @GetMapping
-    public Page<Product> getAllProducts(
+    public Page<ProductResponse> getAllProducts(
             @Parameter(description = "Page number (0-indexed)", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Field to sort by", example = "id") @RequestParam(defaultValue = "id") String sortBy,
@@ -34,17 +63,41 @@ public class ProductController {
         return productService.getAllProducts(page, size, sortBy, sortDir);
     }
 
-    @Operation(summary = "Get product by ID", description = "Retrieves a specific product by its ID")
+    @Operation(summary = "Get products by IDs", description = "Resolves up to products.batch.max-ids ids in one query for service-to-service calls. Returns an id-to-product map; unknown ids are listed under missing")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Products found, and the ids that were not"),
+        @ApiResponse(responseCode = "400", description = "Too many ids")
+    })
+    @GetMapping("/batch")
+    public ProductBatchResponse getProductsByIds(
+            @Parameter(description = "Comma-separated product IDs", required = true, example = "1,2,3") @RequestParam List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    @Operation(summary = "Get products by IDs (POST)", description = "Same as GET /api/products/batch, with the ids as a JSON array body for lists too long for a URL")
+    @PostMapping("/batch")
+    public ProductBatchResponse postProductsByIds(@RequestBody List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    @Operation(summary = "Get product by ID", description = "Retrieves a specific product by its ID from the in-memory catalog snapshot, with a strong ETag")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product found"),
-        @ApiResponse(responseCode = "404", description = "Product not found")
+        @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "404", description = "Product not found"),
+        @ApiResponse(responseCode = "503", description = "Catalog still loading after startup; retry after the Retry-After delay")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(
-            @Parameter(description = "Product ID", required = true) @PathVariable Long id) {
-        return productService.getProductById(id)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<ProductResponse> getProductById(
+            @Parameter(description = "Product ID", required = true) @PathVariable Long id, WebRequest request) {
+        CatalogEntry<ProductResponse> product = catalogCache.loaded().getProduct(id);
+        if (product == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(product.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(product.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(product.getETag()).body(product.getBody());
     }
 
     @Operation(summary = "Create a new product", description = "Creates a new product")
@@ -59,6 +112,22 @@ public class ProductController {
                 .body(createdProduct);
     }
 
+    @Operation(summary = "Import products from CSV", description = "Streams products from a CSV body with a header row (name,description,price,available,menu,categories; categories separated by |) and creates them in chunked JDBC batches")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished; per-row results list created and failed rows"),
+        @ApiResponse(responseCode = "400", description = "CSV header is missing or has no name column")
+    })
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ProductImportResponse importProductsFromCsv(HttpServletRequest request) throws IOException {
+        return productImportService.importCsv(request.getInputStream());
+    }
+
+    @Operation(summary = "Import products from JSON", description = "Streams products from a JSON array or an NDJSON body and creates them in chunked JDBC batches")
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ProductImportResponse importProductsFromJson(HttpServletRequest request) throws IOException {
+        return productImportService.importJson(request.getInputStream());
+    }
+
     @Operation(summary = "Update a product", description = "Updates an existing product by ID")
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(
@@ -78,7 +147,7 @@ public class ProductController {
 
     @Operation(summary = "Filter products by name", description = "Retrieves products filtered by name")
     @GetMapping("/filterByName")
-    public Page<Product> getProductsByName(
+    public Page<ProductResponse> getProductsByName(
             @Parameter(description = "Product name to search for", required = true) @RequestParam String name,
             @Parameter(description = "Page number", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") int size) {
@@ -87,7 +156,7 @@ public class ProductController {
 
     @Operation(summary = "Filter products by price range", description = "Retrieves products within a price range")
     @GetMapping("/filterByPrice")
-    public Page<Product> getProductsByPriceRange(
+    public Page<ProductResponse> getProductsByPriceRange(
             @Parameter(description = "Minimum price", required = true, example = "5.0") @RequestParam double minPrice,
             @Parameter(description = "Maximum price", required = true, example = "50.0") @RequestParam double maxPrice,
             @Parameter(description = "Page number", example = "0") @RequestParam(defaultValue = "0") int page,
@@ -97,27 +166,24 @@ public class ProductController {
 
     @Operation(summary = "Filter products by availability", description = "Retrieves products filtered by availability status")
     @GetMapping("/filterByAvailability")
-    public Page<Product> getProductsByAvailability(
+    public Page<ProductResponse> getProductsByAvailability(
             @Parameter(description = "Availability status", required = true, example = "true") @RequestParam boolean available,
             @Parameter(description = "Page number", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") int size) {
         return productService.getProductsByAvailability(available, page, size);
     }
 
-    @Operation(summary = "Search products", description = "Advanced search for products with multiple filters")
+    @Operation(summary = "Search products", description = "Full-text and advanced search for products with multiple filters, resolved from the in-memory product index; only the returned page is read from the database. With q, results are ranked by relevance and matches are highlighted. With facets, the response also carries counts for the filter sidebar")
     @GetMapping("/search")
-    public Page<Product> searchProducts(
-            @Parameter(description = "Product name") @RequestParam(required = false) String name,
-            @Parameter(description = "Minimum price") @RequestParam(required = false) Double minPrice,
-            @Parameter(description = "Maximum price") @RequestParam(required = false) Double maxPrice,
-            @Parameter(description = "Availability status") @RequestParam(required = false) Boolean available,
-            @Parameter(description = "Product description") @RequestParam(required = false) String description,
-            @Parameter(description = "Menu ID") @RequestParam(required = false) Long menuId,
-            @Parameter(description = "Category names") @RequestParam(required = false) List<String> categories,
-            @Parameter(description = "Page number", example = "0") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size", example = "10") @RequestParam(defaultValue = "10") int size,
-            @Parameter(description = "Fields to sort by") @RequestParam(defaultValue = "id") List<String> sortBy,
-            @Parameter(description = "Sort directions") @RequestParam(defaultValue = "asc") List<String> sortDir) {
-        return productService.searchProducts(name, minPrice, maxPrice, available, description, menuId, categories, page, size, sortBy, sortDir);
+    public ProductSearchPage<ProductResponse> searchProducts(@ParameterObject @ModelAttribute ProductSearchCriteria criteria) {
+        return productSearchService.searchProducts(criteria);
+    }
+
+    @Operation(summary = "Stream product changes", description = "Server-Sent Events feed of committed product creates, updates and deletes. Each product event carries a sequence number as its id; reconnecting with since (or Last-Event-ID) replays what was missed from a bounded buffer, and a reset event tells the consumer to drop its cache when that is no longer possible")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @Parameter(description = "Sequence of the last change already seen; omit to receive only new changes") @RequestParam(required = false) Long since,
+            @Parameter(description = "Sent by EventSource on reconnect; takes precedence over since") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return productChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
     }
-}
\ No newline at end of file
+}
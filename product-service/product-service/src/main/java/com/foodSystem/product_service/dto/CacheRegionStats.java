@@ -0,0 +1,41 @@
+package com.foodSystem.product_service.dto;
+
+/**
+ * Hit and miss counts of one Hibernate second-level cache region since startup.
+ */
+public class CacheRegionStats {
+
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final double hitRatio; // hits / (hits + misses); 0 before the first lookup
+
+    public CacheRegionStats(String region, long hits, long misses, long puts) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.hitRatio = hits + misses > 0 ? (double) hits / (hits + misses) : 0;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+}
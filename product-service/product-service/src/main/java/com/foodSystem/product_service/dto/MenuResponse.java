@@ -0,0 +1,31 @@
+package com.foodSystem.product_service.dto;
+
+import java.util.List;
+
+/**
+ * A menu with its products, as served from the catalog snapshot.
+ */
+public class MenuResponse {
+
+    private final Long id;
+    private final String name;
+    private final List<ProductResponse> products;
+
+    public MenuResponse(Long id, String name, List<ProductResponse> products) {
+        this.id = id;
+        this.name = name;
+        this.products = products;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ProductResponse> getProducts() {
+        return products;
+    }
+}
@@ -0,0 +1,29 @@
+package com.foodSystem.product_service.dto;
+
+/**
+ * A menu in the {@code /api/menus} listing.
+ */
+public class MenuSummary {
+
+    private final Long id;
+    private final String name;
+    private final int productCount;
+
+    public MenuSummary(Long id, String name, int productCount) {
+        this.id = id;
+        this.name = name;
+        this.productCount = productCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+}
@@ -0,0 +1,24 @@
+package com.foodSystem.product_service.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a batch lookup: the products found, keyed by id in request order, and the requested
+ * ids that do not exist.
+ */
+public class ProductBatchResponse {
+
+    private final Map<Long, ProductResponse> products = new LinkedHashMap<>();
+    private final List<Long> missing = new ArrayList<>();
+
+    public Map<Long, ProductResponse> getProducts() {
+        return products;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+}
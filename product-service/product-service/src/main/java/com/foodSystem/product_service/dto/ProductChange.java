@@ -0,0 +1,63 @@
+package com.foodSystem.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One entry of the product change feed. Product fields are null for deletions.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChange {
+
+    private final long sequence;    // Strictly increasing, also sent as the SSE event id
+    private final String type;      // CREATED, UPDATED or DELETED
+    private final Long productId;
+    private final String name;
+    private final Double price;
+    private final Boolean available;
+    private final Long menuId;
+    private final long changedAt;   // Commit time, epoch millis
+
+    public ProductChange(long sequence, String type, Long productId, String name, Double price, Boolean available,
+                         Long menuId, long changedAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.productId = productId;
+        this.name = name;
+        this.price = price;
+        this.available = available;
+        this.menuId = menuId;
+        this.changedAt = changedAt;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public Long getMenuId() {
+        return menuId;
+    }
+
+    public long getChangedAt() {
+        return changedAt;
+    }
+}
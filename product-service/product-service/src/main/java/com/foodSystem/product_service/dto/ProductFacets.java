@@ -0,0 +1,75 @@
+package com.foodSystem.product_service.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts of the products matching a search, broken down by category, menu, availability and
+ * price range.
+ */
+public class ProductFacets {
+
+    private final Map<String, Integer> categories;
+    private final Map<Long, Integer> menus;
+    private final int available;
+    private final int unavailable;
+    private final List<PriceBucket> prices;
+
+    public ProductFacets(Map<String, Integer> categories, Map<Long, Integer> menus, int available, int unavailable,
+                         List<PriceBucket> prices) {
+        this.categories = categories;
+        this.menus = menus;
+        this.available = available;
+        this.unavailable = unavailable;
+        this.prices = prices;
+    }
+
+    public Map<String, Integer> getCategories() {
+        return categories;
+    }
+
+    public Map<Long, Integer> getMenus() {
+        return menus;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getUnavailable() {
+        return unavailable;
+    }
+
+    public List<PriceBucket> getPrices() {
+        return prices;
+    }
+
+    /**
+     * Products priced in {@code [from, to)}; {@code from} is null for the first bucket and
+     * {@code to} for the last.
+     */
+    public static class PriceBucket {
+
+        private final Double from;
+        private final Double to;
+        private final int count;
+
+        public PriceBucket(Double from, Double to, int count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public Double getFrom() {
+            return from;
+        }
+
+        public Double getTo() {
+            return to;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
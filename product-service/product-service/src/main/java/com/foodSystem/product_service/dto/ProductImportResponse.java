@@ -0,0 +1,67 @@
+package com.foodSystem.product_service.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Summary of a bulk import: per-row results plus the throughput that was achieved.
+ */
+public class ProductImportResponse {
+
+    private int received;
+    private int created;
+    private int failed;
+    private int chunks;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<ProductImportResult> results = new ArrayList<>();
+
+    public void addResult(ProductImportResult result) {
+        results.add(result);
+        received++;
+        if (ProductImportResult.CREATED.equals(result.getStatus())) {
+            created++;
+        } else {
+            failed++;
+        }
+    }
+
+    public void chunkWritten() {
+        chunks++;
+    }
+
+    public void finish(long elapsedNanos) {
+        results.sort(Comparator.comparingInt(ProductImportResult::getIndex));
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.rowsPerSecond = elapsedNanos > 0 ? created * 1_000_000_000d / elapsedNanos : created;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public List<ProductImportResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,49 @@
+package com.foodSystem.product_service.dto;
+
+/**
+ * Outcome of a single row submitted through {@code POST /api/products/import}.
+ */
+public class ProductImportResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private int index;      // Position of the row in the file, header excluded
+    private Long productId; // Set when the product was persisted
+    private String status;  // CREATED or FAILED
+    private String error;   // Reason for a FAILED row
+
+    public ProductImportResult() {
+    }
+
+    public ProductImportResult(int index, Long productId, String status, String error) {
+        this.index = index;
+        this.productId = productId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static ProductImportResult created(int index, Long productId) {
+        return new ProductImportResult(index, productId, CREATED, null);
+    }
+
+    public static ProductImportResult failed(int index, String error) {
+        return new ProductImportResult(index, null, FAILED, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
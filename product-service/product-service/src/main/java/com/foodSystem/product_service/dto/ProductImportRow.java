@@ -0,0 +1,68 @@
+package com.foodSystem.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * One product of a bulk import. Menu and categories are referenced by name; the import resolves
+ * them to existing rows.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductImportRow {
+
+    private String name;
+    private String description;
+    private Double price;
+    private Boolean available;      // Defaults to true when omitted
+    private String menu;            // Menu name, optional
+    private List<String> categories; // Category names, optional
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+
+    public String getMenu() {
+        return menu;
+    }
+
+    public void setMenu(String menu) {
+        this.menu = menu;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories) {
+        this.categories = categories;
+    }
+}
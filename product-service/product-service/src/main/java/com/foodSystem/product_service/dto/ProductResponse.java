@@ -0,0 +1,78 @@
+package com.foodSystem.product_service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flat view of a product for listings and search: the menu is reduced to its id and name and
+ * categories to their names. Built by a JPQL constructor expression, so listing a page never
+ * loads {@code Product} entities or walks their associations. Listing rows carry only the menu id;
+ * the menu name is filled in from the second-level cache.
+ */
+public class ProductResponse {
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final double price;
+    private final boolean available;
+    private final Long menuId;
+    private String menuName;
+    private List<String> categories = new ArrayList<>();
+
+    public ProductResponse(Long id, String name, String description, double price, boolean available,
+                           Long menuId, String menuName) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.available = available;
+        this.menuId = menuId;
+        this.menuName = menuName;
+    }
+
+    public ProductResponse(Long id, String name, String description, double price, boolean available,
+                           Long menuId) {
+        this(id, name, description, price, available, menuId, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public Long getMenuId() {
+        return menuId;
+    }
+
+    public String getMenuName() {
+        return menuName;
+    }
+
+    public void setMenuName(String menuName) {
+        this.menuName = menuName;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories) {
+        this.categories = categories;
+    }
+}
@@ -0,0 +1,177 @@
+package com.foodSystem.product_service.dto;
+
+import io.swagger.v3.oas.annotations.Parameter;
+
+import java.util.List;
+
+/**
+ * The filters, sort and page of a product search, bound from the query parameters of
+ * {@code GET /api/products/search}. Unset filters match every product.
+ */
+public class ProductSearchCriteria {
+
+    @Parameter(description = "Full-text query over name and description; every word must match", example = "grilled chicken")
+    private String q;
+
+    @Parameter(description = "Product name")
+    private String name;
+
+    @Parameter(description = "Minimum price")
+    private Double minPrice;
+
+    @Parameter(description = "Maximum price")
+    private Double maxPrice;
+
+    @Parameter(description = "Availability status")
+    private Boolean available;
+
+    @Parameter(description = "Product description")
+    private String description;
+
+    @Parameter(description = "Menu ID")
+    private Long menuId;
+
+    @Parameter(description = "Category names")
+    private List<String> categories;
+
+    @Parameter(description = "Match products in any or all of the categories", example = "any")
+    private String categoryMatch = "any";
+
+    @Parameter(description = "Page number", example = "0")
+    private int page;
+
+    @Parameter(description = "Page size", example = "10")
+    private int size = 10;
+
+    @Parameter(description = "Fields to sort by, including relevance; defaults to relevance with q and id otherwise")
+    private List<String> sortBy;
+
+    @Parameter(description = "Sort directions; default desc for relevance, asc otherwise")
+    private List<String> sortDir;
+
+    @Parameter(description = "Include counts per category, menu, availability and price range over all matches", example = "false")
+    private boolean facets;
+
+    @Parameter(description = "Price bucket boundaries for the price facet", example = "10,20,50")
+    private List<Double> priceBuckets;
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Long getMenuId() {
+        return menuId;
+    }
+
+    public void setMenuId(Long menuId) {
+        this.menuId = menuId;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories) {
+        this.categories = categories;
+    }
+
+    public String getCategoryMatch() {
+        return categoryMatch;
+    }
+
+    public void setCategoryMatch(String categoryMatch) {
+        this.categoryMatch = categoryMatch;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public List<String> getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(List<String> sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public List<String> getSortDir() {
+        return sortDir;
+    }
+
+    public void setSortDir(List<String> sortDir) {
+        this.sortDir = sortDir;
+    }
+
+    public boolean isFacets() {
+        return facets;
+    }
+
+    public void setFacets(boolean facets) {
+        this.facets = facets;
+    }
+
+    public List<Double> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public void setPriceBuckets(List<Double> priceBuckets) {
+        this.priceBuckets = priceBuckets;
+    }
+}
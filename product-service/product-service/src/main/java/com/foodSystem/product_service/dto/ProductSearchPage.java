@@ -0,0 +1,35 @@
+package com.foodSystem.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of search results, serialized like any other {@code Page} plus, for text queries, the
+ * highlighted fields of each product on the page ({@code highlights[productId][field]}) and, on
+ * request, facet counts over all matches.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSearchPage<T> extends PageImpl<T> {
+
+    private final Map<Long, Map<String, String>> highlights;
+    private final ProductFacets facets;
+
+    public ProductSearchPage(List<T> content, Pageable pageable, long total,
+                             Map<Long, Map<String, String>> highlights, ProductFacets facets) {
+        super(content, pageable, total);
+        this.highlights = highlights;
+        this.facets = facets;
+    }
+
+    public Map<Long, Map<String, String>> getHighlights() {
+        return highlights;
+    }
+
+    public ProductFacets getFacets() {
+        return facets;
+    }
+}
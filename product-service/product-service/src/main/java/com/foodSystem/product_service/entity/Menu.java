@@ -1,11 +1,18 @@
 package com.foodSystem.product_service.entity;
 
+import com.foodSystem.product_service.event.MenuEntityListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "menus")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(MenuEntityListener.class)
 public class Menu {
 
     @Id
@@ -0,0 +1,17 @@
+package com.foodSystem.product_service.event;
+
+/**
+ * A category was created, renamed or deleted.
+ */
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+
+    public CategoryChangedEvent(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.foodSystem.product_service.event;
+
+/**
+ * A menu was created, renamed or deleted.
+ */
+public class MenuChangedEvent {
+
+    private final Long menuId;
+
+    public MenuChangedEvent(Long menuId) {
+        this.menuId = menuId;
+    }
+
+    public Long getMenuId() {
+        return menuId;
+    }
+}
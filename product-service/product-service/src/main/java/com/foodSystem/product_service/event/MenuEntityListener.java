@@ -0,0 +1,25 @@
+package com.foodSystem.product_service.event;
+
+import com.foodSystem.product_service.entity.Menu;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Publishes a {@link MenuChangedEvent} for every menu write.
+ */
+public class MenuEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Menu menu) {
+        eventPublisher.publishEvent(new MenuChangedEvent(menu.getId()));
+    }
+}
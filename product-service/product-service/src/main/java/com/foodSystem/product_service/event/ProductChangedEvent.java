@@ -0,0 +1,47 @@
+package com.foodSystem.product_service.event;
+
+/**
+ * A product was created, updated or deleted. {@code after} is null for deletions.
+ */
+public class ProductChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long productId;
+    private final ProductSnapshot after;
+
+    public ProductChangedEvent(Type type, Long productId, ProductSnapshot after) {
+        this.type = type;
+        this.productId = productId;
+        this.after = after;
+    }
+
+    public static ProductChangedEvent created(ProductSnapshot after) {
+        return new ProductChangedEvent(Type.CREATED, after.getId(), after);
+    }
+
+    public static ProductChangedEvent updated(ProductSnapshot after) {
+        return new ProductChangedEvent(Type.UPDATED, after.getId(), after);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public ProductSnapshot getAfter() {
+        return after;
+    }
+
+    public boolean isDeleted() {
+        return after == null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.foodSystem.product_service.event;
+
+import com.foodSystem.product_service.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Turns JPA lifecycle callbacks into {@link ProductChangedEvent}s, so every write path
+ * (service calls, repository calls, bulk imports) keeps the in-process product indexes and the
+ * change feed current.
+ */
+public class ProductEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void onPersist(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.created(ProductSnapshot.of(product)));
+    }
+
+    @PostUpdate
+    public void onUpdate(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.updated(ProductSnapshot.of(product)));
+    }
+
+    @PostRemove
+    public void onRemove(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product.getId()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.foodSystem.product_service.event;
+
+import com.foodSystem.product_service.entity.Category;
+import com.foodSystem.product_service.entity.Product;
+import org.hibernate.Hibernate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of the searchable fields of a {@link Product} at the time of a change.
+ */
+public class ProductSnapshot {
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final double price;
+    private final boolean available;
+    private final Long menuId;
+    private final List<String> categories; // null when the change did not load them
+
+    public ProductSnapshot(Long id, String name, String description, double price, boolean available,
+                           Long menuId, List<String> categories) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.available = available;
+        this.menuId = menuId;
+        this.categories = categories != null ? Collections.unmodifiableList(categories) : null;
+    }
+
+    public static ProductSnapshot of(Product product) {
+        List<String> categories = null;
+        // An uninitialized collection was not touched by this write, and loading it mid-flush is unsafe
+        if (product.getCategories() == null) {
+            categories = Collections.emptyList();
+        } else if (Hibernate.isInitialized(product.getCategories())) {
+            categories = new ArrayList<>(product.getCategories().size());
+            for (Category category : product.getCategories()) {
+                categories.add(category.getName());
+            }
+        }
+        return new ProductSnapshot(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.isAvailable(), product.getMenu() != null ? product.getMenu().getId() : null, categories);
+    }
+
+    // The same product with categories taken from an earlier snapshot
+    public ProductSnapshot withCategories(List<String> categories) {
+        return new ProductSnapshot(id, name, description, price, available, menuId, categories);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public Long getMenuId() {
+        return menuId;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+}
@@ -0,0 +1,8 @@
+// CatalogNotLoadedException.java
+package com.foodSystem.product_service.exception;
+
+public class CatalogNotLoadedException extends RuntimeException {
+    public CatalogNotLoadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package com.foodSystem.product_service.feed;
+
+import com.foodSystem.product_service.dto.ProductChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Fixed-size ring of the most recent changes, indexed by sequence number. Appending and reading
+ * hold the monitor only long enough to copy references, so writers never wait on a consumer.
+ */
+public class ChangeBuffer {
+
+    private final ProductChange[] ring;
+    private final long first; // Sequence of the first change this buffer ever held
+    private long next;        // Sequence the next change gets
+
+    public ChangeBuffer(int capacity, long firstSequence) {
+        this.ring = new ProductChange[capacity];
+        this.first = firstSequence;
+        this.next = firstSequence;
+    }
+
+    /**
+     * Assigns the next sequence number and stores the change built for it.
+     */
+    public synchronized ProductChange append(LongFunction<ProductChange> change) {
+        ProductChange appended = change.apply(next);
+        ring[(int) (next % ring.length)] = appended;
+        next++;
+        return appended;
+    }
+
+    /**
+     * @return sequence of the latest change, or {@code firstSequence - 1} before the first one
+     */
+    public synchronized long head() {
+        return next - 1;
+    }
+
+    /**
+     * Up to {@code max} changes following {@code sequence}, oldest first; empty when caught up.
+     *
+     * @return null when the changes after {@code sequence} are no longer (or never were) in the
+     *         buffer, i.e. the caller has to start over from {@link #head()}
+     */
+    public synchronized List<ProductChange> after(long sequence, int max) {
+        long oldest = Math.max(first, next - ring.length);
+        if (sequence < oldest - 1 || sequence > next - 1) {
+            return null;
+        }
+        if (sequence == next - 1) {
+            return Collections.emptyList();
+        }
+        int count = (int) Math.min(max, next - 1 - sequence);
+        List<ProductChange> changes = new ArrayList<>(count);
+        for (long s = sequence + 1; s <= sequence + count; s++) {
+            changes.add(ring[(int) (s % ring.length)]);
+        }
+        return changes;
+    }
+}
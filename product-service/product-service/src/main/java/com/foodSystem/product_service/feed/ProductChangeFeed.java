@@ -0,0 +1,196 @@
+package com.foodSystem.product_service.feed;
+
+import com.foodSystem.product_service.dto.ProductChange;
+import com.foodSystem.product_service.event.ProductChangedEvent;
+import com.foodSystem.product_service.event.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sequence-numbered feed of committed product changes, streamed to subscribers as Server-Sent
+ * Events. Changes go into a bounded {@link ChangeBuffer} from which subscribers replay on
+ * (re)connect; a small fan-out pool writes to the connections, so a commit only appends to the
+ * buffer and never waits on a slow consumer.
+ *
+ * A consumer whose position fell out of the buffer, or comes from before a restart, gets a
+ * {@code reset} event and should drop everything it cached before continuing.
+ */
+@Component
+public class ProductChangeFeed {
+
+    private static final int BATCH = 256;
+
+    @Value("${products.changes.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${products.changes.fanout-threads:2}")
+    private int fanoutThreads;
+
+    @Value("${products.changes.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${products.changes.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private ChangeBuffer buffer;
+    private ScheduledThreadPoolExecutor fanout;
+
+    @PostConstruct
+    public void start() {
+        // Sequences start from the boot time, so ids handed out before a restart are always
+        // older than the new buffer and their holders get a reset instead of silently missing changes
+        buffer = new ChangeBuffer(bufferSize, System.currentTimeMillis() * 1000);
+        AtomicInteger threads = new AtomicInteger();
+        fanout = new ScheduledThreadPoolExecutor(fanoutThreads, task -> {
+            Thread thread = new Thread(task, "product-changes-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        fanout.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        fanout.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        long changedAt = System.currentTimeMillis();
+        buffer.append(sequence -> toChange(sequence, event, changedAt));
+        for (Subscriber subscriber : subscribers) {
+            subscriber.schedule();
+        }
+    }
+
+    /**
+     * @param since sequence of the last change the consumer has seen; null to start from now
+     */
+    public SseEmitter subscribe(Long since) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, since != null ? since : buffer.head());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.schedule(); // Replay whatever followed since
+        return emitter;
+    }
+
+    public long head() {
+        return buffer.head();
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException ex) {
+                subscriber.close();
+            }
+        }
+    }
+
+    private static ProductChange toChange(long sequence, ProductChangedEvent event, long changedAt) {
+        ProductSnapshot after = event.getAfter();
+        if (after == null) {
+            return new ProductChange(sequence, event.getType().name(), event.getProductId(), null, null, null, null,
+                    changedAt);
+        }
+        return new ProductChange(sequence, event.getType().name(), event.getProductId(), after.getName(),
+                after.getPrice(), after.isAvailable(), after.getMenuId(), changedAt);
+    }
+
+    /**
+     * One open stream. {@code position} is only touched by the single drain task that the
+     * {@code scheduled} flag lets run at a time.
+     */
+    private class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private long position;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                try {
+                    fanout.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    scheduled.set(false); // Shutting down
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    List<ProductChange> changes = buffer.after(position, BATCH);
+                    if (changes == null) {
+                        long head = buffer.head();
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(head))
+                                .name("reset")
+                                .data(Collections.singletonMap("sequence", head)));
+                        position = head;
+                        continue;
+                    }
+                    if (changes.isEmpty()) {
+                        scheduled.set(false);
+                        // A change appended after the read above found the flag still set; pick it up here
+                        if (buffer.head() == position || !scheduled.compareAndSet(false, true)) {
+                            return;
+                        }
+                        continue;
+                    }
+                    for (ProductChange change : changes) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.getSequence()))
+                                .name("product")
+                                .data(change));
+                        position = change.getSequence();
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                close(); // The client went away
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Already completed
+            }
+        }
+    }
+}
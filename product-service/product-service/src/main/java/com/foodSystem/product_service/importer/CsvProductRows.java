@@ -0,0 +1,116 @@
+package com.foodSystem.product_service.importer;
+
+import com.foodSystem.product_service.dto.ProductImportRow;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Product rows from a CSV file whose first record is a header, e.g.
+ * {@code name,description,price,available,menu,categories}. Columns are matched by name in any
+ * order; unknown columns are ignored and categories are separated by {@code |}.
+ * <p>
+ * A record with an unparseable value is still consumed: {@link #next()} throws an
+ * {@link IllegalArgumentException} for it and the following record stays readable.
+ */
+public class CsvProductRows implements Iterator<ProductImportRow> {
+
+    private final CsvReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private List<String> record;
+    private boolean exhausted;
+
+    public CsvProductRows(CsvReader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports often start with a UTF-8 byte order mark
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name")) {
+            throw new IllegalArgumentException("CSV header must contain a name column");
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (record == null && !exhausted) {
+            try {
+                record = reader.next();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            exhausted = record == null;
+        }
+        return record != null;
+    }
+
+    @Override
+    public ProductImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<String> current = record;
+        record = null;
+
+        ProductImportRow row = new ProductImportRow();
+        row.setName(value(current, "name"));
+        row.setDescription(value(current, "description"));
+        row.setMenu(value(current, "menu"));
+        String price = value(current, "price");
+        if (price != null) {
+            try {
+                row.setPrice(Double.valueOf(price));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("price is not a number: " + price);
+            }
+        }
+        String available = value(current, "available");
+        if (available != null) {
+            row.setAvailable(parseBoolean(available));
+        }
+        String categories = value(current, "categories");
+        if (categories != null) {
+            List<String> names = new ArrayList<>();
+            for (String name : categories.split("\\|")) {
+                if (!name.trim().isEmpty()) {
+                    names.add(name.trim());
+                }
+            }
+            row.setCategories(names);
+        }
+        return row;
+    }
+
+    // Trimmed cell, null when the column is absent or the cell is empty
+    private String value(List<String> record, String column) {
+        Integer at = columns.get(column);
+        if (at == null || at >= record.size()) {
+            return null;
+        }
+        String value = record.get(at).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        String normalized = value.toLowerCase(Locale.ROOT);
+        if (Arrays.asList("true", "yes", "1").contains(normalized)) {
+            return Boolean.TRUE;
+        }
+        if (Arrays.asList("false", "no", "0").contains(normalized)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("available is not a boolean: " + value);
+    }
+}
@@ -0,0 +1,32 @@
+package com.foodSystem.product_service.mapper;
+
+import com.foodSystem.product_service.dto.ProductResponse;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Completes {@link ProductResponse}s from the rows of the batched category query.
+ */
+public final class ProductMapper {
+
+    private ProductMapper() {
+    }
+
+    /**
+     * @param categoryRows {@code (productId, categoryName)} rows for the products in {@code products}
+     */
+    public static void setCategories(List<ProductResponse> products, List<Object[]> categoryRows) {
+        Map<Long, ProductResponse> byId = new HashMap<>();
+        for (ProductResponse product : products) {
+            byId.put(product.getId(), product);
+        }
+        for (Object[] row : categoryRows) {
+            ProductResponse product = byId.get((Long) row[0]);
+            if (product != null) {
+                product.getCategories().add((String) row[1]);
+            }
+        }
+    }
+}
@@ -2,5 +2,19 @@ package com.foodSystem.product_service.repository;
 
 import com.foodSystem.product_service.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface CategoryRepository extends JpaRepository<Category, Long> {}
+import javax.persistence.QueryHint;
+import java.util.List;
+
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    // Query cache: the id lists come from the query cache and the categories from the entity cache
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Category> findAll();
+
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Category> findAllById(Iterable<Long> ids);
+}
@@ -2,7 +2,25 @@ package com.foodSystem.product_service.repository;
 
 import com.foodSystem.product_service.entity.Menu;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import javax.persistence.Id;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 
-public interface MenuRepository extends JpaRepository<Menu, Long> {}
+public interface MenuRepository extends JpaRepository<Menu, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Menu> findAll();
+
+    // (id, name) rows for the catalog snapshot, without touching Menu.products
+    @Query("select m.id, m.name from Menu m")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Object[]> findNames();
+
+    @Query("select m.id, m.name from Menu m where m.id in :ids")
+    List<Object[]> findNames(@Param("ids") Collection<Long> ids);
+}
@@ -1,20 +1,72 @@
 package com.foodSystem.product_service.repository;
 
 
+import com.foodSystem.product_service.dto.ProductResponse;
 import com.foodSystem.product_service.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
 
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
-    Page<Product> findByNameContaining(String name, Pageable pageable);
-    Page<Product> findByPriceBetween(double minPrice, double maxPrice, Pageable pageable);
-    Page<Product> findByAvailable(boolean available, Pageable pageable);
+    String RESPONSE = "select new com.foodSystem.product_service.dto.ProductResponse("
+            + "p.id, p.name, p.description, p.price, p.available, m.id, m.name) from Product p left join p.menu m";
+
+    // Listing rows without joins: p.menu.id reads the foreign key column, and menu and category
+    // names come from the second-level cache (see ReferenceDataService)
+    String LISTING = "select new com.foodSystem.product_service.dto.ProductResponse("
+            + "p.id, p.name, p.description, p.price, p.available, p.menu.id) from Product p";
+
+    // Catalog snapshot: every product at once, menu names joined in
+    @Query(value = RESPONSE, countQuery = "select count(p) from Product p")
+    Page<ProductResponse> findAllResponses(Pageable pageable);
+
+    @Query(RESPONSE + " where p.id in :ids")
+    List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Listings: one query per page (plus a count), category ids via findCategoryIds(ids)
+    @Query(value = LISTING, countQuery = "select count(p) from Product p")
+    Page<ProductResponse> findAllListings(Pageable pageable);
+
+    @Query(value = LISTING + " where p.name like concat('%', :name, '%')",
+            countQuery = "select count(p) from Product p where p.name like concat('%', :name, '%')")
+    Page<ProductResponse> findListingsByNameContaining(@Param("name") String name, Pageable pageable);
+
+    @Query(LISTING + " where p.id in :ids")
+    List<ProductResponse> findListingsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // (productId, categoryId) rows straight from the join table, without joining categories
+    @Query(value = "select pc.product_id, pc.category_id from product_category pc where pc.product_id in :ids",
+            nativeQuery = true)
+    List<Object[]> findCategoryIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id from Product p where p.menu.id in :menuIds")
+    List<Long> findIdsByMenuIdIn(@Param("menuIds") Collection<Long> menuIds);
+
+    @Query("select p.id from Product p join p.categories c where c.id in :categoryIds")
+    List<Long> findIdsByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
 
     boolean existsByName(String name);
+
+    // Bulk import: which of a chunk's names are already taken, in one query
+    @Query("select p.name from Product p where p.name in :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    // Index rebuild: searchable columns and category names as flat rows, two queries in total
+    @Query("select p.id, p.name, p.description, p.price, p.available, m.id from Product p left join p.menu m")
+    List<Object[]> findSearchRows();
+
+    @Query("select p.id, c.name from Product p join p.categories c")
+    List<Object[]> findCategoryNames();
+
+    @Query("select p.id, c.name from Product p join p.categories c where p.id in :ids order by c.name")
+    List<Object[]> findCategoryNames(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
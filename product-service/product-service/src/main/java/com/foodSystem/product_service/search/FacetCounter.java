@@ -0,0 +1,69 @@
+package com.foodSystem.product_service.search;
+
+import com.foodSystem.product_service.dto.ProductFacets;
+import com.foodSystem.product_service.event.ProductSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Accumulates {@link ProductFacets} while walking the matches of a search once, so the sidebar
+ * counts cost no query of their own.
+ */
+public class FacetCounter {
+
+    private final double[] bounds;
+    private final int[] prices;
+    private final Map<String, int[]> categories = new HashMap<>();
+    private final Map<Long, int[]> menus = new HashMap<>();
+    private int available;
+    private int unavailable;
+
+    /**
+     * @param bounds ascending, distinct price bucket boundaries; n bounds give n + 1 buckets
+     */
+    public FacetCounter(double[] bounds) {
+        this.bounds = bounds;
+        this.prices = new int[bounds.length + 1];
+    }
+
+    public void add(ProductSnapshot product) {
+        for (String category : product.getCategories()) {
+            if (category == null) {
+                continue;
+            }
+            categories.computeIfAbsent(category, k -> new int[1])[0]++;
+        }
+        if (product.getMenuId() != null) {
+            menus.computeIfAbsent(product.getMenuId(), k -> new int[1])[0]++;
+        }
+        if (product.isAvailable()) {
+            available++;
+        } else {
+            unavailable++;
+        }
+        int at = Arrays.binarySearch(bounds, product.getPrice());
+        prices[at >= 0 ? at + 1 : -(at + 1)]++;
+    }
+
+    public ProductFacets toFacets() {
+        List<ProductFacets.PriceBucket> buckets = new ArrayList<>(prices.length);
+        for (int i = 0; i < prices.length; i++) {
+            buckets.add(new ProductFacets.PriceBucket(i > 0 ? bounds[i - 1] : null,
+                    i < bounds.length ? bounds[i] : null, prices[i]));
+        }
+        return new ProductFacets(counts(categories), counts(menus), available, unavailable, buckets);
+    }
+
+    private static <K> Map<K, Integer> counts(Map<K, int[]> counters) {
+        Map<K, Integer> counts = new TreeMap<>();
+        for (Map.Entry<K, int[]> entry : counters.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue()[0]);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,61 @@
+package com.foodSystem.product_service.search;
+
+import java.util.Set;
+
+/**
+ * Marks the words of a text that match query terms with {@code <em>}, escaping the rest as HTML.
+ */
+public final class Highlighter {
+
+    private Highlighter() {
+    }
+
+    /**
+     * Returns the highlighted text, or null if no word of {@code text} matches {@code terms}.
+     */
+    public static String highlight(String text, Set<String> terms) {
+        if (text == null || terms.isEmpty()) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        int[] copied = {0};
+        boolean[] matched = {false};
+        TextAnalyzer.tokens(text, (start, end, term) -> {
+            if (terms.contains(term)) {
+                escape(text, copied[0], start, out);
+                out.append("<em>");
+                escape(text, start, end, out);
+                out.append("</em>");
+                copied[0] = end;
+                matched[0] = true;
+            }
+        });
+        if (!matched[0]) {
+            return null;
+        }
+        escape(text, copied[0], text.length(), out);
+        return out.toString();
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '"':
+                    out.append("&quot;");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.foodSystem.product_service.search;
+
+import com.foodSystem.product_service.entity.Category;
+import com.foodSystem.product_service.event.CategoryChangedEvent;
+import com.foodSystem.product_service.event.ProductChangedEvent;
+import com.foodSystem.product_service.event.ProductSnapshot;
+import com.foodSystem.product_service.repository.CategoryRepository;
+import com.foodSystem.product_service.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory copy of the searchable product fields. Every product gets a dense int doc id, and
+ * per-category, per-menu and availability bitmaps of doc ids answer those filters with bitwise
+ * AND/OR, a price-sorted array of {@code (price, doc)} pairs answers price ranges by binary
+ * search, and a {@link ProductTextIndex} over the same doc ids answers full-text queries, so a
+ * search only has to go to MySQL for the rows of the page it returns.
+ *
+ * Kept current from {@link ProductChangedEvent}s and {@link CategoryChangedEvent}s after commit;
+ * readers share a read lock and writes, which are rare, take the write lock.
+ */
+@Component
+public class ProductIndex {
+
+    private static final BitSet EMPTY = new BitSet();
+    private static final int IN_CHUNK = 1000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, Integer> docIds = new HashMap<>();
+    private ProductSnapshot[] docs = new ProductSnapshot[1024];
+    private int nextDocId;
+    private BitSet live = new BitSet();
+    private Map<String, BitSet> byCategory = new HashMap<>();
+    private Map<Long, String> categoryNames = new HashMap<>(); // As indexed, to find the products of a renamed category
+    private Map<Long, BitSet> byMenu = new HashMap<>();
+    private ProductTextIndex text = new ProductTextIndex();
+    private BitSet availableDocs = new BitSet();
+
+    // (price, doc) pairs sorted by price then doc. Writes only mark the old pair stale and buffer
+    // the new one; the next price query merges them in one linear pass
+    private double[] prices = new double[0];
+    private int[] priceDocs = new int[0];
+    private int priceCount;
+    private BitSet stalePrices = new BitSet();
+    private Map<Integer, Double> pendingPrices = new HashMap<>();
+    private volatile boolean pricesDirty;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, String> names = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            names.put(category.getId(), category.getName());
+        }
+        Map<Long, List<String>> categories = new HashMap<>();
+        for (Object[] row : productRepository.findCategoryNames()) {
+            categories.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        List<ProductSnapshot> products = new ArrayList<>();
+        for (Object[] row : productRepository.findSearchRows()) {
+            Long id = (Long) row[0];
+            List<String> productCategories = categories.get(id);
+            products.add(new ProductSnapshot(id, (String) row[1], (String) row[2], (Double) row[3],
+                    (Boolean) row[4], (Long) row[5], productCategories != null ? productCategories : new ArrayList<>()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            docIds = new HashMap<>(products.size() * 2);
+            docs = new ProductSnapshot[Math.max(1024, products.size() + products.size() / 2)];
+            nextDocId = 0;
+            live = new BitSet(products.size());
+            byCategory = new HashMap<>();
+            categoryNames = names;
+            byMenu = new HashMap<>();
+            text = new ProductTextIndex();
+            availableDocs = new BitSet(products.size());
+            prices = new double[0];
+            priceDocs = new int[0];
+            priceCount = 0;
+            stalePrices = new BitSet();
+            pendingPrices = new HashMap<>(products.size() * 2);
+            for (ProductSnapshot product : products) {
+                add(product);
+            }
+            mergePrices();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.get(event.getProductId());
+            ProductSnapshot previous = doc != null ? docs[doc] : null;
+            if (previous != null) {
+                unindex(doc, previous);
+            }
+            if (event.isDeleted()) {
+                if (doc != null) {
+                    docIds.remove(event.getProductId());
+                    docs[doc] = null;
+                    live.clear(doc);
+                }
+                return;
+            }
+            ProductSnapshot product = event.getAfter();
+            if (product.getCategories() == null) {
+                product = product.withCategories(previous != null ? previous.getCategories() : new ArrayList<>());
+            }
+            if (doc == null) {
+                add(product);
+            } else {
+                docs[doc] = product;
+                index(doc, product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Category bitmaps are keyed by name, so a rename or deletion re-reads the categories of every
+     * product filed under the old name and moves them to the bitmaps of their current names.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Long categoryId = event.getCategoryId();
+        String name = categoryRepository.findById(categoryId).map(Category::getName).orElse(null);
+        List<Long> productIds = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            String previous = categoryNames.get(categoryId);
+            BitSet docsOfPrevious = previous != null && !previous.equals(name)
+                    ? byCategory.getOrDefault(key(previous), EMPTY) : EMPTY;
+            for (int doc = docsOfPrevious.nextSetBit(0); doc >= 0; doc = docsOfPrevious.nextSetBit(doc + 1)) {
+                productIds.add(docs[doc].getId());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, List<String>> categories = new HashMap<>();
+        for (int from = 0; from < productIds.size(); from += IN_CHUNK) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + IN_CHUNK, productIds.size()));
+            for (Object[] row : productRepository.findCategoryNames(chunk)) {
+                categories.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (name != null) {
+                categoryNames.put(categoryId, name);
+            } else {
+                categoryNames.remove(categoryId);
+            }
+            for (Long productId : productIds) {
+                Integer doc = docIds.get(productId);
+                if (doc == null) {
+                    continue; // Deleted meanwhile
+                }
+                List<String> current = categories.get(productId);
+                ProductSnapshot product = docs[doc];
+                unindexCategories(doc, product);
+                docs[doc] = product.withCategories(current != null ? current : new ArrayList<>());
+                indexCategories(doc, docs[doc]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Doc ids of all products.
+     */
+    public BitSet all() {
+        lock.readLock().lock();
+        try {
+            return (BitSet) live.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Doc ids of products in any ({@code matchAll == false}) or all of the named categories;
+     * names are matched case-insensitively.
+     */
+    public BitSet inCategories(Collection<String> names, boolean matchAll) {
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (String name : names) {
+                BitSet category = byCategory.getOrDefault(key(name), EMPTY);
+                if (result == null) {
+                    result = (BitSet) category.clone();
+                } else if (matchAll) {
+                    result.and(category);
+                } else {
+                    result.or(category);
+                }
+            }
+            return result != null ? result : new BitSet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Doc ids of products that are ({@code available == true}) or are not available.
+     */
+    public BitSet withAvailability(boolean available) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) availableDocs.clone();
+            if (!available) {
+                result.flip(0, nextDocId);
+                result.and(live);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Doc ids of products priced within {@code [min, max]}; a null bound is open.
+     */
+    public BitSet inPriceRange(Double min, Double max) {
+        lock.readLock().lock();
+        if (pricesDirty) {
+            // A read lock cannot be upgraded: give it up, merge under the write lock, then downgrade
+            // by taking the read lock before releasing the write lock, so no write slips in between
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                mergePrices(); // Re-checks pricesDirty: another reader may have merged meanwhile
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        try {
+            int from = min != null ? firstPriceAtLeast(min, false) : 0;
+            int to = max != null ? firstPriceAtLeast(max, true) : priceCount;
+            BitSet result = new BitSet(nextDocId);
+            for (int i = from; i < to; i++) {
+                result.set(priceDocs[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public BitSet inMenu(Long menuId) {
+        lock.readLock().lock();
+        try {
+            return (BitSet) byMenu.getOrDefault(menuId, EMPTY).clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The products among {@code candidates} that pass {@code filter}, in doc id order.
+     */
+    public List<ProductSnapshot> collect(BitSet candidates, Predicate<ProductSnapshot> filter) {
+        List<ProductSnapshot> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                ProductSnapshot product = doc < nextDocId ? docs[doc] : null;
+                if (product != null && filter.test(product)) {
+                    matches.add(product);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    /**
+     * Full-text match of {@code terms} (analyzed with {@link TextAnalyzer}, all required) among
+     * {@code candidates}, scored with BM25F, in doc id order.
+     */
+    public List<ScoredProduct> search(List<String> terms, BitSet candidates, Predicate<ProductSnapshot> filter) {
+        List<ScoredProduct> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            ProductTextIndex.Matches hits = text.search(terms, candidates);
+            for (int i = 0; i < hits.count(); i++) {
+                ProductSnapshot product = docs[hits.doc(i)];
+                if (product != null && filter.test(product)) {
+                    matches.add(new ScoredProduct(product, hits.score(i)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock. Doc ids of deleted products are not reused
+    private void add(ProductSnapshot product) {
+        int doc = nextDocId++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        docs[doc] = product;
+        docIds.put(product.getId(), doc);
+        live.set(doc);
+        index(doc, product);
+    }
+
+    private void index(int doc, ProductSnapshot product) {
+        text.add(doc, product);
+        availableDocs.set(doc, product.isAvailable());
+        pendingPrices.put(doc, product.getPrice());
+        pricesDirty = true;
+        indexCategories(doc, product);
+        if (product.getMenuId() != null) {
+            byMenu.computeIfAbsent(product.getMenuId(), k -> new BitSet()).set(doc);
+        }
+    }
+
+    private void unindex(int doc, ProductSnapshot product) {
+        text.remove(doc, product);
+        availableDocs.clear(doc);
+        if (pendingPrices.remove(doc) == null) {
+            stalePrices.set(doc); // Its pair is in the sorted arrays
+        }
+        pricesDirty = true;
+        unindexCategories(doc, product);
+        if (product.getMenuId() != null) {
+            clear(byMenu, product.getMenuId(), doc);
+        }
+    }
+
+    private void indexCategories(int doc, ProductSnapshot product) {
+        for (String category : product.getCategories()) {
+            byCategory.computeIfAbsent(key(category), k -> new BitSet()).set(doc);
+        }
+    }
+
+    private void unindexCategories(int doc, ProductSnapshot product) {
+        for (String category : product.getCategories()) {
+            clear(byCategory, key(category), doc);
+        }
+    }
+
+    // Callers hold the write lock
+    private void mergePrices() {
+        if (!pricesDirty) {
+            return;
+        }
+        Integer[] sorted = pendingPrices.keySet().toArray(new Integer[0]);
+        Arrays.sort(sorted, (a, b) -> comparePrice(pendingPrices.get(a), a, pendingPrices.get(b), b));
+        int[] addedDocs = new int[sorted.length];
+        double[] addedPrices = new double[sorted.length];
+        for (int k = 0; k < sorted.length; k++) {
+            addedDocs[k] = sorted[k];
+            addedPrices[k] = pendingPrices.get(sorted[k]);
+        }
+
+        double[] mergedPrices = new double[priceCount + addedDocs.length];
+        int[] mergedDocs = new int[mergedPrices.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < priceCount || j < addedDocs.length) {
+            if (i < priceCount && stalePrices.get(priceDocs[i])) {
+                i++;
+            } else if (j == addedDocs.length || i < priceCount
+                    && comparePrice(prices[i], priceDocs[i], addedPrices[j], addedDocs[j]) < 0) {
+                mergedPrices[size] = prices[i];
+                mergedDocs[size++] = priceDocs[i++];
+            } else {
+                mergedPrices[size] = addedPrices[j];
+                mergedDocs[size++] = addedDocs[j++];
+            }
+        }
+        prices = mergedPrices;
+        priceDocs = mergedDocs;
+        priceCount = size;
+        stalePrices.clear();
+        pendingPrices.clear();
+        pricesDirty = false;
+    }
+
+    // Index of the first pair priced at least (or, when strict, more than) the given price
+    private int firstPriceAtLeast(double price, boolean strict) {
+        int low = 0;
+        int high = priceCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(prices[mid], price);
+            if (cmp < 0 || strict && cmp == 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int comparePrice(double priceA, int docA, double priceB, int docB) {
+        int cmp = Double.compare(priceA, priceB);
+        return cmp != 0 ? cmp : Integer.compare(docA, docB);
+    }
+
+    private static <K> void clear(Map<K, BitSet> bitmaps, K key, int doc) {
+        BitSet bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.clear(doc);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static String key(String category) {
+        return category == null ? "" : category.trim().toLowerCase(Locale.ROOT);
+    }
+}
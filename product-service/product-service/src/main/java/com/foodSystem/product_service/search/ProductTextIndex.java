@@ -0,0 +1,210 @@
+package com.foodSystem.product_service.search;
+
+import com.foodSystem.product_service.event.ProductSnapshot;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index over product {@code name} and {@code description} with BM25F scoring (name
+ * matches weigh more than description matches). Postings are doc-id-sorted primitive arrays
+ * holding both field frequencies in one int, so a 1M product catalog costs a few ints per term
+ * occurrence rather than an object each. Stop words get postings, for queries made only of them,
+ * but do not count towards field lengths, so they do not change how other terms score.
+ *
+ * Not thread-safe: {@link ProductIndex} calls it under its own lock.
+ */
+public class ProductTextIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int MAX_FREQUENCY = 0xFFFF;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int[] nameLengths = new int[1024];
+    private int[] descriptionLengths = new int[1024];
+    private long totalNameLength;
+    private long totalDescriptionLength;
+    private int documents;
+
+    public void add(int doc, ProductSnapshot product) {
+        Map<String, int[]> frequencies = frequencies(product);
+        int nameLength = 0;
+        int descriptionLength = 0;
+        for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+            int[] tf = entry.getValue();
+            if (!TextAnalyzer.isStopWord(entry.getKey())) {
+                nameLength += tf[0];
+                descriptionLength += tf[1];
+            }
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings())
+                    .add(doc, Math.min(tf[0], MAX_FREQUENCY) << 16 | Math.min(tf[1], MAX_FREQUENCY));
+        }
+        if (doc >= nameLengths.length) {
+            int capacity = Math.max(doc + 1, nameLengths.length * 2);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        }
+        nameLengths[doc] = nameLength;
+        descriptionLengths[doc] = descriptionLength;
+        totalNameLength += nameLength;
+        totalDescriptionLength += descriptionLength;
+        documents++;
+    }
+
+    /**
+     * Removes {@code doc}; {@code product} must be the snapshot it was added with.
+     */
+    public void remove(int doc, ProductSnapshot product) {
+        for (String term : frequencies(product).keySet()) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(doc) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalNameLength -= nameLengths[doc];
+        totalDescriptionLength -= descriptionLengths[doc];
+        nameLengths[doc] = 0;
+        descriptionLengths[doc] = 0;
+        documents--;
+    }
+
+    /**
+     * Scores the docs in {@code candidates} that contain every one of {@code terms}.
+     */
+    public Matches search(List<String> terms, BitSet candidates) {
+        if (terms.isEmpty() || documents == 0) {
+            return Matches.EMPTY;
+        }
+        Postings[] lists = new Postings[terms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(terms.get(i));
+            if (lists[i] == null) {
+                return Matches.EMPTY; // Every term is required
+            }
+        }
+        // Drive the intersection from the rarest term and binary-search the others
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        float averageName = Math.max(1f, (float) totalNameLength / documents);
+        float averageDescription = Math.max(1f, (float) totalDescriptionLength / documents);
+        float[] idf = new float[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            idf[i] = (float) Math.log(1 + (documents - lists[i].size + 0.5) / (lists[i].size + 0.5));
+        }
+
+        Postings rarest = lists[0];
+        int[] docs = new int[rarest.size];
+        float[] scores = new float[rarest.size];
+        int count = 0;
+        next:
+        for (int p = 0; p < rarest.size; p++) {
+            int doc = rarest.docs[p];
+            if (!candidates.get(doc)) {
+                continue;
+            }
+            float score = 0;
+            for (int i = 0; i < lists.length; i++) {
+                int frequencies;
+                if (i == 0) {
+                    frequencies = rarest.frequencies[p];
+                } else {
+                    int at = Arrays.binarySearch(lists[i].docs, 0, lists[i].size, doc);
+                    if (at < 0) {
+                        continue next;
+                    }
+                    frequencies = lists[i].frequencies[at];
+                }
+                // BM25F: length-normalise each field, combine, then saturate once
+                float tf = NAME_WEIGHT * (frequencies >>> 16)
+                        / (1 - B + B * nameLengths[doc] / averageName)
+                        + DESCRIPTION_WEIGHT * (frequencies & MAX_FREQUENCY)
+                        / (1 - B + B * descriptionLengths[doc] / averageDescription);
+                score += idf[i] * tf * (K1 + 1) / (tf + K1);
+            }
+            docs[count] = doc;
+            scores[count] = score;
+            count++;
+        }
+        return new Matches(docs, scores, count);
+    }
+
+    public int terms() {
+        return postings.size();
+    }
+
+    private static Map<String, int[]> frequencies(ProductSnapshot product) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        for (String term : TextAnalyzer.terms(product.getName())) {
+            frequencies.computeIfAbsent(term, t -> new int[2])[0]++;
+        }
+        for (String term : TextAnalyzer.terms(product.getDescription())) {
+            frequencies.computeIfAbsent(term, t -> new int[2])[1]++;
+        }
+        return frequencies;
+    }
+
+    public static final class Matches {
+
+        static final Matches EMPTY = new Matches(new int[0], new float[0], 0);
+
+        private final int[] docs;
+        private final float[] scores;
+        private final int count;
+
+        Matches(int[] docs, float[] scores, int count) {
+            this.docs = docs;
+            this.scores = scores;
+            this.count = count;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public int doc(int i) {
+            return docs[i];
+        }
+
+        public float score(int i) {
+            return scores[i];
+        }
+    }
+
+    // Doc ids ascending with the packed (name << 16 | description) frequencies alongside
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int doc, int packed) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            // New products get the highest doc id, so this is an append except for re-indexed updates
+            int at = size == 0 || docs[size - 1] < doc ? size : -(Arrays.binarySearch(docs, 0, size, doc) + 1);
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            System.arraycopy(frequencies, at, frequencies, at + 1, size - at);
+            docs[at] = doc;
+            frequencies[at] = packed;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(frequencies, at + 1, frequencies, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
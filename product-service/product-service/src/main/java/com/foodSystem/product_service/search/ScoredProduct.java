@@ -0,0 +1,25 @@
+package com.foodSystem.product_service.search;
+
+import com.foodSystem.product_service.event.ProductSnapshot;
+
+/**
+ * A search match with its relevance; 0 when the search had no text query.
+ */
+public class ScoredProduct {
+
+    private final ProductSnapshot product;
+    private final float score;
+
+    public ScoredProduct(ProductSnapshot product, float score) {
+        this.product = product;
+        this.score = score;
+    }
+
+    public ProductSnapshot getProduct() {
+        return product;
+    }
+
+    public float getScore() {
+        return score;
+    }
+}
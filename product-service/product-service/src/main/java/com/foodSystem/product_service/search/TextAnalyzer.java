@@ -0,0 +1,136 @@
+package com.foodSystem.product_service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns product text into index terms: splits on anything that is not a letter or digit,
+ * lowercases, folds accents ("jalapeño" -> "jalapeno") and applies a light suffix stemmer tuned
+ * for menu vocabulary. Stems need not be words, only consistent, so that "tomatoes"/"tomato",
+ * "fried"/"fries"/"fry" and "baked"/"bake"/"baking" meet on one term.
+ *
+ * Stop words are indexed like any other term and left out of queries by {@link #queryTerms}, so
+ * a query made only of stop words ("the one") can still fall back to them.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "or", "the", "of", "with", "in", "on", "for", "to", "at", "by", "from", "our"));
+
+    public interface TokenConsumer {
+        void accept(int start, int end, String term);
+    }
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        tokens(text, (start, end, term) -> terms.add(term));
+        return terms;
+    }
+
+    /**
+     * The distinct terms of a search query without its stop words, or with them if that would
+     * leave none.
+     */
+    public static List<String> queryTerms(String query) {
+        Set<String> all = new LinkedHashSet<>(terms(query));
+        List<String> terms = new ArrayList<>(all.size());
+        for (String term : all) {
+            if (!isStopWord(term)) {
+                terms.add(term);
+            }
+        }
+        return terms.isEmpty() ? new ArrayList<>(all) : terms;
+    }
+
+    /**
+     * Whether {@code term}, as returned by this analyzer, is a stop word.
+     */
+    public static boolean isStopWord(String term) {
+        return STOP_WORDS.contains(term);
+    }
+
+    /**
+     * Reports each indexable token of {@code text} with its offsets in the original string.
+     */
+    public static void tokens(String text, TokenConsumer consumer) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = normalize(text.substring(start, i));
+                if (term != null) {
+                    consumer.accept(start, i, term);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    private static String normalize(String token) {
+        String term = token.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < term.length(); i++) {
+            if (term.charAt(i) > 0x7F) {
+                term = MARKS.matcher(Normalizer.normalize(term, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        if (term.isEmpty()) {
+            return null;
+        }
+        return STOP_WORDS.contains(term) ? term : stem(term);
+    }
+
+    static String stem(String term) {
+        if (term.length() <= 3 || Character.isDigit(term.charAt(0))) {
+            return term;
+        }
+        // Plurals
+        if (term.endsWith("ies") && term.length() > 4) {
+            term = term.substring(0, term.length() - 3) + "y";        // berries, fries
+        } else if (term.endsWith("oes") || term.endsWith("ches") || term.endsWith("shes")
+                || term.endsWith("xes") || term.endsWith("sses")) {
+            term = term.substring(0, term.length() - 2);              // tomatoes, sandwiches, dishes
+        } else if (term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us") && !term.endsWith("is")) {
+            term = term.substring(0, term.length() - 1);              // pizzas, noodles
+        }
+        // Past participles and gerunds, the usual way dishes are described
+        if (term.endsWith("ied") && term.length() > 4) {
+            term = term.substring(0, term.length() - 3) + "y";        // fried
+        } else if (term.endsWith("ed") && hasVowel(term, term.length() - 2) && term.length() > 4) {
+            term = term.substring(0, term.length() - 2);              // grilled, baked
+        } else if (term.endsWith("ing") && hasVowel(term, term.length() - 3) && term.length() > 5) {
+            term = term.substring(0, term.length() - 3);              // baking, stuffing
+        }
+        // A trailing e is dropped everywhere so "bake" and "baked" both end up as "bak"
+        if (term.endsWith("e") && term.length() > 3) {
+            term = term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+
+    private static boolean hasVowel(String term, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(term.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
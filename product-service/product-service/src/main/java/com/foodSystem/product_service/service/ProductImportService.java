@@ -0,0 +1,241 @@
+package com.foodSystem.product_service.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodSystem.product_service.dto.ProductImportResponse;
+import com.foodSystem.product_service.dto.ProductImportResult;
+import com.foodSystem.product_service.dto.ProductImportRow;
+import com.foodSystem.product_service.entity.Category;
+import com.foodSystem.product_service.entity.Menu;
+import com.foodSystem.product_service.entity.Product;
+import com.foodSystem.product_service.importer.CsvProductRows;
+import com.foodSystem.product_service.importer.CsvReader;
+import com.foodSystem.product_service.repository.CategoryRepository;
+import com.foodSystem.product_service.repository.MenuRepository;
+import com.foodSystem.product_service.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bulk product import. Rows are streamed from the request body and written in chunks, each chunk
+ * in its own transaction, so that Hibernate can group the inserts into JDBC batches. Name
+ * uniqueness costs one query per chunk instead of one per row, and menus and categories are
+ * resolved by name once per import.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Value("${products.import.chunk-size:500}")
+    private int chunkSize;
+
+    public ProductImportResponse importCsv(InputStream csv) throws IOException {
+        try (CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)))) {
+            return ingest(new CsvProductRows(reader));
+        }
+    }
+
+    // A JSON array or one object per line (NDJSON)
+    public ProductImportResponse importJson(InputStream json) throws IOException {
+        try (MappingIterator<ProductImportRow> rows = objectMapper.readerFor(ProductImportRow.class).readValues(json)) {
+            return ingest(rows);
+        }
+    }
+
+    private ProductImportResponse ingest(Iterator<ProductImportRow> rows) {
+        ProductImportResponse response = new ProductImportResponse();
+        Map<String, Menu> menus = byName(menuRepository.findAll(), Menu::getName);
+        Map<String, Category> categories = byName(categoryRepository.findAll(), Category::getName);
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        long start = System.nanoTime();
+        int index = 0;
+
+        while (true) {
+            ProductImportRow row;
+            try {
+                if (!rows.hasNext()) {
+                    break;
+                }
+                row = rows.next();
+            } catch (IllegalArgumentException ex) {
+                // A bad value in an otherwise well-formed CSV record; the next record is still readable
+                response.addResult(ProductImportResult.failed(index++, ex.getMessage()));
+                continue;
+            } catch (RuntimeException ex) {
+                // A malformed record leaves the stream unreadable; keep what was already written.
+                response.addResult(ProductImportResult.failed(index, "Unreadable row: " + ex.getMessage()));
+                break;
+            }
+
+            String error = validate(row, menus, categories);
+            if (error != null) {
+                response.addResult(ProductImportResult.failed(index, error));
+            } else {
+                chunk.add(toProduct(row, menus, categories));
+                indexes.add(index);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, indexes, response);
+                }
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, indexes, response);
+        }
+
+        response.finish(System.nanoTime() - start);
+        log.info("Product import finished: {} rows, {} created, {} failed in {} ms",
+                response.getReceived(), response.getCreated(), response.getFailed(), response.getElapsedMillis());
+        return response;
+    }
+
+    private void writeChunk(List<Product> chunk, List<Integer> indexes, ProductImportResponse response) {
+        // Names already in the catalog, plus repeats within this chunk; earlier chunks are committed
+        // by now, so the same query also catches duplicates across chunks.
+        Set<String> names = new HashSet<>();
+        for (Product product : chunk) {
+            names.add(product.getName());
+        }
+        Set<String> taken = new HashSet<>();
+        for (String name : productRepository.findExistingNames(names)) {
+            taken.add(key(name));
+        }
+
+        List<Product> accepted = new ArrayList<>(chunk.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Product product = chunk.get(i);
+            if (!taken.add(key(product.getName()))) {
+                response.addResult(ProductImportResult.failed(indexes.get(i),
+                        "Product with name " + product.getName() + " already exists"));
+            } else {
+                accepted.add(product);
+                acceptedIndexes.add(indexes.get(i));
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Product product : accepted) {
+                    entityManager.persist(product);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            for (int i = 0; i < accepted.size(); i++) {
+                response.addResult(ProductImportResult.created(acceptedIndexes.get(i), accepted.get(i).getId()));
+            }
+            response.chunkWritten();
+        } catch (RuntimeException ex) {
+            for (Integer i : acceptedIndexes) {
+                response.addResult(ProductImportResult.failed(i, "Chunk rolled back: " + ex.getMessage()));
+            }
+        }
+        log.info("Product import: chunk {} done, {} rows read, {} created, {} failed",
+                response.getChunks(), response.getReceived(), response.getCreated(), response.getFailed());
+        chunk.clear();
+        indexes.clear();
+    }
+
+    private String validate(ProductImportRow row, Map<String, Menu> menus, Map<String, Category> categories) {
+        if (row == null) {
+            return "Row is empty";
+        }
+        if (row.getName() == null || row.getName().trim().isEmpty()) {
+            return "Name is mandatory";
+        }
+        if (row.getPrice() == null) {
+            return "Price is mandatory";
+        }
+        if (!(row.getPrice() > 0)) {
+            return "Price must be greater than zero";
+        }
+        if (row.getMenu() != null && !menus.containsKey(key(row.getMenu()))) {
+            return "Unknown menu " + row.getMenu();
+        }
+        if (row.getCategories() != null) {
+            for (String category : row.getCategories()) {
+                if (category == null || !categories.containsKey(key(category))) {
+                    return "Unknown category " + category;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Product toProduct(ProductImportRow row, Map<String, Menu> menus, Map<String, Category> categories) {
+        List<Category> productCategories = new ArrayList<>();
+        if (row.getCategories() != null) {
+            for (String category : row.getCategories()) {
+                Category resolved = categories.get(key(category));
+                if (!productCategories.contains(resolved)) {
+                    productCategories.add(resolved);
+                }
+            }
+        }
+        return Product.builder()
+                .name(row.getName().trim())
+                .description(row.getDescription())
+                .price(row.getPrice())
+                .available(row.getAvailable() == null || row.getAvailable())
+                .menu(row.getMenu() != null ? menus.get(key(row.getMenu())) : null)
+                .categories(productCategories)
+                .build();
+    }
+
+    // Names compare like MySQL's default collation: trimmed and case-insensitive
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static <T> Map<String, T> byName(List<T> entities, Function<T, String> name) {
+        Map<String, T> byName = new HashMap<>();
+        for (T entity : entities) {
+            if (name.apply(entity) != null) {
+                byName.putIfAbsent(key(name.apply(entity)), entity);
+            }
+        }
+        return byName;
+    }
+}
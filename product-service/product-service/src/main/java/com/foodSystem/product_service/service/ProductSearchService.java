@@ -0,0 +1,232 @@
+package com.foodSystem.product_service.service;
+
+import com.foodSystem.product_service.dto.ProductFacets;
+import com.foodSystem.product_service.dto.ProductResponse;
+import com.foodSystem.product_service.dto.ProductSearchCriteria;
+import com.foodSystem.product_service.dto.ProductSearchPage;
+import com.foodSystem.product_service.event.ProductSnapshot;
+import com.foodSystem.product_service.repository.ProductRepository;
+import com.foodSystem.product_service.search.FacetCounter;
+import com.foodSystem.product_service.search.Highlighter;
+import com.foodSystem.product_service.search.ProductIndex;
+import com.foodSystem.product_service.search.ScoredProduct;
+import com.foodSystem.product_service.search.TextAnalyzer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Product search resolved against {@link ProductIndex}: full-text matching, filters, facet counts,
+ * sorting and paging happen in memory and MySQL is only asked for the products on the returned page, by
+ * primary key, as flat {@link ProductResponse}s.
+ */
+@Service
+public class ProductSearchService {
+
+    public static final String MATCH_ANY = "any";
+    public static final String MATCH_ALL = "all";
+    public static final String RELEVANCE = "relevance";
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Value("${products.search.price-buckets:10,20,50}")
+    private double[] defaultPriceBuckets;
+
+    public ProductSearchPage<ProductResponse> searchProducts(ProductSearchCriteria criteria) {
+        String q = criteria.getQ();
+        Double minPrice = criteria.getMinPrice();
+        Double maxPrice = criteria.getMaxPrice();
+        String categoryMatch = criteria.getCategoryMatch();
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+        if (!MATCH_ANY.equalsIgnoreCase(categoryMatch) && !MATCH_ALL.equalsIgnoreCase(categoryMatch)) {
+            throw new IllegalArgumentException("categoryMatch must be any or all");
+        }
+
+        List<String> categories = criteria.getCategories();
+        BitSet candidates = categories != null && !categories.isEmpty()
+                ? productIndex.inCategories(categories, MATCH_ALL.equalsIgnoreCase(categoryMatch))
+                : productIndex.all();
+        if (criteria.getMenuId() != null) {
+            candidates.and(productIndex.inMenu(criteria.getMenuId()));
+        }
+        if (criteria.getAvailable() != null) {
+            candidates.and(productIndex.withAvailability(criteria.getAvailable()));
+        }
+        if (minPrice != null || maxPrice != null) {
+            candidates.and(productIndex.inPriceRange(minPrice, maxPrice));
+        }
+
+        Predicate<ProductSnapshot> filter = product -> true;
+        String name = criteria.getName();
+        if (name != null && !name.isEmpty()) {
+            filter = filter.and(contains(ProductSnapshot::getName, name));
+        }
+        String description = criteria.getDescription();
+        if (description != null && !description.isEmpty()) {
+            filter = filter.and(contains(ProductSnapshot::getDescription, description));
+        }
+
+        List<String> terms = null;
+        List<ScoredProduct> matches;
+        if (q != null && !q.trim().isEmpty()) {
+            terms = TextAnalyzer.queryTerms(q);
+            matches = productIndex.search(terms, candidates, filter);
+        } else {
+            matches = new ArrayList<>();
+            for (ProductSnapshot product : productIndex.collect(candidates, filter)) {
+                matches.add(new ScoredProduct(product, 0));
+            }
+        }
+        List<String> sortBy = criteria.getSortBy();
+        List<String> sortDir = criteria.getSortDir();
+        if (sortBy == null || sortBy.isEmpty()) {
+            // Best match first for text queries, id order otherwise
+            sortBy = Collections.singletonList(terms != null ? RELEVANCE : "id");
+        }
+        matches.sort(comparator(sortBy, sortDir != null ? sortDir : Collections.<String>emptyList()));
+
+        Page<ProductResponse> result = hydrate(matches, criteria.getPage(), criteria.getSize());
+        return new ProductSearchPage<>(result.getContent(), result.getPageable(), result.getTotalElements(),
+                terms != null ? highlights(result.getContent(), terms) : null,
+                criteria.isFacets() ? facets(matches, criteria.getPriceBuckets()) : null);
+    }
+
+    /**
+     * Loads the products of one page of {@code matches} with one primary key query and one for
+     * their category ids, keeping the order of {@code matches}.
+     */
+    public Page<ProductResponse> hydrate(List<ScoredProduct> matches, int page, int size) {
+        int from = (int) Math.min((long) page * size, matches.size());
+        int to = Math.min(from + size, matches.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (ScoredProduct match : matches.subList(from, to)) {
+            ids.add(match.getProduct().getId());
+        }
+
+        if (ids.isEmpty()) {
+            return new PageImpl<>(new ArrayList<>(), PageRequest.of(page, size), matches.size());
+        }
+        Map<Long, ProductResponse> loaded = new HashMap<>();
+        for (ProductResponse product : productRepository.findListingsByIdIn(ids)) {
+            loaded.put(product.getId(), product);
+        }
+        List<ProductResponse> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductResponse product = loaded.get(id);
+            if (product != null) { // Deleted since the index was read
+                content.add(product);
+            }
+        }
+        referenceDataService.complete(content);
+        return new PageImpl<>(content, PageRequest.of(page, size), matches.size());
+    }
+
+    // One pass over every match, not just the page
+    private ProductFacets facets(List<ScoredProduct> matches, List<Double> priceBuckets) {
+        double[] bounds = defaultPriceBuckets;
+        if (priceBuckets != null && !priceBuckets.isEmpty()) {
+            bounds = new double[priceBuckets.size()];
+            for (int i = 0; i < bounds.length; i++) {
+                bounds[i] = priceBuckets.get(i);
+            }
+        }
+        bounds = Arrays.stream(bounds).sorted().distinct().toArray();
+
+        FacetCounter counter = new FacetCounter(bounds);
+        for (ScoredProduct match : matches) {
+            counter.add(match.getProduct());
+        }
+        return counter.toFacets();
+    }
+
+    private static Map<Long, Map<String, String>> highlights(List<ProductResponse> products, List<String> queryTerms) {
+        Set<String> terms = new HashSet<>(queryTerms);
+        Map<Long, Map<String, String>> highlights = new LinkedHashMap<>();
+        for (ProductResponse product : products) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            String name = Highlighter.highlight(product.getName(), terms);
+            if (name != null) {
+                fields.put("name", name);
+            }
+            String description = Highlighter.highlight(product.getDescription(), terms);
+            if (description != null) {
+                fields.put("description", description);
+            }
+            highlights.put(product.getId(), fields);
+        }
+        return highlights;
+    }
+
+    // Case-insensitive substring match, as LIKE '%x%' behaves under the default MySQL collation
+    private static Predicate<ProductSnapshot> contains(Function<ProductSnapshot, String> field, String value) {
+        String needle = value.toLowerCase(Locale.ROOT);
+        return product -> {
+            String text = field.apply(product);
+            return text != null && text.toLowerCase(Locale.ROOT).contains(needle);
+        };
+    }
+
+    // Requested sort fields in order, then id to make pages stable. Relevance defaults to
+    // descending, everything else to ascending
+    private static Comparator<ScoredProduct> comparator(List<String> sortBy, List<String> sortDir) {
+        Comparator<ScoredProduct> comparator = null;
+        for (int i = 0; i < sortBy.size(); i++) {
+            Comparator<ScoredProduct> field = field(sortBy.get(i));
+            String direction = i < sortDir.size() ? sortDir.get(i) : RELEVANCE.equals(sortBy.get(i)) ? "desc" : "asc";
+            if (!direction.equalsIgnoreCase("asc")) {
+                field = field.reversed();
+            }
+            comparator = comparator == null ? field : comparator.thenComparing(field);
+        }
+        Comparator<ScoredProduct> byId = Comparator.comparing(match -> match.getProduct().getId());
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    private static Comparator<ScoredProduct> field(String name) {
+        switch (name) {
+            case RELEVANCE:
+                return Comparator.comparingDouble(ScoredProduct::getScore);
+            case "id":
+                return Comparator.comparing(match -> match.getProduct().getId());
+            case "name":
+                return Comparator.comparing(match -> match.getProduct().getName(),
+                        Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            case "description":
+                return Comparator.comparing(match -> match.getProduct().getDescription(),
+                        Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            case "price":
+                return Comparator.comparingDouble(match -> match.getProduct().getPrice());
+            case "available":
+                return Comparator.comparing(match -> match.getProduct().isAvailable());
+            default:
+                throw new IllegalArgumentException("Cannot sort products by " + name);
+        }
+    }
+}
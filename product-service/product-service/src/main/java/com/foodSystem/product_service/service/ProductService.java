@@ -1,20 +1,30 @@
 package com.foodSystem.product_service.service;
 
+import com.foodSystem.product_service.dto.ProductBatchResponse;
+import com.foodSystem.product_service.dto.ProductResponse;
+import com.foodSystem.product_service.dto.ProductSearchCriteria;
+import com.foodSystem.product_service.entity.Category;
 import com.foodSystem.product_service.entity.Product;
 import com.foodSystem.product_service.exception.ProductAlreadyExistsException;
 import com.foodSystem.product_service.exception.ProductNotFoundException;
+import com.foodSystem.product_service.mapper.ProductMapper;
+import com.foodSystem.product_service.repository.CategoryRepository;
 import com.foodSystem.product_service.repository.ProductRepository;
-import com.foodSystem.product_service.specification.ProductSpecification;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 public class ProductService {
@@ -22,16 +32,55 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
-    public Page<Product> getAllProducts(int page, int size, String sortBy, String sortDir) {
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Value("${products.batch.max-ids:500}")
+    private int batchMaxIds;
+
+    public Page<ProductResponse> getAllProducts(int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())
                 ? Sort.by(Sort.Order.asc(sortBy))
                 : Sort.by(Sort.Order.desc(sortBy));
         Pageable pageable = PageRequest.of(page, size, sort);
-        return productRepository.findAll(pageable);
+        return withNames(productRepository.findAllListings(pageable));
     }
 
-    public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+    /**
+     * Resolves up to {@code products.batch.max-ids} distinct ids with one IN query for the products
+     * and one for their categories. Null and repeated ids are ignored.
+     */
+    public ProductBatchResponse getProductsByIds(Collection<Long> ids) {
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > batchMaxIds) {
+            throw new IllegalArgumentException("At most " + batchMaxIds + " ids per batch, got " + distinct.size());
+        }
+        ProductBatchResponse response = new ProductBatchResponse();
+        if (distinct.isEmpty()) {
+            return response;
+        }
+        List<ProductResponse> loaded = productRepository.findResponsesByIdIn(distinct);
+        ProductMapper.setCategories(loaded, productRepository.findCategoryNames(distinct));
+        Map<Long, ProductResponse> found = new HashMap<>();
+        for (ProductResponse product : loaded) {
+            found.put(product.getId(), product);
+        }
+        for (Long id : distinct) {
+            ProductResponse product = found.get(id);
+            if (product != null) {
+                response.getProducts().put(id, product);
+            } else {
+                response.getMissing().add(id);
+            }
+        }
+        return response;
     }
 
     public Product createProduct(Product product) {
@@ -39,6 +88,9 @@ public class ProductService {
       throw new ProductAlreadyExistsException(
           "Product already exists with name " + product.getName());
         }
+        if (product.getCategories() != null) {
+            product.setCategories(resolveCategories(product.getCategories()));
+        }
         return productRepository.save(product);
     }
 
@@ -53,7 +105,7 @@ public class ProductService {
         if (productDetails.getDescription() != null) product.setDescription(productDetails.getDescription());
         product.setAvailable(productDetails.isAvailable()); // Always update availability
         if (productDetails.getMenu() != null) product.setMenu(productDetails.getMenu());
-        if (productDetails.getCategories() != null) product.setCategories(productDetails.getCategories());
+        if (productDetails.getCategories() != null) product.setCategories(resolveCategories(productDetails.getCategories()));
 
         return productRepository.save(product);
     }
@@ -64,55 +116,48 @@ public class ProductService {
         productRepository.delete(product);
     }
 
-    public Page<Product> getProductsByName(String name, int page, int size) {
+    public Page<ProductResponse> getProductsByName(String name, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return productRepository.findByNameContaining(name, pageable);
+        return withNames(productRepository.findListingsByNameContaining(name, pageable));
     }
 
-    public Page<Product> getProductsByPriceRange(double minPrice, double maxPrice, int page, int size) {
-        if (minPrice > maxPrice) {
-            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
-        }
-        Pageable pageable = PageRequest.of(page, size);
-        return productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
+    // Price and availability are answered by the product index; only the page is read from MySQL
+    public Page<ProductResponse> getProductsByPriceRange(double minPrice, double maxPrice, int page, int size) {
+        ProductSearchCriteria criteria = new ProductSearchCriteria();
+        criteria.setMinPrice(minPrice);
+        criteria.setMaxPrice(maxPrice);
+        criteria.setPage(page);
+        criteria.setSize(size);
+        return productSearchService.searchProducts(criteria);
     }
 
-    public Page<Product> getProductsByAvailability(boolean available, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return productRepository.findByAvailable(available, pageable);
+    public Page<ProductResponse> getProductsByAvailability(boolean available, int page, int size) {
+        ProductSearchCriteria criteria = new ProductSearchCriteria();
+        criteria.setAvailable(available);
+        criteria.setPage(page);
+        criteria.setSize(size);
+        return productSearchService.searchProducts(criteria);
     }
 
-    public Page<Product> searchProducts(String name, Double minPrice, Double maxPrice, Boolean available,
-                                        String description, Long menuId, List<String> categories, int page, int size,
-                                        List<String> sortBy, List<String> sortDir) {
-        Specification<Product> spec = Specification.where(null);
+    // One query for the category ids of the whole page; names come from the second-level cache
+    private Page<ProductResponse> withNames(Page<ProductResponse> page) {
+        referenceDataService.complete(page.getContent());
+        return page;
+    }
 
-        if (name != null && !name.isEmpty()) {
-            spec = spec.and(ProductSpecification.hasName(name));
-        }
-        if (minPrice != null && maxPrice != null) {
-            if (minPrice > maxPrice) throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
-            spec = spec.and(ProductSpecification.hasPriceBetween(minPrice, maxPrice));
-        }
-        if (available != null) {
-            spec = spec.and(ProductSpecification.isAvailable(available));
+    // Categories arrive as references ({"id": 3}); attach the stored ones so names are known to the indexes
+    private List<Category> resolveCategories(List<Category> categories) {
+        List<Long> ids = new ArrayList<>();
+        for (Category category : categories) {
+            if (category.getId() == null) {
+                throw new IllegalArgumentException("Category " + category.getName() + " has no id");
+            }
+            ids.add(category.getId());
         }
-        if (description != null && !description.isEmpty()) {
-            spec = spec.and(ProductSpecification.hasDescription(description));
+        List<Category> resolved = categoryRepository.findAllById(ids);
+        if (resolved.size() != new HashSet<>(ids).size()) {
+            throw new IllegalArgumentException("Unknown category in " + ids);
         }
-        if (menuId != null) {
-            spec = spec.and(ProductSpecification.belongsToMenu(menuId));
-        }
-        if (categories != null && !categories.isEmpty()) {
-            spec = spec.and(ProductSpecification.hasCategoryIn(categories));
-        }
-
-        Sort sort = Sort.by(Sort.Order.asc("id")); // Default sort
-        for (int i = 0; i < sortBy.size() && i < sortDir.size(); i++) {
-            String direction = sortDir.get(i).equalsIgnoreCase("asc") ? "asc" : "desc";
-            sort = sort.and(Sort.by(Sort.Order.by(sortBy.get(i)).with(Sort.Direction.fromString(direction))));
-        }
-        Pageable pageable = PageRequest.of(page, size, sort);
-        return productRepository.findAll(spec, pageable);
+        return resolved;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.foodSystem.product_service.service;
+
+import com.foodSystem.product_service.dto.ProductResponse;
+import com.foodSystem.product_service.entity.Category;
+import com.foodSystem.product_service.entity.Menu;
+import com.foodSystem.product_service.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Completes listing rows with menu and category names. Menus and categories live in the Hibernate
+ * second-level cache, so once warm a page costs one query for its category ids and none for the
+ * names.
+ */
+@Service
+public class ReferenceDataService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public void complete(List<ProductResponse> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<Long, ProductResponse> byId = new HashMap<>();
+        Map<Long, String> menuNames = new HashMap<>();
+        for (ProductResponse product : products) {
+            byId.put(product.getId(), product);
+            if (product.getMenuId() != null) {
+                product.setMenuName(menuNames.computeIfAbsent(product.getMenuId(), this::menuName));
+            }
+        }
+
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (Object[] row : productRepository.findCategoryIds(byId.keySet())) {
+            ProductResponse product = byId.get(((Number) row[0]).longValue());
+            String category = categoryNames.computeIfAbsent(((Number) row[1]).longValue(), this::categoryName);
+            if (product != null && category != null) {
+                product.getCategories().add(category);
+            }
+        }
+        for (ProductResponse product : products) {
+            Collections.sort(product.getCategories());
+        }
+    }
+
+    private String menuName(Long id) {
+        Menu menu = entityManager.find(Menu.class, id);
+        return menu != null ? menu.getName() : null;
+    }
+
+    private String categoryName(Long id) {
+        Category category = entityManager.find(Category.class, id);
+        return category != null ? category.getName() : null;
+    }
+}
@@ -1,9 +1,11 @@
 // ProductSpecification.java
 package com.foodSystem.product_service.specification;
 
+import com.foodSystem.product_service.entity.Category;
 import com.foodSystem.product_service.entity.Product;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.criteria.Join;
 import java.util.List;
 
 public class ProductSpecification {
@@ -35,6 +37,10 @@ public class ProductSpecification {
     }
 
     public static Specification<Product> hasCategoryIn(List<String> categories) {
-        return (root, query, criteriaBuilder) -> root.get("category").in(categories);
+        return (root, query, criteriaBuilder) -> {
+            query.distinct(true); // A product in several of the categories joins once per category
+            Join<Product, Category> category = root.join("categories");
+            return category.get("name").in(categories);
+        };
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.foodSystem.product_service.benchmark;
+
+import com.foodSystem.product_service.dto.ProductSearchCriteria;
+import com.foodSystem.product_service.entity.Product;
+import com.foodSystem.product_service.repository.ProductRepository;
+import com.foodSystem.product_service.search.ProductIndex;
+import com.foodSystem.product_service.service.ProductSearchService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static com.foodSystem.product_service.specification.ProductSpecification.hasPriceBetween;
+import static com.foodSystem.product_service.specification.ProductSpecification.isAvailable;
+
+/**
+ * Price-bounded search latency: the SQL range predicate on the unindexed price column against
+ * the price-sorted index, both returning the first page of available products by price. Wipes
+ * the products table of the configured database.
+ *
+ * Run with: mvn test -Dgroups=benchmark -Dsurefire.excludedGroups=none -Dbenchmark.products=100000
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class ProductPriceBenchmark {
+
+    private static final double[][] RANGES = {{9.50, 9.75}, {10, 15}, {5, 50}};
+    private static final int RUNS = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Test
+    public void priceRangeLatency() {
+        int products = Integer.getInteger("benchmark.products", 100_000);
+        productRepository.deleteAllInBatch();
+        seed(products);
+        productIndex.rebuild();
+
+        System.out.printf("%10s %14s %10s %12s %12s%n", "products", "range", "matches", "sql (ms)", "index (ms)");
+        for (double[] range : RANGES) {
+            double min = range[0];
+            double max = range[1];
+            long matches = productRepository.count(hasPriceBetween(min, max).and(isAvailable(true)));
+            double sql = medianMillis(() -> productRepository.findAll(hasPriceBetween(min, max).and(isAvailable(true)),
+                    PageRequest.of(0, 20, Sort.by("price", "id"))));
+            ProductSearchCriteria criteria = new ProductSearchCriteria();
+            criteria.setMinPrice(min);
+            criteria.setMaxPrice(max);
+            criteria.setAvailable(true);
+            criteria.setSize(20);
+            criteria.setSortBy(Collections.singletonList("price"));
+            double index = medianMillis(() -> productSearchService.searchProducts(criteria));
+            System.out.printf("%10d %14s %10d %12.2f %12.2f%n", products, min + "-" + max, matches, sql, index);
+        }
+    }
+
+    private void seed(int count) {
+        Random random = new Random(42);
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batch.add(Product.builder()
+                    .name("Benchmark product " + i)
+                    .price(1 + random.nextInt(5000) / 100.0)
+                    .available(random.nextInt(4) != 0)
+                    .build());
+            if (batch.size() == 5_000) {
+                productRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            productRepository.saveAll(batch);
+        }
+    }
+
+    private double medianMillis(Runnable query) {
+        query.run(); // warm up
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2] / 1_000_000d;
+    }
+}
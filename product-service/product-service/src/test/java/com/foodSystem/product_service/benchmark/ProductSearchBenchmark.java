@@ -0,0 +1,79 @@
+package com.foodSystem.product_service.benchmark;
+
+import com.foodSystem.product_service.event.ProductSnapshot;
+import com.foodSystem.product_service.search.ProductTextIndex;
+import com.foodSystem.product_service.search.TextAnalyzer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Build time and query latency of the full-text product index over a synthetic catalog, without
+ * a database. Needs a few GB of heap at the default size.
+ *
+ * Run with: mvn test -Dgroups=benchmark -Dsurefire.excludedGroups=none -Dbenchmark.products=1000000
+ */
+@Tag("benchmark")
+public class ProductSearchBenchmark {
+
+    private static final String[] ADJECTIVES = {"grilled", "spicy", "crispy", "baked", "fried", "smoked",
+            "roasted", "creamy", "tangy", "stuffed", "garlic", "honey", "classic", "vegan", "cheesy"};
+    private static final String[] DISHES = {"chicken", "pizza", "burger", "noodles", "tacos", "salad",
+            "sandwich", "wrap", "curry", "pasta", "risotto", "dumplings", "soup", "fries", "paneer"};
+    private static final String[] EXTRAS = {"tomatoes", "onions", "jalapeños", "mushrooms", "olives",
+            "peppers", "spinach", "bacon", "avocado", "mozzarella", "basil", "cilantro", "lime", "rice"};
+    private static final String[] QUERIES = {"chicken", "spicy chicken", "grilled paneer wrap",
+            "cheesy pizza with olives", "baking", "jalapeno", "smoked bacon burger", "vegan curry rice"};
+    private static final int RUNS = 200;
+
+    @Test
+    public void buildAndQueryLatency() {
+        int products = Integer.getInteger("benchmark.products", 1_000_000);
+        Random random = new Random(42);
+
+        long start = System.nanoTime();
+        ProductTextIndex index = new ProductTextIndex();
+        for (int doc = 0; doc < products; doc++) {
+            index.add(doc, product(doc, random));
+        }
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("%d products, %d terms, built in %.0f ms%n", products, index.terms(), buildMillis);
+
+        BitSet all = new BitSet(products);
+        all.set(0, products);
+        System.out.printf("%-28s %10s %10s %10s%n", "query", "hits", "p50 (ms)", "p99 (ms)");
+        for (String query : QUERIES) {
+            List<String> terms = TextAnalyzer.queryTerms(query);
+            int hits = index.search(terms, all).count();
+            double[] millis = new double[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                long t = System.nanoTime();
+                index.search(terms, all);
+                millis[run] = (System.nanoTime() - t) / 1e6;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-28s %10d %10.3f %10.3f%n", query, hits,
+                    millis[RUNS / 2], millis[(int) (RUNS * 0.99)]);
+        }
+    }
+
+    private static ProductSnapshot product(int doc, Random random) {
+        String name = pick(ADJECTIVES, random) + " " + pick(DISHES, random);
+        StringBuilder description = new StringBuilder("Made with");
+        for (int i = 0, extras = 2 + random.nextInt(4); i < extras; i++) {
+            description.append(i == 0 ? " " : ", ").append(pick(EXTRAS, random));
+        }
+        description.append(" and our ").append(pick(ADJECTIVES, random)).append(" sauce");
+        return new ProductSnapshot((long) doc, name, description.toString(), 5 + random.nextInt(2000) / 100.0,
+                random.nextBoolean(), (long) random.nextInt(100), new ArrayList<>());
+    }
+
+    private static String pick(String[] words, Random random) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,160 @@
+package com.foodSystem.product_service.controller;
+
+import com.foodSystem.product_service.catalog.CatalogCache;
+import com.foodSystem.product_service.entity.Menu;
+import com.foodSystem.product_service.entity.Product;
+import com.foodSystem.product_service.repository.MenuRepository;
+import com.foodSystem.product_service.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MenuControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    private Long menuId;
+
+    @BeforeEach
+    public void setUp() {
+        productRepository.deleteAll();
+
+        Menu menu = new Menu();
+        menu.setName("Burger Menu");
+        menu = menuRepository.save(menu);
+        menuId = menu.getId();
+        for (int i = 1; i <= 20; i++) {
+            productRepository.save(Product.builder()
+                    .name("Burger " + i)
+                    .price(5 + i)
+                    .description("Grilled beef burger with cheese, lettuce and tomato")
+                    .available(true)
+                    .menu(menu)
+                    .build());
+        }
+    }
+
+    @Test
+    public void testGetMenuById() throws Exception {
+        mockMvc.perform(get("/api/menus/{id}", menuId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")))
+                .andExpect(jsonPath("$.name", is("Burger Menu")))
+                .andExpect(jsonPath("$.products", hasSize(20)))
+                .andExpect(jsonPath("$.products[0].name", is("Burger 1")));
+
+        mockMvc.perform(get("/api/menus/{id}", 999999L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGzipVariant() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/menus/{id}", menuId))
+                .andReturn().getResponse();
+        MockHttpServletResponse gzip = mockMvc.perform(get("/api/menus/{id}", menuId)
+                        .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse();
+
+        byte[] compressed = gzip.getContentAsByteArray();
+        assertTrue(compressed.length < plain.getContentAsByteArray().length);
+        byte[] inflated = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+        assertEquals(plain.getContentAsString(), new String(inflated, StandardCharsets.UTF_8));
+
+        // Each encoding is its own representation with its own strong ETag
+        assertNotEquals(plain.getHeader("ETag"), gzip.getHeader("ETag"));
+        mockMvc.perform(get("/api/menus/{id}", menuId)
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", gzip.getHeader("ETag")))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/menus/{id}", menuId)
+                        .header("Accept-Encoding", "gzip;q=0")
+                        .header("If-None-Match", gzip.getHeader("ETag")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+
+        // An explicit refusal of gzip wins over "*", before or after it
+        mockMvc.perform(get("/api/menus/{id}", menuId)
+                        .header("Accept-Encoding", "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        mockMvc.perform(get("/api/menus/{id}", menuId)
+                        .header("Accept-Encoding", "*, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        mockMvc.perform(get("/api/menus/{id}", menuId)
+                        .header("Accept-Encoding", "br, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    public void testGetAllMenus() throws Exception {
+        String eTag = mockMvc.perform(get("/api/menus"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + menuId + ")].name", contains("Burger Menu")))
+                .andExpect(jsonPath("$[?(@.id == " + menuId + ")].productCount", contains(20)))
+                .andReturn().getResponse().getHeader("ETag");
+
+        productRepository.save(Product.builder().name("Burger 21").price(30).available(true)
+                .menu(menuRepository.findById(menuId).get()).build());
+
+        mockMvc.perform(get("/api/menus").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + menuId + ")].productCount", contains(21)));
+    }
+
+    @Test
+    public void testCatalogReadsAreUnavailableUntilTheCatalogIsLoaded() throws Exception {
+        Long productId = productRepository.findAll().get(0).getId();
+        ReflectionTestUtils.setField(catalogCache, "snapshot", ReflectionTestUtils.getField(
+                catalogCache.current().getClass(), "EMPTY"));
+        try {
+            mockMvc.perform(get("/api/menus"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+            mockMvc.perform(get("/api/menus/{id}", menuId))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+            mockMvc.perform(get("/api/products/{id}", productId))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+        } finally {
+            catalogCache.rebuild();
+        }
+
+        mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(status().isOk());
+    }
+}
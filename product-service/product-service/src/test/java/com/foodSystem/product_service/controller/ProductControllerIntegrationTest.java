@@ -4,7 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.foodSystem.product_service.entity.Category;
 import com.foodSystem.product_service.entity.Menu;
 import com.foodSystem.product_service.entity.Product;
+import com.foodSystem.product_service.feed.ProductChangeFeed;
+import com.foodSystem.product_service.repository.CategoryRepository;
+import com.foodSystem.product_service.repository.MenuRepository;
 import com.foodSystem.product_service.repository.ProductRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,16 +17,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.Arrays;
+import java.util.List;
 
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureMockMvc
 public class ProductControllerIntegrationTest {
 
@@ -31,9 +41,25 @@ public class ProductControllerIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
     @Autowired
     private ObjectMapper objectMapper; // For JSON serialization
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    private Long menuId;
+
+    private Long meatCategoryId;
+
     @BeforeEach
     public void setUp() {
         // Clear the database before each test
@@ -42,6 +68,12 @@ public class ProductControllerIntegrationTest {
         // Seed some test data
         Menu menu = new Menu();
         menu.setName("Test Menu");
+        menu = menuRepository.save(menu);
+        menuId = menu.getId();
+        Category vegetarian = categoryRepository.save(new Category("Vegetarian"));
+        Category meat = categoryRepository.save(new Category("Meat"));
+        Category pizza = categoryRepository.save(new Category("Pizza"));
+        meatCategoryId = meat.getId();
 
         productRepository.save(Product.builder()
                 .name("Margherita Pizza")
@@ -49,7 +81,7 @@ public class ProductControllerIntegrationTest {
                 .description("Classic pizza")
                 .available(true)
                 .menu(menu)
-                .categories(Arrays.asList(new Category("Vegetarian")))
+                .categories(Arrays.asList(vegetarian, pizza))
                 .build());
 
         productRepository.save(Product.builder()
@@ -58,7 +90,7 @@ public class ProductControllerIntegrationTest {
                 .description("Spicy pizza")
                 .available(false)
                 .menu(menu)
-                .categories(Arrays.asList(new Category("Meat")))
+                .categories(Arrays.asList(meat, pizza))
                 .build());
     }
 
@@ -87,6 +119,37 @@ public class ProductControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testGetProductsByIds() throws Exception {
+        Long id = productRepository.findAll().get(0).getId();
+
+        mockMvc.perform(get("/api/products/batch").param("ids", id + ",999999," + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products['" + id + "'].name", is("Margherita Pizza")))
+                .andExpect(jsonPath("$.products['" + id + "'].menuName", is("Test Menu")))
+                .andExpect(jsonPath("$.products['" + id + "'].categories", containsInAnyOrder("Pizza", "Vegetarian")))
+                .andExpect(jsonPath("$.missing", contains(999999)));
+
+        mockMvc.perform(post("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + id + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products['" + id + "'].price", is(9.99)))
+                .andExpect(jsonPath("$.missing", empty()));
+    }
+
+    @Test
+    public void testGetProductsByIdsOverTheLimit() throws Exception {
+        StringBuilder ids = new StringBuilder("[1");
+        for (int id = 2; id <= 501; id++) {
+            ids.append(',').append(id);
+        }
+        mockMvc.perform(post("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ids.append(']').toString()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testCreateProduct() throws Exception {
         Product newProduct = Product.builder()
@@ -167,6 +230,24 @@ public class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[0].name", is("Margherita Pizza")));
     }
 
+    @Test
+    public void testSearchProductsByOpenPriceRange() throws Exception {
+        mockMvc.perform(get("/api/products/search").param("minPrice", "10.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Pepperoni Pizza")));
+
+        mockMvc.perform(get("/api/products/search").param("maxPrice", "11.99").param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Margherita Pizza")));
+
+        mockMvc.perform(get("/api/products/search").param("minPrice", "9.99").param("maxPrice", "11.99")
+                        .param("sortBy", "price").param("sortDir", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Pepperoni Pizza", "Margherita Pizza")));
+    }
+
     @Test
     public void testGetProductsByAvailability() throws Exception {
         mockMvc.perform(get("/api/products/filterByAvailability?available=true&page=0&size=10"))
@@ -190,4 +271,261 @@ public class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].name", is("Margherita Pizza")));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSearchProductsByCategories() throws Exception {
+        mockMvc.perform(get("/api/products/search")
+                        .param("categories", "vegetarian", "Meat")
+                        .param("sortBy", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(2)))
+                .andExpect(jsonPath("$.content[0].name", is("Margherita Pizza")));
+
+        mockMvc.perform(get("/api/products/search")
+                        .param("categories", "Pizza", "Meat")
+                        .param("categoryMatch", "all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Pepperoni Pizza")));
+    }
+
+    @Test
+    public void testSearchProductsByRenamedCategory() throws Exception {
+        Category meat = categoryRepository.findById(meatCategoryId).get();
+        meat.setName("Grill");
+        categoryRepository.save(meat);
+
+        mockMvc.perform(get("/api/products/search").param("categories", "grill"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Pepperoni Pizza")));
+        mockMvc.perform(get("/api/products/search").param("categories", "Meat"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(0)));
+        mockMvc.perform(get("/api/products/search").param("categories", "Grill").param("facets", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets.categories.Grill", is(1)))
+                .andExpect(jsonPath("$.facets.categories.Meat").doesNotExist());
+    }
+
+    @Test
+    public void testFullTextSearch() throws Exception {
+        mockMvc.perform(get("/api/products/search").param("q", "pizzas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(2)));
+
+        mockMvc.perform(get("/api/products/search").param("q", "classic PIZZA"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Margherita Pizza")))
+                .andExpect(jsonPath("$.highlights.*.name", hasItem("Margherita <em>Pizza</em>")))
+                .andExpect(jsonPath("$.highlights.*.description", hasItem("<em>Classic</em> <em>pizza</em>")));
+
+        mockMvc.perform(get("/api/products/search").param("q", "spicy").param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(0)));
+    }
+
+    @Test
+    public void testSearchProductsWithFacets() throws Exception {
+        mockMvc.perform(get("/api/products/search")
+                        .param("facets", "true")
+                        .param("priceBuckets", "10", "20")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.facets.categories.Pizza", is(2)))
+                .andExpect(jsonPath("$.facets.categories.Vegetarian", is(1)))
+                .andExpect(jsonPath("$.facets.categories.Meat", is(1)))
+                .andExpect(jsonPath("$.facets.available", is(1)))
+                .andExpect(jsonPath("$.facets.unavailable", is(1)))
+                .andExpect(jsonPath("$.facets.prices", hasSize(3)))
+                .andExpect(jsonPath("$.facets.prices[0].count", is(1)))
+                .andExpect(jsonPath("$.facets.prices[1].count", is(1)))
+                .andExpect(jsonPath("$.facets.prices[2].count", is(0)));
+
+        mockMvc.perform(get("/api/products/search").param("categories", "Meat").param("facets", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets.categories.Vegetarian").doesNotExist())
+                .andExpect(jsonPath("$.facets.available", is(0)));
+
+        mockMvc.perform(get("/api/products/search"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets").doesNotExist());
+    }
+
+    @Test
+    public void testListingsUseOneQueryPlusOneCategoryFetch() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/products?page=0&size=1&sortBy=name&sortDir=asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(2)))
+                .andExpect(jsonPath("$.content[0].name", is("Margherita Pizza")))
+                .andExpect(jsonPath("$.content[0].menuName", is("Test Menu")))
+                .andExpect(jsonPath("$.content[0].categories", containsInAnyOrder("Pizza", "Vegetarian")));
+        assertEquals(3, statistics.getPrepareStatementCount()); // Page, count, categories
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/products/filterByAvailability?available=false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].categories", containsInAnyOrder("Meat", "Pizza")));
+        assertEquals(2, statistics.getPrepareStatementCount()); // A short first page needs no count
+
+        statistics.clear();
+        mockMvc.perform(get("/api/products/search").param("q", "pizza"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[1].menuId", notNullValue()));
+        assertEquals(2, statistics.getPrepareStatementCount()); // Page by id, categories
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testRepeatedPageReadsIssueNoCategoryOrMenuSelects() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        mockMvc.perform(get("/api/products?page=0&size=10")).andExpect(status().isOk());
+
+        statistics.clear();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/products?page=0&size=10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].menuName", is("Test Menu")))
+                    .andExpect(jsonPath("$.content[0].categories", contains("Pizza", "Vegetarian")));
+            mockMvc.perform(get("/api/products/search").param("q", "pizza"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[*].menuName", everyItem(is("Test Menu"))));
+        }
+        // Per read: the page and its category ids; names come from the second-level cache
+        assertEquals(3 * (2 + 2), statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Menu.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(Category.class.getName()).getLoadCount());
+        assertTrue(statistics.getDomainDataRegionStatistics(Category.class.getName()).getHitCount() > 0);
+
+        mockMvc.perform(get("/api/cache/regions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.region == '" + Menu.class.getName() + "')].hitRatio", contains(greaterThan(0.0))));
+    }
+
+    @Test
+    public void testCatalogReadsWithETags() throws Exception {
+        Long id = productRepository.findAll().get(0).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        String productETag = mockMvc.perform(get("/api/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.menuName", is("Test Menu")))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        String menuETag = mockMvc.perform(get("/api/menus/{id}", menuId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Test Menu")))
+                .andExpect(jsonPath("$.products", hasSize(2)))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products/{id}", id).header("If-None-Match", productETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/menus/{id}", menuId).header("If-None-Match", menuETag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount()); // Served from the snapshot
+
+        Product update = Product.builder().name("Updated Margherita").price(10.49).available(true).build();
+        mockMvc.perform(put("/api/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        // The committed write swapped in a new snapshot, so both ETags moved on
+        mockMvc.perform(get("/api/products/{id}", id).header("If-None-Match", productETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Updated Margherita")))
+                .andExpect(header().string("ETag", not(productETag)));
+        mockMvc.perform(get("/api/menus/{id}", menuId).header("If-None-Match", menuETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[*].name", hasItem("Updated Margherita")));
+        mockMvc.perform(get("/api/menus/999999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testImportProducts() throws Exception {
+        String csv = "name,price,description,available,menu,categories\n"
+                + "Veggie Burger,8.5,\"Grilled patty, lettuce\",true,Test Menu,Vegetarian|Meat\n"
+                + "margherita pizza,9.99,,true,,\n"          // Already in the catalog
+                + "Veggie Burger,8.5,,true,,\n"              // Repeated within the file
+                + "Fries,abc,,true,,\n"                      // Unparseable price
+                + "Onion Rings,3.5,,no,,Dessert\n"           // Unknown category
+                + "Onion Rings,3.5,,no,Test Menu,\n";
+
+        mockMvc.perform(post("/api/products/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(6)))
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.failed", is(4)))
+                .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.results[1].error", containsString("already exists")))
+                .andExpect(jsonPath("$.results[2].error", containsString("already exists")))
+                .andExpect(jsonPath("$.results[3].error", containsString("price")))
+                .andExpect(jsonPath("$.results[4].error", is("Unknown category Dessert")))
+                .andExpect(jsonPath("$.results[5].status", is("CREATED")));
+
+        mockMvc.perform(get("/api/products/filterByName?name=Veggie&page=0&size=10"))
+                .andExpect(jsonPath("$.content[0].description", is("Grilled patty, lettuce")))
+                .andExpect(jsonPath("$.content[0].menuName", is("Test Menu")))
+                .andExpect(jsonPath("$.content[0].categories", contains("Meat", "Vegetarian")));
+
+        String ndjson = "{\"name\":\"Garlic Bread\",\"price\":4.5,\"categories\":[\"Vegetarian\"]}\n"
+                + "{\"name\":\"Tiramisu\"}\n";
+        mockMvc.perform(post("/api/products/import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.results[1].error", is("Price is mandatory")));
+        assertEquals(5, productRepository.count());
+
+        mockMvc.perform(post("/api/products/import").contentType("text/csv").content("price,menu\n1,x\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testChangeFeed() throws Exception {
+        List<Product> products = productRepository.findAll();
+        long since = productChangeFeed.head();
+
+        Product update = Product.builder().name("Margherita Pizza").price(8.49).available(false).build();
+        mockMvc.perform(put("/api/products/{id}", products.get(0).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/products/{id}", products.get(1).getId()))
+                .andExpect(status().isNoContent());
+
+        // Replays the two committed changes, in order, to a consumer that reconnects with its last id
+        MvcResult stream = mockMvc.perform(get("/api/products/changes").param("since", Long.toString(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String events = awaitEvents(stream, "\"type\":\"DELETED\"");
+        assertTrue(events.indexOf("id:" + (since + 1)) < events.indexOf("id:" + (since + 2)));
+        assertTrue(events.contains("\"type\":\"UPDATED\",\"productId\":" + products.get(0).getId()
+                + ",\"name\":\"Margherita Pizza\",\"price\":8.49,\"available\":false"));
+        assertTrue(events.contains("\"type\":\"DELETED\",\"productId\":" + products.get(1).getId()));
+
+        // A position the buffer cannot serve any more means starting over
+        MvcResult stale = mockMvc.perform(get("/api/products/changes").header("Last-Event-ID", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(awaitEvents(stale, "event:reset").contains("id:" + productChangeFeed.head()));
+    }
+
+    private static String awaitEvents(MvcResult stream, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String events = stream.getResponse().getContentAsString();
+        while (!events.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = stream.getResponse().getContentAsString();
+        }
+        assertTrue(events.contains(expected), events);
+        return events;
+    }
+}
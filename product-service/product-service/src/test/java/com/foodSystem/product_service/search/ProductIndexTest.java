@@ -0,0 +1,80 @@
+package com.foodSystem.product_service.search;
+
+import com.foodSystem.product_service.event.ProductChangedEvent;
+import com.foodSystem.product_service.event.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductIndexTest {
+
+    @Test
+    public void priceRangeSeesUpdatesCommittedBeforeTheQuery() {
+        int readerThreads = 8;
+        ExecutorService threads = Executors.newFixedThreadPool(readerThreads + 1);
+        ProductIndex index = new ProductIndex();
+        int products = 20_000;
+        int lag = 100;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger repricing = new AtomicInteger(); // Bumped before each reprice starts
+        AtomicInteger repriced = new AtomicInteger();  // and this one after it is applied
+        AtomicBoolean done = new AtomicBoolean();
+
+        // Doc ids are handed out in creation order, so product i is doc i. Every query that finds prices dirty merges them, so readers and the writer keep
+        // trading the lock
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try {
+                for (int i = 0; i < products; i++) {
+                    index.onProductChanged(ProductChangedEvent.created(product(i, 10.0)));
+                    created.set(i + 1);
+                    if (i >= lag) {
+                        repricing.set(i - lag + 1);
+                        index.onProductChanged(ProductChangedEvent.updated(product(i - lag, 50.0)));
+                        repriced.set(i - lag + 1);
+                    }
+                }
+            } finally {
+                done.set(true);
+            }
+        }, threads);
+
+        List<CompletableFuture<Void>> readers = new ArrayList<>();
+        for (int r = 0; r < readerThreads; r++) {
+            readers.add(CompletableFuture.runAsync(() -> {
+                while (!done.get()) {
+                    int createdBefore = created.get();
+                    int repricedBefore = repriced.get();
+                    BitSet cheap = index.inPriceRange(5.0, 15.0);
+                    int repricingAfter = repricing.get();
+
+                    int first = cheap.nextSetBit(0);
+                    assertTrue(first < 0 || first >= repricedBefore, "Doc " + first + " was repriced before the query");
+                    for (int doc = repricingAfter; doc < createdBefore; doc++) {
+                        assertTrue(cheap.get(doc), "Doc " + doc + " was created before the query");
+                    }
+                }
+            }, threads));
+        }
+
+        writer.join();
+        readers.forEach(CompletableFuture::join);
+        threads.shutdown();
+        assertEquals(lag, index.inPriceRange(5.0, 15.0).cardinality());
+        assertEquals(products - lag, index.inPriceRange(50.0, 50.0).cardinality());
+        assertEquals(products, index.inPriceRange(null, null).cardinality());
+    }
+
+    private static ProductSnapshot product(long id, double price) {
+        return new ProductSnapshot(id + 1, "Product " + id, "Test product", price, true, null, new ArrayList<>());
+    }
+}
@@ -0,0 +1,54 @@
+package com.foodSystem.product_service.search;
+
+import com.foodSystem.product_service.event.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TextAnalyzerTest {
+
+    @Test
+    public void queryTermsLeaveOutStopWords() {
+        assertEquals(Arrays.asList("pizza", "chees"), TextAnalyzer.queryTerms("The Pizza with the cheese, and pizzas"));
+    }
+
+    @Test
+    public void queryOfOnlyStopWordsKeepsThem() {
+        assertEquals(Arrays.asList("the", "or", "on"), TextAnalyzer.queryTerms("The Or? the on"));
+        assertEquals(Collections.emptyList(), TextAnalyzer.queryTerms("?!"));
+    }
+
+    @Test
+    public void stopWordOnlyQueryFindsAndHighlightsProducts() {
+        ProductTextIndex index = new ProductTextIndex();
+        index.add(0, product(1, "Pizza of the day", "Chef's choice"));
+        index.add(1, product(2, "Garlic bread", "Baked to order"));
+        BitSet all = new BitSet();
+        all.set(0, 2);
+
+        ProductTextIndex.Matches matches = index.search(TextAnalyzer.queryTerms("of the"), all);
+
+        assertEquals(1, matches.count());
+        assertEquals(0, matches.doc(0));
+        assertEquals("Pizza <em>of</em> <em>the</em> day",
+                Highlighter.highlight("Pizza of the day", new HashSet<>(TextAnalyzer.queryTerms("of the"))));
+    }
+
+    @Test
+    public void stopWordsAreNotHighlightedNextToOtherTerms() {
+        assertEquals("<em>Pizza</em> of the day",
+                Highlighter.highlight("Pizza of the day", new HashSet<>(TextAnalyzer.queryTerms("pizza of the"))));
+        assertNull(Highlighter.highlight("Garlic bread", new HashSet<>(TextAnalyzer.queryTerms("pizza"))));
+    }
+
+    private static ProductSnapshot product(long id, String name, String description) {
+        return new ProductSnapshot(id, name, description, 10.0, true, null, new ArrayList<>());
+    }
+}
@@ -0,0 +1,44 @@
+package com.foodSystem.user_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Short-lived listing totals per normalized filter, so paging through a large table counts it once
+ * per TTL instead of on every page flip. Totals may lag writes by up to the TTL.
+ */
+@Component
+public class UserCountCache {
+
+    private final Cache<String, Long> counts;
+
+    public UserCountCache(@Value("${users.listing.count-cache.max-filters:1000}") long maxFilters,
+                          @Value("${users.listing.count-cache.ttl:30s}") Duration ttl) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxFilters)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public long getCount(String key, Function<String, Long> counter) {
+        return counts.get(key, counter);
+    }
+
+    /**
+     * Key for a combination of filters; matching is case-insensitive in MySQL, so case is dropped.
+     */
+    public static String key(String... filters) {
+        StringBuilder key = new StringBuilder();
+        for (String filter : filters) {
+            // Absent and empty filters differ: LIKE '%%' still excludes NULL columns
+            key.append(filter == null ? "\u0000" : filter.toLowerCase(Locale.ROOT)).append('\u0001');
+        }
+        return key.toString();
+    }
+}
@@ -1,6 +1,10 @@
 package com.foodSystem.user_service.controller;
 
+import com.foodSystem.user_service.cache.UserCountCache;
+import com.foodSystem.user_service.dto.UserBatchResponse;
+import com.foodSystem.user_service.dto.UserImportResponse;
 import com.foodSystem.user_service.entity.User;
+import com.foodSystem.user_service.service.UserImportService;
 import com.foodSystem.user_service.service.UserService;
 import com.foodSystem.user_service.specification.UserSpecification;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,11 +15,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
@@ -25,7 +36,10 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    @Operation(summary = "Get all users", description = "Retrieves a paginated list of users with optional filtering and sorting")
+    @Autowired
+    private UserImportService userImportService;
+
+    @Operation(summary = "Get all users", description = "Retrieves a paginated list of users with optional filtering and sorting. total=approximate takes the total from a count cached per filter for a short TTL instead of counting on every page")
     @GetMapping
     public Page<User> getAllUsers(
             @Parameter(description = "Filter by name") @RequestParam(required = false) String name,
@@ -34,18 +48,65 @@ public class UserController {
             @Parameter(description = "Filter by address") @RequestParam(required = false) String address,
             @Parameter(description = "Field to sort by", example = "id") @RequestParam(required = false) String sortBy,
             @Parameter(description = "Sort direction (ASC/DESC)", example = "ASC") @RequestParam(required = false) String sortDir,
+            @Parameter(description = "How to compute totalElements (exact/approximate; none returns a Slice without it)", example = "exact") @RequestParam(defaultValue = "exact") String total,
             Pageable pageable) {
 
-        Specification<User> spec = Specification.where(
-                        name != null ? UserSpecification.hasName(name) : null)
-                .and(email != null ? UserSpecification.hasEmail(email) : null)
-                .and(phone != null ? UserSpecification.hasPhone(phone) : null)
-                .and(address != null ? UserSpecification.hasAddress(address) : null);
-
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDir != null ? sortDir : "ASC"), sortBy != null ? sortBy : "id");
+        Specification<User> spec = filter(name, email, phone, address);
+        Sort sort = sort(sortBy, sortDir);
+        if ("approximate".equalsIgnoreCase(total)) {
+            return userService.getAllUsersWithApproximateTotal(pageable, spec, sort,
+                    UserCountCache.key(name, email, phone, address));
+        }
         return userService.getAllUsers(pageable, spec, sort);
     }
 
+    @Operation(summary = "Get all users without a total", description = "Same filters as GET /api/users, returned as a Slice: one query for size + 1 rows and no count")
+    @GetMapping(params = "total=none")
+    public Slice<User> getUserSlice(
+            @Parameter(description = "Filter by name") @RequestParam(required = false) String name,
+            @Parameter(description = "Filter by email") @RequestParam(required = false) String email,
+            @Parameter(description = "Filter by phone") @RequestParam(required = false) String phone,
+            @Parameter(description = "Filter by address") @RequestParam(required = false) String address,
+            @Parameter(description = "Field to sort by", example = "id") @RequestParam(required = false) String sortBy,
+            @Parameter(description = "Sort direction (ASC/DESC)", example = "ASC") @RequestParam(required = false) String sortDir,
+            Pageable pageable) {
+        return userService.getUserSlice(pageable, filter(name, email, phone, address), sort(sortBy, sortDir));
+    }
+
+    @Operation(summary = "Search users", description = "Index-backed lookup: email and phone (compared on its digits) match by prefix, an exact value included; name and address match substrings (case- and accent-insensitive) through an in-memory trigram index. Criteria are combined with AND; results are ordered by id")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matching users"),
+        @ApiResponse(responseCode = "400", description = "No search criterion given")
+    })
+    @GetMapping("/search")
+    public Page<User> searchUsers(
+            @Parameter(description = "Substring of the name") @RequestParam(required = false) String name,
+            @Parameter(description = "Email or email prefix") @RequestParam(required = false) String email,
+            @Parameter(description = "Phone or phone prefix; only digits are compared") @RequestParam(required = false) String phone,
+            @Parameter(description = "Substring of the address") @RequestParam(required = false) String address,
+            @Parameter(description = "Id order (ASC/DESC)", example = "ASC") @RequestParam(required = false) String sortDir,
+            Pageable pageable) {
+        return userService.searchUsers(blankToNull(name), blankToNull(email), blankToNull(phone), blankToNull(address),
+                Sort.Direction.fromString(sortDir != null ? sortDir : "ASC"), pageable);
+    }
+
+    @Operation(summary = "Get users by IDs", description = "Resolves up to users.batch.max-ids ids in one query for service-to-service calls. Returns an id-to-user map without credentials; unknown ids are listed under missing")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Users found, and the ids that were not"),
+        @ApiResponse(responseCode = "400", description = "Too many ids")
+    })
+    @GetMapping("/batch")
+    public UserBatchResponse getUsersByIds(
+            @Parameter(description = "Comma-separated user IDs", required = true, example = "1,2,3") @RequestParam List<Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
+    @Operation(summary = "Get users by IDs (POST)", description = "Same as GET /api/users/batch, with the ids as a JSON array body for lists too long for a URL")
+    @PostMapping("/batch")
+    public UserBatchResponse postUsersByIds(@RequestBody List<Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
     @Operation(summary = "Get user by ID", description = "Retrieves a specific user by its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User found"),
@@ -57,13 +118,14 @@ public class UserController {
         return userService.getUserById(id);
     }
 
-    @Operation(summary = "Get user for login", description = "Retrieves a user by email and password for login")
+    @Operation(summary = "Get user for login", description = "Retrieves a user by email and password for login. The password is checked against its BCrypt hash on a dedicated hashing pool")
     @ApiResponses(value={
             @ApiResponse(responseCode="200", description="Login successful"),
-            @ApiResponse(responseCode="401", description="Invalid credentials")
+            @ApiResponse(responseCode="404", description="Invalid credentials"),
+            @ApiResponse(responseCode="503", description="Too many logins in flight; retry after the Retry-After delay")
     })
     @PostMapping("/login")
-    public Optional<User> getUserForLogin(
+    public CompletableFuture<User> getUserForLogin(
             @Parameter(description = "User email",required = true)@RequestParam String email,
             @Parameter(description = "User password", required = true) @RequestParam String password
     ){
@@ -71,12 +133,25 @@ public class UserController {
     }
 
 
-    @Operation(summary = "Create a new user", description = "Creates a new user")
+    @Operation(summary = "Create a new user", description = "Creates a new user with a single insert; a taken email is detected by the unique index")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "User created"),
+        @ApiResponse(responseCode = "409", description = "Email already registered")
+    })
     @PostMapping
-    public User createUser(@RequestBody User user) {
+    public User createUser(@Valid @RequestBody User user) {
         return userService.createUser(user);
     }
 
+    @Operation(summary = "Import users", description = "Registers users streamed from a JSON array or an NDJSON body in chunked JDBC batches; invalid rows and taken emails are reported per row")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished; per-row results list created and failed rows")
+    })
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public UserImportResponse importUsers(HttpServletRequest request) throws IOException {
+        return userImportService.importJson(request.getInputStream());
+    }
+
     @Operation(summary = "Update a user", description = "Updates an existing user by ID")
     @PutMapping("/{id}")
     public User updateUser(
@@ -91,4 +166,20 @@ public class UserController {
             @Parameter(description = "User ID", required = true) @PathVariable Long id) {
         userService.deleteUser(id);
     }
-}
\ No newline at end of file
+
+    private static Specification<User> filter(String name, String email, String phone, String address) {
+        return Specification.where(
+                        name != null ? UserSpecification.hasName(name) : null)
+                .and(email != null ? UserSpecification.hasEmail(email) : null)
+                .and(phone != null ? UserSpecification.hasPhone(phone) : null)
+                .and(address != null ? UserSpecification.hasAddress(address) : null);
+    }
+
+    private static Sort sort(String sortBy, String sortDir) {
+        return Sort.by(Sort.Direction.fromString(sortDir != null ? sortDir : "ASC"), sortBy != null ? sortBy : "id");
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
@@ -0,0 +1,24 @@
+package com.foodSystem.user_service.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a batch lookup: the users found, keyed by id in request order, and the requested
+ * ids that do not exist.
+ */
+public class UserBatchResponse {
+
+    private final Map<Long, UserResponse> users = new LinkedHashMap<>();
+    private final List<Long> missing = new ArrayList<>();
+
+    public Map<Long, UserResponse> getUsers() {
+        return users;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+}
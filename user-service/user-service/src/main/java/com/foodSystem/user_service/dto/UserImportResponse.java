@@ -0,0 +1,47 @@
+package com.foodSystem.user_service.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Result of {@code POST /api/users/import}: how many rows were read, registered and rejected, and
+ * every row's outcome in the order it was submitted.
+ */
+public class UserImportResponse {
+
+    private final int received;
+    private final int created;
+    private final List<UserImportResult> results;
+
+    public UserImportResponse(List<UserImportResult> results) {
+        List<UserImportResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingInt(UserImportResult::getIndex));
+        int registered = 0;
+        for (UserImportResult result : sorted) {
+            if (result.getUserId() != null) {
+                registered++;
+            }
+        }
+        this.received = sorted.size();
+        this.created = registered;
+        this.results = Collections.unmodifiableList(sorted);
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return received - created;
+    }
+
+    public List<UserImportResult> getResults() {
+        return results;
+    }
+}
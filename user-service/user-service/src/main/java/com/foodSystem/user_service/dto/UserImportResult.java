@@ -0,0 +1,45 @@
+package com.foodSystem.user_service.dto;
+
+/**
+ * Outcome of a single row submitted through {@code POST /api/users/import}: the id of the user it
+ * registered, or why it was rejected.
+ */
+public class UserImportResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private final int index;     // Position of the user in the submitted array/stream
+    private final Long userId;   // Set when the user was created
+    private final String error;  // Reason the row was rejected
+
+    private UserImportResult(int index, Long userId, String error) {
+        this.index = index;
+        this.userId = userId;
+        this.error = error;
+    }
+
+    public static UserImportResult created(int index, Long userId) {
+        return new UserImportResult(index, userId, null);
+    }
+
+    public static UserImportResult failed(int index, String error) {
+        return new UserImportResult(index, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getStatus() {
+        return userId != null ? CREATED : FAILED;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,42 @@
+package com.foodSystem.user_service.dto;
+
+/**
+ * A user without credentials, for service-to-service lookups. Built by a JPQL constructor
+ * expression, so the password column is never read.
+ */
+public class UserResponse {
+
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final String phone;
+    private final String address;
+
+    public UserResponse(Long id, String name, String email, String phone, String address) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.address = address;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+}
@@ -1,18 +1,30 @@
 package com.foodSystem.user_service.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
 @Entity
-@Table(name = "users") // Specify table name to avoid conflicts
+@Table(name = "users", // Specify table name to avoid conflicts
+        indexes = {
+                // One account per email, enforced by the insert itself; also serves prefix lookups in /api/users/search
+                @Index(name = User.EMAIL_UNIQUE_INDEX, columnList = "email", unique = true),
+                @Index(name = "idx_users_phone_normalized", columnList = "phone_normalized")
+        })
 public class User {
 
+    public static final String EMAIL_UNIQUE_INDEX = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-increment ID
     private Long id;
@@ -27,11 +39,16 @@ public class User {
 
     @NotBlank(message = "Password is mandatory")
     @Size(min = 6, message = "Password should be at least 6 characters")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // Stored as a BCrypt hash, never returned
     private String password;
 
     @NotBlank(message = "Phone is mandatory")
     private String phone;
 
+    @JsonIgnore
+    @Column(name = "phone_normalized")
+    private String phoneNormalized; // Digits of phone only, kept in step by setPhone()
+
     @NotBlank(message = "Address is mandatory")
     @Size(max = 255, message = "Address should not exceed 255 characters")
     private String address;
@@ -45,7 +62,7 @@ public class User {
         this.name = name;
         this.email = email;
         this.password = password;
-        this.phone = phone;
+        setPhone(phone);
         this.address = address;
     }
 
@@ -88,6 +105,28 @@ public class User {
 
     public void setPhone(String phone) {
         this.phone = phone;
+        this.phoneNormalized = normalizePhone(phone);
+    }
+
+    public String getPhoneNormalized() {
+        return phoneNormalized;
+    }
+
+    /**
+     * Strips everything but digits, so "+1 (555) 010-2030" and "15550102030" compare equal.
+     */
+    public static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
     }
 
     public String getAddress() {
@@ -0,0 +1,7 @@
+package com.foodSystem.user_service.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
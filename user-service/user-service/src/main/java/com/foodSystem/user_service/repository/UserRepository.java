@@ -1,15 +1,50 @@
 package com.foodSystem.user_service.repository;
 
+import com.foodSystem.user_service.dto.UserResponse;
 import com.foodSystem.user_service.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
-    boolean existsByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
 
-    Optional<User> findByEmailAndPassword(String email, String password);
-}
+    // Replaces a legacy plaintext password with its hash, unless it was changed in the meantime
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :hash where u.id = :id and u.password = :previous")
+    int rehashPassword(@Param("id") Long id, @Param("previous") String previous, @Param("hash") String hash);
+
+    // Id-only range scans over uk_users_email / idx_users_phone_normalized. Connector/J inlines the
+    // parameters, so the null guards fold away before MySQL picks an index
+    @Query("select u.id from User u"
+            + " where (:emailPrefix is null or u.email like :emailPrefix escape '!')"
+            + " and (:phonePrefix is null or u.phoneNormalized like :phonePrefix)"
+            + " order by u.id")
+    List<Long> findIdsByEmailAndPhonePrefix(@Param("emailPrefix") String emailPrefix,
+                                            @Param("phonePrefix") String phonePrefix);
+
+    // Keyset-paged read of what UserSearchIndex indexes, without loading entities
+    @Query("select u.id, u.name, u.address from User u where u.id > :after order by u.id")
+    List<Object[]> findSearchFields(@Param("after") long after, Pageable pageable);
 
+    // Keyset-paged rows written before phone_normalized existed
+    List<User> findByPhoneNormalizedIsNullAndIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
+    // One primary-key IN lookup for /api/users/batch; credentials are not selected
+    @Query("select new com.foodSystem.user_service.dto.UserResponse(u.id, u.name, u.email, u.phone, u.address)"
+            + " from User u where u.id in :ids")
+    List<UserResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Which of a bulk import's emails are taken, in one query; compared case-insensitively by MySQL
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+}
@@ -0,0 +1,17 @@
+package com.foodSystem.user_service.repository;
+
+import com.foodSystem.user_service.entity.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Returns at most {@code limit} users matching {@code spec} in {@code sort} order, skipping the
+     * first {@code offset}, without the {@code COUNT(*)} query that {@code findAll(spec, pageable)}
+     * issues for every page.
+     */
+    List<User> findSlice(Specification<User> spec, Sort sort, long offset, int limit);
+}
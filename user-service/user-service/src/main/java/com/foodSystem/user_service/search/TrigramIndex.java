@@ -0,0 +1,165 @@
+package com.foodSystem.user_service.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram inverted index over one text field. Values are lower-cased and accent-folded, then
+ * split into overlapping three-character grams; a substring query becomes the intersection of
+ * its grams' posting lists, and only the few survivors are checked against the stored value.
+ * Postings are id-sorted primitive arrays.
+ *
+ * Not thread-safe: {@link UserSearchIndex} calls it under its own lock.
+ */
+public class TrigramIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final long[] NONE = new long[0];
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, String> values = new HashMap<>(); // Normalized, to verify matches and unindex
+
+    /**
+     * Indexes {@code value} for {@code id}, replacing whatever was indexed for it before.
+     */
+    public void put(long id, String value) {
+        remove(id);
+        String normalized = normalize(value);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        values.put(id, normalized);
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+        }
+    }
+
+    public void remove(long id) {
+        String previous = values.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        values.clear();
+    }
+
+    /**
+     * Ids whose value contains {@code query}, ascending.
+     */
+    public long[] search(String query) {
+        String needle = normalize(query);
+        if (needle.length() < 3) {
+            return scan(needle); // No gram to look up
+        }
+        Set<String> grams = grams(needle);
+        Postings[] lists = new Postings[grams.size()];
+        int i = 0;
+        for (String gram : grams) {
+            lists[i] = postings.get(gram);
+            if (lists[i] == null) {
+                return NONE;
+            }
+            i++;
+        }
+        // Drive the intersection from the rarest gram and binary-search the others
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        Postings rarest = lists[0];
+        long[] matches = new long[rarest.size];
+        int count = 0;
+        next:
+        for (int p = 0; p < rarest.size; p++) {
+            long id = rarest.ids[p];
+            for (int l = 1; l < lists.length; l++) {
+                if (Arrays.binarySearch(lists[l].ids, 0, lists[l].size, id) < 0) {
+                    continue next;
+                }
+            }
+            // Every gram present does not mean they are adjacent
+            if (values.get(id).contains(needle)) {
+                matches[count++] = id;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public int grams() {
+        return postings.size();
+    }
+
+    private long[] scan(String needle) {
+        long[] matches = new long[values.size()];
+        int count = 0;
+        for (Map.Entry<Long, String> entry : values.entrySet()) {
+            if (entry.getValue().contains(needle)) {
+                matches[count++] = entry.getKey();
+            }
+        }
+        matches = Arrays.copyOf(matches, count);
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Ids ascending
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            // New users get the highest id, so this is an append except for re-indexed updates
+            int at = size == 0 || ids[size - 1] < id ? size : -(Arrays.binarySearch(ids, 0, size, id) + 1);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.foodSystem.user_service.search;
+
+import com.foodSystem.user_service.entity.User;
+import com.foodSystem.user_service.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process trigram indexes over user {@code name} and {@code address}, so substring lookups
+ * are answered by intersecting posting lists instead of a {@code LIKE '%x%'} scan of the users
+ * table. Loaded at startup and kept current by {@link com.foodSystem.user_service.service.UserService}.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+    private static final int BATCH = 10_000;
+
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex addresses = new TrigramIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Held throughout, so writes made meanwhile wait for the load instead of being overwritten by it
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            addresses.clear();
+            long after = 0;
+            List<Object[]> rows;
+            do {
+                rows = userRepository.findSearchFields(after, PageRequest.of(0, BATCH));
+                for (Object[] row : rows) {
+                    after = (Long) row[0];
+                    names.put(after, (String) row[1]);
+                    addresses.put(after, (String) row[2]);
+                }
+            } while (rows.size() == BATCH);
+            log.info("Indexed {} users ({} name and {} address trigrams)", names.size(), names.grams(),
+                    addresses.grams());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(User user) {
+        lock.writeLock().lock();
+        try {
+            names.put(user.getId(), user.getName());
+            addresses.put(user.getId(), user.getAddress());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            names.remove(id);
+            addresses.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the users whose name contains {@code name} and whose address contains
+     * {@code address} (case- and accent-insensitive), ascending.
+     *
+     * @return null when both are null, i.e. there is nothing to narrow down by
+     */
+    public long[] search(String name, String address) {
+        if (name == null && address == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            if (name == null) {
+                return addresses.search(address);
+            }
+            long[] ids = names.search(name);
+            return address == null || ids.length == 0 ? ids : intersect(ids, addresses.search(address));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids present in both ascending arrays, ascending.
+     */
+    public static long[] intersect(long[] a, long[] b) {
+        long[] both = new long[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                both[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, count);
+    }
+}
@@ -0,0 +1,151 @@
+package com.foodSystem.user_service.service;
+
+import com.foodSystem.user_service.exception.PasswordHashingBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt hashing on a dedicated pool sized for the CPU, with a bounded queue in front of it.
+ * Hashing is slow on purpose, so it never runs on request threads, and once the queue is full
+ * callers are turned away immediately instead of lining up behind it.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    @Value("${users.password.bcrypt-strength:10}")
+    private int strength;
+
+    @Value("${users.password.hashing-threads:0}")
+    private int threads; // 0 = one per core
+
+    @Value("${users.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private String dummyHash;
+
+    @PostConstruct
+    public void start() {
+        encoder = new BCryptPasswordEncoder(strength);
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        dummyHash = encoder.encode("not-a-real-password");
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool.
+     *
+     * @throws PasswordHashingBusyException when every thread is busy and the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException ex) {
+            throw new PasswordHashingBusyException("Too many concurrent password checks, retry shortly");
+        }
+    }
+
+    /**
+     * Hashes {@code raw} on the pool and waits for it; for writes, which are rare next to logins.
+     */
+    public String hash(String raw) {
+        try {
+            return submit(() -> encode(raw)).join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+        }
+    }
+
+    /**
+     * Hashes many passwords for a bulk write, with at most one task per pool thread in flight, so a
+     * login arriving meanwhile queues behind one hash at most. Runs on the calling thread whenever
+     * the pool has no room.
+     */
+    public List<String> hashAll(List<String> raws) {
+        int wave = executor.getMaximumPoolSize();
+        List<String> hashes = new ArrayList<>(raws.size());
+        List<CompletableFuture<String>> inFlight = new ArrayList<>(wave);
+        for (int from = 0; from < raws.size(); from += wave) {
+            for (String raw : raws.subList(from, Math.min(from + wave, raws.size()))) {
+                try {
+                    inFlight.add(submit(() -> encode(raw)));
+                } catch (PasswordHashingBusyException ex) {
+                    inFlight.add(CompletableFuture.completedFuture(encode(raw)));
+                }
+            }
+            for (CompletableFuture<String> hash : inFlight) {
+                try {
+                    hashes.add(hash.join());
+                } catch (CompletionException ex) {
+                    throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+                }
+            }
+            inFlight.clear();
+        }
+        return hashes;
+    }
+
+    // The methods below are CPU-heavy; call them from tasks passed to submit()
+
+    public String encode(String raw) {
+        return encoder.encode(raw);
+    }
+
+    /**
+     * Checks {@code raw} against a stored BCrypt hash, or against a legacy plaintext password
+     * (in constant time). A null {@code stored} is checked against a dummy hash, so unknown
+     * accounts take as long as known ones.
+     */
+    public boolean matches(String raw, String stored) {
+        if (raw == null) {
+            return false;
+        }
+        if (stored == null) {
+            encoder.matches(raw, dummyHash);
+            return false;
+        }
+        if (isHashed(stored)) {
+            return encoder.matches(raw, stored);
+        }
+        return MessageDigest.isEqual(raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isHashed(String stored) {
+        return stored != null && BCRYPT.matcher(stored).matches();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+}
@@ -0,0 +1,257 @@
+package com.foodSystem.user_service.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodSystem.user_service.dto.UserImportResponse;
+import com.foodSystem.user_service.dto.UserImportResult;
+import com.foodSystem.user_service.entity.User;
+import com.foodSystem.user_service.repository.UserRepository;
+import com.foodSystem.user_service.search.UserSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Bulk user registration. Users are streamed from the request body and written in chunks, each
+ * chunk as one JDBC batch in its own transaction. {@code User} ids are auto-increment, which keeps
+ * Hibernate from batching inserts, so the batch goes through {@link JdbcTemplate} and reads the
+ * generated ids back from the driver. Taken emails cost one query per chunk instead of one per row;
+ * an email registered concurrently is caught by the unique index, in which case the chunk is
+ * retried row by row to tell which users conflicted.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT =
+            "insert into users (name, email, password, phone, phone_normalized, address) values (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Value("${users.import.chunk-size:500}")
+    private int chunkSize;
+
+    // A JSON array or one object per line (NDJSON)
+    public UserImportResponse importJson(InputStream json) throws IOException {
+        try (MappingIterator<User> rows = objectMapper.readerFor(User.class).readValues(json)) {
+            return importUsers(rows);
+        }
+    }
+
+    public UserImportResponse importUsers(Iterator<User> rows) {
+        List<UserImportResult> results = new ArrayList<>();
+        List<User> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        long start = System.nanoTime();
+        int index = 0;
+        int chunks = 0;
+
+        while (true) {
+            User user;
+            try {
+                if (!rows.hasNext()) {
+                    break;
+                }
+                user = rows.next();
+            } catch (RuntimeException ex) {
+                // A malformed record leaves the stream unreadable; keep what was already written.
+                results.add(UserImportResult.failed(index, "Unreadable row: " + ex.getMessage()));
+                break;
+            }
+
+            String error = validate(user);
+            if (error != null) {
+                results.add(UserImportResult.failed(index, error));
+            } else {
+                chunk.add(user);
+                indexes.add(index);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, indexes, results);
+                    log.info("User import: chunk {} written, {} rows read", ++chunks, index + 1);
+                }
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, indexes, results);
+        }
+
+        UserImportResponse response = new UserImportResponse(results);
+        log.info("User import finished: {} rows, {} created, {} failed in {} ms", response.getReceived(),
+                response.getCreated(), response.getFailed(), (System.nanoTime() - start) / 1_000_000);
+        return response;
+    }
+
+    private void writeChunk(List<User> chunk, List<Integer> indexes, List<UserImportResult> results) {
+        // Emails already registered, plus repeats within this chunk; earlier chunks are committed
+        // by now, so the same query also catches duplicates across chunks.
+        Set<String> emails = new HashSet<>();
+        for (User user : chunk) {
+            emails.add(user.getEmail());
+        }
+        Set<String> taken = new HashSet<>();
+        for (String email : userRepository.findExistingEmails(emails)) {
+            taken.add(key(email));
+        }
+
+        List<User> accepted = new ArrayList<>(chunk.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            User user = chunk.get(i);
+            if (!taken.add(key(user.getEmail()))) {
+                results.add(UserImportResult.failed(indexes.get(i),
+                        "User already exists with email " + user.getEmail()));
+            } else {
+                accepted.add(user);
+                acceptedIndexes.add(indexes.get(i));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<String> passwords = new ArrayList<>(accepted.size());
+            for (User user : accepted) {
+                passwords.add(user.getPassword());
+            }
+            List<String> hashes = passwordHasher.hashAll(passwords);
+            for (int i = 0; i < accepted.size(); i++) {
+                accepted.get(i).setPassword(hashes.get(i));
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertBatch(accepted));
+                for (int i = 0; i < accepted.size(); i++) {
+                    created(accepted.get(i), acceptedIndexes.get(i), results);
+                }
+            } catch (DataIntegrityViolationException ex) {
+                // Someone registered one of these emails since the check; find out which, row by row
+                for (int i = 0; i < accepted.size(); i++) {
+                    insertOne(accepted.get(i), acceptedIndexes.get(i), results);
+                }
+            } catch (RuntimeException ex) {
+                for (Integer i : acceptedIndexes) {
+                    results.add(UserImportResult.failed(i, "Chunk rolled back: " + ex.getMessage()));
+                }
+            }
+        }
+        chunk.clear();
+        indexes.clear();
+    }
+
+    private void insertBatch(List<User> users) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (User user : users) {
+                    bind(statement, user);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (User user : users) {
+                        if (!keys.next()) {
+                            throw new SQLException("Driver returned fewer generated ids than rows inserted");
+                        }
+                        user.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private void insertOne(User user, int index, List<UserImportResult> results) {
+        KeyHolder key = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+                bind(statement, user);
+                return statement;
+            }, key);
+            user.setId(key.getKey().longValue());
+            created(user, index, results);
+        } catch (DataIntegrityViolationException ex) {
+            RuntimeException conflict = UserService.emailTaken(ex, user.getEmail());
+            results.add(UserImportResult.failed(index, conflict.getMessage()));
+        } catch (DataAccessException ex) {
+            results.add(UserImportResult.failed(index, ex.getMessage()));
+        }
+    }
+
+    private void created(User user, int index, List<UserImportResult> results) {
+        results.add(UserImportResult.created(index, user.getId()));
+        userSearchIndex.put(user);
+    }
+
+    private static void bind(PreparedStatement statement, User user) throws SQLException {
+        statement.setString(1, user.getName());
+        statement.setString(2, user.getEmail());
+        statement.setString(3, user.getPassword());
+        statement.setString(4, user.getPhone());
+        statement.setString(5, user.getPhoneNormalized());
+        statement.setString(6, user.getAddress());
+    }
+
+    private String validate(User user) {
+        if (user == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        Set<String> messages = new TreeSet<>();
+        for (ConstraintViolation<User> violation : violations) {
+            messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return String.join("; ", messages);
+    }
+
+    // Emails compare like MySQL's default collation: case-insensitive
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,49 +1,171 @@
 package com.foodSystem.user_service.service;
 
+import com.foodSystem.user_service.cache.UserCountCache;
+import com.foodSystem.user_service.dto.UserBatchResponse;
+import com.foodSystem.user_service.dto.UserResponse;
 import com.foodSystem.user_service.entity.User;
+import com.foodSystem.user_service.exception.PasswordHashingBusyException;
 import com.foodSystem.user_service.exception.UserAlreadyExistsException;
 import com.foodSystem.user_service.exception.UserNotFoundException;
 import com.foodSystem.user_service.repository.UserRepository;
+import com.foodSystem.user_service.search.UserSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserService {
 
+    static final int BACKFILL_BATCH = 1000;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private UserCountCache userCountCache;
+
+    @Autowired
+    private TaskExecutor taskExecutor; // Writes back rehashed passwords, off the hashing pool
+
+    @Value("${users.batch.max-ids:500}")
+    private int batchMaxIds;
+
     public Page<User> getAllUsers(Pageable pageable, Specification<User> spec, Sort sort) {
         Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
         return userRepository.findAll(spec, sortedPageable);
     }
 
+    /**
+     * One page without a total: reads {@code size + 1} rows to learn whether another page follows.
+     */
+    public Slice<User> getUserSlice(Pageable pageable, Specification<User> spec, Sort sort) {
+        Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+        List<User> rows = userRepository.findSlice(spec, sort, sortedPageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<User> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, sortedPageable, hasNext);
+    }
+
+    /**
+     * One page whose total comes from {@link UserCountCache}, counted at most once per TTL for each
+     * {@code filterKey}. The total is corrected by what the page itself shows: exact on the last
+     * page, never short of the rows known to exist, and never past the offset of an empty page.
+     */
+    public Page<User> getAllUsersWithApproximateTotal(Pageable pageable, Specification<User> spec, Sort sort,
+                                                      String filterKey) {
+        Slice<User> slice = getUserSlice(pageable, spec, sort);
+        long offset = slice.getPageable().getOffset();
+        long total;
+        if (slice.hasNext()) {
+            long cached = userCountCache.getCount(filterKey, key -> userRepository.count(spec));
+            total = Math.max(cached, offset + slice.getNumberOfElements() + 1);
+        } else if (slice.hasContent() || offset == 0) {
+            total = offset + slice.getNumberOfElements(); // The last page: exact
+        } else {
+            // Past the end: all rows lie before this page, however many the cache remembers
+            long cached = userCountCache.getCount(filterKey, key -> userRepository.count(spec));
+            total = Math.min(cached, offset);
+        }
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
 
     public Optional<User> getUserById(Long id) {
         return Optional.ofNullable(userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User not found with id " + id)));
     }
 
+    /**
+     * Resolves many ids with one {@code IN} query. Duplicates and nulls are ignored; ids that do
+     * not exist are listed in {@link UserBatchResponse#getMissing()} instead of failing the call.
+     *
+     * @throws IllegalArgumentException when more than {@code users.batch.max-ids} distinct ids are asked for
+     */
+    public UserBatchResponse getUsersByIds(Collection<Long> ids) {
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > batchMaxIds) {
+            throw new IllegalArgumentException("At most " + batchMaxIds + " ids per batch, got " + distinct.size());
+        }
+        UserBatchResponse response = new UserBatchResponse();
+        if (distinct.isEmpty()) {
+            return response;
+        }
+        Map<Long, UserResponse> found = new HashMap<>();
+        for (UserResponse user : userRepository.findResponsesByIdIn(distinct)) {
+            found.put(user.getId(), user);
+        }
+        for (Long id : distinct) {
+            UserResponse user = found.get(id);
+            if (user != null) {
+                response.getUsers().put(id, user);
+            } else {
+                response.getMissing().add(id);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Registers the user with a single insert; a taken email is reported by the unique index
+     * rather than looked up first, which also settles concurrent signups with the same email.
+     */
     public User createUser(User user) {
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new UserAlreadyExistsException("User already exists with email " + user.getEmail());
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw emailTaken(ex, user.getEmail());
         }
-        return userRepository.save(user);
+        userSearchIndex.put(saved);
+        return saved;
     }
 
     public User updateUser(Long id, User userDetails) {
         User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
         user.setName(userDetails.getName());
         user.setEmail(userDetails.getEmail());
-        user.setPassword(userDetails.getPassword());
+        if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
+            user.setPassword(passwordHasher.hash(userDetails.getPassword())); // Otherwise keep the current one
+        }
         user.setPhone(userDetails.getPhone());
         user.setAddress(userDetails.getAddress());
-        return userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw emailTaken(ex, userDetails.getEmail());
+        }
+        userSearchIndex.put(saved);
+        return saved;
     }
 
     public void deleteUser(Long id) {
@@ -51,9 +173,132 @@ public class UserService {
             throw new UserNotFoundException("User not found with id " + id);
         }
         userRepository.deleteById(id);
+        userSearchIndex.remove(id);
     }
 
-    public Optional<User> getUserForLogin(String email, String password) {
-        return Optional.ofNullable(userRepository.findByEmailAndPassword(email,password).orElseThrow(() -> new UserNotFoundException("Invalid email or password")));
+    /**
+     * Support-desk search without leading-wildcard scans: {@code email} and {@code phone} (compared
+     * on its digits) match by prefix through their indexes, an exact value being its own prefix;
+     * {@code name} and {@code address} match substrings through {@link UserSearchIndex}. Criteria
+     * are combined with AND and results are ordered by id; only the requested page is loaded.
+     *
+     * @throws IllegalArgumentException when no criterion is given
+     */
+    public Page<User> searchUsers(String name, String email, String phone, String address,
+                                  Sort.Direction direction, Pageable pageable) {
+        long[] ids = userSearchIndex.search(name, address);
+        if (email != null || phone != null) {
+            String digits = phone != null ? User.normalizePhone(phone) : null;
+            if (digits != null && digits.isEmpty()) {
+                throw new IllegalArgumentException("phone must contain digits");
+            }
+            if (ids == null || ids.length > 0) {
+                List<Long> matching = userRepository.findIdsByEmailAndPhonePrefix(
+                        email != null ? escapeLike(email) + "%" : null, digits != null ? digits + "%" : null);
+                long[] prefixed = new long[matching.size()];
+                for (int i = 0; i < prefixed.length; i++) {
+                    prefixed[i] = matching.get(i);
+                }
+                ids = ids == null ? prefixed : UserSearchIndex.intersect(ids, prefixed);
+            }
+        }
+        if (ids == null) {
+            throw new IllegalArgumentException("At least one of name, email, phone or address is required");
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(direction == Sort.Direction.DESC ? ids[ids.length - 1 - i] : ids[i]);
+        }
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, ids.length);
+        }
+        Map<Long, User> byId = new HashMap<>();
+        for (User user : userRepository.findAllById(pageIds)) {
+            byId.put(user.getId(), user);
+        }
+        List<User> users = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            User user = byId.get(id);
+            if (user != null) { // Deleted since the ids were read
+                users.add(user);
+            }
+        }
+        return new PageImpl<>(users, pageable, ids.length);
+    }
+
+    /**
+     * Fills phone_normalized for rows written before the column existed, a keyset-paged batch at a
+     * time. Rows without a phone stay null, so each batch starts after the last id seen.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillNormalizedPhones() {
+        long after = 0;
+        List<User> users;
+        do {
+            users = userRepository.findByPhoneNormalizedIsNullAndIdGreaterThanOrderByIdAsc(after,
+                    PageRequest.of(0, BACKFILL_BATCH));
+            for (User user : users) {
+                user.setPhone(user.getPhone());
+                after = user.getId();
+            }
+            if (!users.isEmpty()) {
+                userRepository.saveAll(users);
+            }
+        } while (users.size() == BACKFILL_BATCH);
+    }
+
+    /**
+     * Turns a violation of the email unique index into {@link UserAlreadyExistsException};
+     * any other integrity violation is returned unchanged.
+     */
+    static RuntimeException emailTaken(DataIntegrityViolationException ex, String email) {
+        String message = ex.getMostSpecificCause().getMessage();
+        if (message != null && message.contains(User.EMAIL_UNIQUE_INDEX)) {
+            return new UserAlreadyExistsException("User already exists with email " + email);
+        }
+        return ex;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Looks the user up by email on the calling thread and checks the password on the hashing
+     * pool, so the request thread is free while BCrypt runs. Rows still holding a plaintext
+     * password are compared here, which is cheap, and rehashed on their first successful login:
+     * the hash runs on the pool and the row is written back on the task executor, so neither the
+     * request thread nor a hashing thread waits on the other's work. A wrong plaintext password
+     * still costs a BCrypt check, so legacy accounts cannot be told apart by how fast they refuse.
+     *
+     * @throws PasswordHashingBusyException right away when the hashing pool is saturated
+     */
+    public CompletableFuture<User> getUserForLogin(String email, String password) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        String stored = user != null ? user.getPassword() : null;
+        if (stored != null && !passwordHasher.isHashed(stored)) {
+            if (!passwordHasher.matches(password, stored)) {
+                return passwordHasher.submit(() -> {
+                    passwordHasher.matches(password, null);
+                    throw new UserNotFoundException("Invalid email or password");
+                });
+            }
+            return passwordHasher.submit(() -> passwordHasher.encode(password))
+                    .thenApplyAsync(hash -> {
+                        if (userRepository.rehashPassword(user.getId(), stored, hash) > 0) {
+                            user.setPassword(hash);
+                        }
+                        return user;
+                    }, taskExecutor);
+        }
+        return passwordHasher.submit(() -> {
+            if (!passwordHasher.matches(password, stored)) {
+                throw new UserNotFoundException("Invalid email or password");
+            }
+            return user;
+        });
     }
 }
@@ -0,0 +1,115 @@
+package com.foodSystem.user_service.benchmark;
+
+import com.foodSystem.user_service.exception.PasswordHashingBusyException;
+import com.foodSystem.user_service.service.PasswordHasher;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Login latency and throughput under a burst of concurrent logins, comparing BCrypt run on the
+ * request threads (one per client) with the bounded hashing pool. No database involved.
+ *
+ * Run with: mvn test -Dgroups=benchmark -Dsurefire.excludedGroups=none -Dbenchmark.clients=16,64,256
+ */
+@Tag("benchmark")
+public class LoginBenchmark {
+
+    private static final int LOGINS_PER_CLIENT = 10;
+
+    @Test
+    public void loginLatencyByConcurrency() throws Exception {
+        PasswordHasher hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "strength", 10);
+        ReflectionTestUtils.setField(hasher, "threads", 0);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", 64);
+        hasher.start();
+        String stored = hasher.encode("correct horse battery staple");
+
+        System.out.printf("%8s %10s %10s %10s %12s %10s%n", "clients", "mode", "p50 (ms)", "p99 (ms)", "logins/s",
+                "rejected");
+        try {
+            for (String size : System.getProperty("benchmark.clients", "16,64,256").split(",")) {
+                int clients = Integer.parseInt(size.trim());
+                report(clients, "inline", run(clients, () -> hasher.matches("correct horse battery staple", stored)));
+                report(clients, "pool", run(clients, () -> hasher
+                        .submit(() -> hasher.matches("correct horse battery staple", stored)).join()));
+            }
+        } finally {
+            hasher.stop();
+        }
+    }
+
+    private Result run(int clients, Runnable login) throws InterruptedException {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(clients);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            done.add(CompletableFuture.runAsync(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < LOGINS_PER_CLIENT; i++) {
+                    long began = System.nanoTime();
+                    try {
+                        login.run();
+                        latencies.add(System.nanoTime() - began);
+                    } catch (PasswordHashingBusyException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }, requestThreads));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        CompletableFuture.allOf(done.toArray(new CompletableFuture[0])).join();
+        long elapsed = System.nanoTime() - began;
+        requestThreads.shutdown();
+        return new Result(latencies, rejected.get(), elapsed);
+    }
+
+    private void report(int clients, String mode, Result result) {
+        List<Long> sorted = new ArrayList<>(result.latencies);
+        Collections.sort(sorted);
+        System.out.printf("%8d %10s %10.1f %10.1f %12.1f %10d%n", clients, mode,
+                percentile(sorted, 0.50), percentile(sorted, 0.99),
+                sorted.size() / (result.elapsedNanos / 1e9), result.rejected);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(p * sorted.size()))) / 1e6;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Result {
+
+        final List<Long> latencies;
+        final int rejected;
+        final long elapsedNanos;
+
+        Result(List<Long> latencies, int rejected, long elapsedNanos) {
+            this.latencies = latencies;
+            this.rejected = rejected;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.foodSystem.user_service.benchmark;
+
+import com.foodSystem.user_service.dto.UserImportResponse;
+import com.foodSystem.user_service.entity.User;
+import com.foodSystem.user_service.repository.UserRepository;
+import com.foodSystem.user_service.search.UserSearchIndex;
+import com.foodSystem.user_service.service.UserImportService;
+import com.foodSystem.user_service.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registration throughput, comparing one createUser call per user with the chunked JDBC-batch
+ * import. BCrypt runs at its minimum strength so the numbers show the database writes rather than
+ * the hashing. Wipes the users table of the configured database.
+ *
+ * Run with: mvn test -Dgroups=benchmark -Dsurefire.excludedGroups=none -Dbenchmark.sizes=1000,10000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "users.password.bcrypt-strength=4")
+public class UserRegistrationBenchmark {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Test
+    public void registrationThroughputBySize() {
+        System.out.printf("%10s %16s %16s %16s%n", "users", "single (rows/s)", "import (rows/s)", "import conflicts");
+        int run = 0;
+        for (String size : System.getProperty("benchmark.sizes", "1000,10000").split(",")) {
+            int count = Integer.parseInt(size.trim());
+
+            reset();
+            List<User> single = users("single" + run, count);
+            long start = System.nanoTime();
+            for (User user : single) {
+                userService.createUser(user);
+            }
+            double singleRate = count * 1e9 / (System.nanoTime() - start);
+
+            reset();
+            start = System.nanoTime();
+            UserImportResponse imported = userImportService.importUsers(users("import" + run, count).iterator());
+            double importRate = imported.getCreated() * 1e9 / (System.nanoTime() - start);
+            // Same users again: every row is a conflict, found by one query per chunk
+            UserImportResponse repeated = userImportService.importUsers(users("import" + run, count).iterator());
+
+            System.out.printf("%10d %16.1f %16.1f %16d%n", count, singleRate, importRate, repeated.getFailed());
+            run++;
+        }
+        reset();
+    }
+
+    private void reset() {
+        userRepository.deleteAllInBatch();
+        userSearchIndex.rebuild();
+    }
+
+    private static List<User> users(String prefix, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User(null, "User " + i, prefix + "." + i + "@example.com", "password" + i,
+                    "+1 555 " + (1_000_000 + i), i + " Main St"));
+        }
+        return users;
+    }
+}
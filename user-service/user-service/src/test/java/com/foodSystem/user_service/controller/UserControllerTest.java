@@ -1,6 +1,14 @@
 package com.foodSystem.user_service.controller;
 
+import com.foodSystem.user_service.dto.UserBatchResponse;
+import com.foodSystem.user_service.dto.UserImportResponse;
+import com.foodSystem.user_service.dto.UserImportResult;
+import com.foodSystem.user_service.dto.UserResponse;
 import com.foodSystem.user_service.entity.User;
+import com.foodSystem.user_service.exception.PasswordHashingBusyException;
+import com.foodSystem.user_service.exception.UserAlreadyExistsException;
+import com.foodSystem.user_service.exception.UserNotFoundException;
+import com.foodSystem.user_service.service.UserImportService;
 import com.foodSystem.user_service.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -9,19 +17,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
@@ -31,6 +49,8 @@ class UserControllerTest {
 
   @MockBean private UserService userService;
 
+  @MockBean private UserImportService userImportService;
+
   @Test
    void testGetAllUsers() throws Exception {
     User user = new User();
@@ -104,4 +124,203 @@ class UserControllerTest {
 
     mockMvc.perform(MockMvcRequestBuilders.delete("/api/users/1")).andExpect(status().isOk());
   }
+
+  @Test
+  void testLogin() throws Exception {
+    User user = new User(1L, "John Doe", "john.doe@example.com",
+        "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z9EHmLJb5CmE9h6Yd4fbnW9K", "1234567890", "123 Main St");
+    Mockito.when(userService.getUserForLogin("john.doe@example.com", "password"))
+        .thenReturn(CompletableFuture.completedFuture(user));
+
+    MvcResult result =
+        mockMvc
+            .perform(
+                MockMvcRequestBuilders.post("/api/users/login")
+                    .param("email", "john.doe@example.com")
+                    .param("password", "password"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("John Doe"))
+        .andExpect(jsonPath("$.password").doesNotExist());
+  }
+
+  @Test
+  void testLoginWithWrongPassword() throws Exception {
+    CompletableFuture<User> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new UserNotFoundException("Invalid email or password"));
+    Mockito.when(userService.getUserForLogin(anyString(), anyString())).thenReturn(failed);
+
+    MvcResult result =
+        mockMvc
+            .perform(
+                MockMvcRequestBuilders.post("/api/users/login")
+                    .param("email", "john.doe@example.com")
+                    .param("password", "wrong"))
+            .andReturn();
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void testLoginWhenHashingPoolIsSaturated() throws Exception {
+    Mockito.when(userService.getUserForLogin(anyString(), anyString()))
+        .thenThrow(new PasswordHashingBusyException("Too many concurrent password checks, retry shortly"));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/api/users/login")
+                .param("email", "john.doe@example.com")
+                .param("password", "password"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "1"));
+  }
+
+  @Test
+  void testSearchUsers() throws Exception {
+    User user = new User(1L, "John Doe", "john.doe@example.com", "secret", "+1 (555) 010-2030", "123 Main St");
+    Mockito.when(
+            userService.searchUsers(
+                Mockito.eq("john"), Mockito.isNull(), Mockito.eq("555"), Mockito.isNull(),
+                Mockito.eq(Sort.Direction.DESC), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(Collections.singletonList(user)));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/api/users/search")
+                .param("name", " john ")
+                .param("email", "")
+                .param("phone", "555")
+                .param("sortDir", "desc"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].name").value("John Doe"))
+        .andExpect(jsonPath("$.content[0].phoneNormalized").doesNotExist());
+  }
+
+  @Test
+  void testSearchUsersWithoutCriteria() throws Exception {
+    Mockito.when(userService.searchUsers(any(), any(), any(), any(), any(), any(Pageable.class)))
+        .thenThrow(new IllegalArgumentException("At least one of name, email, phone or address is required"));
+
+    mockMvc
+        .perform(MockMvcRequestBuilders.get("/api/users/search"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void testGetUsersByIds() throws Exception {
+    UserBatchResponse batch = new UserBatchResponse();
+    batch.getUsers().put(1L, new UserResponse(1L, "John Doe", "john.doe@example.com", "1234567890", "123 Main St"));
+    batch.getMissing().add(7L);
+    Mockito.when(userService.getUsersByIds(Arrays.asList(1L, 7L))).thenReturn(batch);
+
+    mockMvc
+        .perform(MockMvcRequestBuilders.get("/api/users/batch").param("ids", "1,7"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.users.1.name").value("John Doe"))
+        .andExpect(jsonPath("$.users.1.password").doesNotExist())
+        .andExpect(jsonPath("$.missing[0]").value(7));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 7]"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.missing[0]").value(7));
+  }
+
+  @Test
+  void testGetUsersByIdsOverTheLimit() throws Exception {
+    Mockito.when(userService.getUsersByIds(any()))
+        .thenThrow(new IllegalArgumentException("At most 500 ids per batch, got 501"));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2]"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("At most 500 ids per batch, got 501"));
+  }
+
+  @Test
+  void testGetUserSlice() throws Exception {
+    User user = new User();
+    user.setId(1L);
+    user.setName("John Doe");
+    Mockito.when(userService.getUserSlice(any(Pageable.class), any(), any(Sort.class)))
+        .thenReturn(new SliceImpl<>(Collections.singletonList(user), PageRequest.of(0, 1), true));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/api/users")
+                .param("name", "John")
+                .param("size", "1")
+                .param("total", "none"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].name").value("John Doe"))
+        .andExpect(jsonPath("$.last").value(false))
+        .andExpect(jsonPath("$.totalElements").doesNotExist());
+    Mockito.verify(userService, Mockito.never()).getAllUsers(any(Pageable.class), any(), any(Sort.class));
+  }
+
+  @Test
+  void testGetAllUsersWithApproximateTotal() throws Exception {
+    User user = new User();
+    user.setId(1L);
+    user.setName("John Doe");
+    Mockito.when(
+            userService.getAllUsersWithApproximateTotal(
+                any(Pageable.class), any(), any(Sort.class), anyString()))
+        .thenReturn(new PageImpl<>(Collections.singletonList(user), PageRequest.of(0, 1), 5000));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get("/api/users")
+                .param("name", "John")
+                .param("size", "1")
+                .param("total", "approximate"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalElements").value(5000));
+    Mockito.verify(userService, Mockito.never()).getAllUsers(any(Pageable.class), any(), any(Sort.class));
+  }
+
+  @Test
+  void testCreateUserWithTakenEmail() throws Exception {
+    Mockito.when(userService.createUser(any(User.class)))
+        .thenThrow(new UserAlreadyExistsException("User already exists with email john.doe@example.com"));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "{\"name\": \"John Doe\", \"email\": \"john.doe@example.com\", \"password\": \"password\", \"phone\": \"1234567890\", \"address\": \"123 Main St\"}"))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.error").value("User already exists with email john.doe@example.com"));
+  }
+
+  @Test
+  void testImportUsers() throws Exception {
+    UserImportResponse response = new UserImportResponse(Arrays.asList(
+        UserImportResult.failed(1, "User already exists with email john.doe@example.com"),
+        UserImportResult.created(0, 1L)));
+    Mockito.when(userImportService.importJson(any(InputStream.class))).thenReturn(response);
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/api/users/import")
+                .contentType("application/x-ndjson")
+                .content(
+                    "{\"name\": \"John Doe\", \"email\": \"john.doe@example.com\", \"password\": \"password\", \"phone\": \"1234567890\", \"address\": \"123 Main St\"}\n"
+                        + "{\"name\": \"John Again\", \"email\": \"john.doe@example.com\", \"password\": \"password\", \"phone\": \"1234567890\", \"address\": \"123 Main St\"}\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created").value(1))
+        .andExpect(jsonPath("$.failed").value(1))
+        .andExpect(jsonPath("$.results[0].userId").value(1))
+        .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+        .andExpect(jsonPath("$.rowsPerSecond").doesNotExist());
+  }
 }
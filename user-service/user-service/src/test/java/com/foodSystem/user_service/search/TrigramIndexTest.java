@@ -0,0 +1,97 @@
+package com.foodSystem.user_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrigramIndexTest {
+
+  private final TrigramIndex index = new TrigramIndex();
+
+  @Test
+  void findsSubstringsCaseAndAccentInsensitively() {
+    index.put(1, "Jos\u00e9 \u00c1lvarez");
+    index.put(2, "Joseph Miller");
+    index.put(3, "Anna Jones");
+
+    assertArrayEquals(new long[] {1, 2}, index.search("JOSE"));
+    assertArrayEquals(new long[] {1}, index.search("alvar"));
+    assertArrayEquals(new long[] {}, index.search("josef"));
+  }
+
+  @Test
+  void gramsThatAreNotAdjacentDoNotMatch() {
+    // "abc" and "bcd" are both indexed for 1, but "abcd" is not in it
+    index.put(1, "abc bcd");
+    index.put(2, "xabcdx");
+
+    assertArrayEquals(new long[] {2}, index.search("abcd"));
+  }
+
+  @Test
+  void putReplacesThePreviousValue() {
+    index.put(1, "Old Street");
+    index.put(1, "New Avenue");
+
+    assertArrayEquals(new long[] {}, index.search("old"));
+    assertArrayEquals(new long[] {1}, index.search("avenue"));
+    assertEquals(1, index.size());
+    assertEquals(gramsOf("New Avenue"), index.grams());
+  }
+
+  @Test
+  void removeDropsTheIdAndItsEmptyPostings() {
+    index.put(1, "Main Street");
+    index.put(2, "Main Square");
+    index.remove(1);
+
+    assertArrayEquals(new long[] {2}, index.search("main"));
+    assertArrayEquals(new long[] {}, index.search("street"));
+    assertEquals(gramsOf("Main Square"), index.grams());
+
+    index.remove(2);
+    index.remove(3); // Never indexed
+    assertEquals(0, index.size());
+    assertEquals(0, index.grams());
+  }
+
+  @Test
+  void nullOrBlankValueIsNotIndexed() {
+    index.put(1, "Somewhere");
+    index.put(1, null);
+    index.put(2, "   ");
+
+    assertEquals(0, index.size());
+    assertArrayEquals(new long[] {}, index.search("some"));
+  }
+
+  @Test
+  void queriesShorterThanAGramAreScanned() {
+    index.put(3, "Al Smith");
+    index.put(1, "Sally");
+    index.put(2, "Bob");
+
+    assertArrayEquals(new long[] {1, 3}, index.search("al"));
+    assertArrayEquals(new long[] {1, 3}, index.search(" A "));
+    assertArrayEquals(new long[] {2}, index.search("b"));
+    assertArrayEquals(new long[] {1, 2, 3}, index.search(""));
+  }
+
+  @Test
+  void resultsAreAscendingWhateverTheInsertionOrder() {
+    index.put(30, "Pizza Place");
+    index.put(10, "Pizza Palace");
+    index.put(20, "Pizza Corner");
+    index.put(10, "Pizza Palace"); // Re-indexed in the middle of the postings
+
+    assertArrayEquals(new long[] {10, 20, 30}, index.search("pizza"));
+  }
+
+  // Grams of a single value, to check an updated index kept no others
+  private static int gramsOf(String value) {
+    TrigramIndex single = new TrigramIndex();
+    single.put(1, value);
+    return single.grams();
+  }
+}
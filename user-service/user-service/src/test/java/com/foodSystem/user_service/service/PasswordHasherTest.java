@@ -0,0 +1,112 @@
+package com.foodSystem.user_service.service;
+
+import com.foodSystem.user_service.exception.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+  private final PasswordHasher hasher = hasher(1, 1);
+
+  @AfterEach
+  void stop() {
+    hasher.stop();
+  }
+
+  @Test
+  void matchesAHash() {
+    String hash = hasher.hash("secret");
+
+    assertTrue(hasher.isHashed(hash));
+    assertTrue(hasher.matches("secret", hash));
+    assertFalse(hasher.matches("wrong", hash));
+    assertFalse(hasher.matches(null, hash));
+  }
+
+  @Test
+  void matchesALegacyPlaintextPassword() {
+    assertFalse(hasher.isHashed("secret"));
+    assertTrue(hasher.matches("secret", "secret"));
+    assertFalse(hasher.matches("secreT", "secret"));
+  }
+
+  @Test
+  void unknownAccountIsCheckedAgainstTheDummyHash() {
+    assertFalse(hasher.matches("secret", null));
+    assertFalse(hasher.matches("not-a-real-password", null));
+  }
+
+  @Test
+  void saturatedPoolTurnsCallersAway() throws Exception {
+    CountDownLatch release = saturate(hasher);
+    try {
+      assertThrows(PasswordHashingBusyException.class, () -> hasher.submit(() -> true));
+      assertThrows(PasswordHashingBusyException.class, () -> hasher.hash("secret"));
+    } finally {
+      release.countDown();
+    }
+    assertTrue(hasher.submit(() -> true).join());
+  }
+
+  @Test
+  void hashAllRunsOnTheCallerWhenThePoolIsFull() throws Exception {
+    CountDownLatch release = saturate(hasher);
+    try {
+      List<String> hashes = hasher.hashAll(Arrays.asList("a", "b", "c"));
+
+      assertEquals(3, hashes.size());
+      assertTrue(hasher.matches("b", hashes.get(1)));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  // Strength 4 is the cheapest BCrypt allows, so the tests stay fast
+  static PasswordHasher hasher(int threads, int queueCapacity) {
+    PasswordHasher hasher = new PasswordHasher();
+    ReflectionTestUtils.setField(hasher, "strength", 4);
+    ReflectionTestUtils.setField(hasher, "threads", threads);
+    ReflectionTestUtils.setField(hasher, "queueCapacity", queueCapacity);
+    hasher.start();
+    return hasher;
+  }
+
+  /**
+   * Fills a 1-thread, 1-slot pool: one task holds the thread and a second waits in the queue until
+   * the returned latch is released.
+   */
+  static CountDownLatch saturate(PasswordHasher hasher) throws InterruptedException {
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    hasher.submit(() -> {
+      running.countDown();
+      return await(release);
+    });
+    running.await();
+    CompletableFuture<Boolean> queued = hasher.submit(() -> await(release));
+    assertFalse(queued.isDone());
+    assertEquals(1, hasher.getQueueDepth());
+    return release;
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      latch.await();
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.foodSystem.user_service.service;
+
+import com.foodSystem.user_service.dto.UserImportResponse;
+import com.foodSystem.user_service.dto.UserImportResult;
+import com.foodSystem.user_service.entity.User;
+import com.foodSystem.user_service.repository.UserRepository;
+import com.foodSystem.user_service.search.UserSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * The import against the users table itself, in chunks of two, so that batches, generated ids and
+ * the uk_users_email unique index all behave as they do in production.
+ */
+@SpringBootTest(properties = {"users.import.chunk-size=2", "users.password.bcrypt-strength=4"})
+class UserImportServiceTest {
+
+  @Autowired private UserImportService userImportService;
+
+  @Autowired private PasswordHasher passwordHasher;
+
+  @Autowired private UserSearchIndex userSearchIndex;
+
+  @SpyBean private UserRepository userRepository;
+
+  @BeforeEach
+  void setup() {
+    userRepository.deleteAllInBatch();
+    userSearchIndex.rebuild();
+  }
+
+  @Test
+  void importsEveryRowInChunks() {
+    UserImportResponse response = userImportService.importUsers(Arrays.asList(
+        user("Ann", "ann@example.com", "+1 (555) 010-2030"),
+        user("Bob", "bob@example.com", null),
+        user("Cid", "cid@example.com", "555 0100")).iterator());
+
+    assertEquals(3, response.getCreated());
+    assertEquals(0, response.getFailed());
+    List<Long> ids = userIds(response);
+    assertTrue(ids.get(0) < ids.get(1) && ids.get(1) < ids.get(2), "Ids " + ids);
+    assertEquals("ann@example.com", userRepository.findById(ids.get(0)).get().getEmail());
+    assertEquals("bob@example.com", userRepository.findById(ids.get(1)).get().getEmail());
+    assertEquals("cid@example.com", userRepository.findById(ids.get(2)).get().getEmail());
+    assertEquals(3, userRepository.count());
+  }
+
+  @Test
+  void writesHashedPasswordAndNormalizedPhone() {
+    userImportService.importUsers(Collections.singletonList(
+        user("Ann", "ann@example.com", "+1 (555) 010-2030")).iterator());
+
+    User row = userRepository.findByEmail("ann@example.com").get();
+    assertTrue(passwordHasher.isHashed(row.getPassword()));
+    assertTrue(passwordHasher.matches("secret", row.getPassword()));
+    assertEquals("+1 (555) 010-2030", row.getPhone());
+    assertEquals("15550102030", row.getPhoneNormalized());
+  }
+
+  @Test
+  void rejectsAnEmailThatIsAlreadyTaken() {
+    userImportService.importUsers(Collections.singletonList(user("Ann", "ann@example.com", null)).iterator());
+
+    UserImportResponse response = userImportService.importUsers(Arrays.asList(
+        user("Ann Again", "ANN@example.com", null),
+        user("Bob", "bob@example.com", null)).iterator());
+
+    assertEquals(1, response.getCreated());
+    assertEquals("User already exists with email ANN@example.com", response.getResults().get(0).getError());
+    assertEquals(UserImportResult.CREATED, response.getResults().get(1).getStatus());
+    assertEquals("Ann", userRepository.findByEmail("ann@example.com").get().getName());
+  }
+
+  @Test
+  void rejectsARepeatWithinAChunk() {
+    UserImportResponse response = userImportService.importUsers(Arrays.asList(
+        user("Ann", "ann@example.com", null),
+        user("Ann Again", "Ann@Example.com", null)).iterator());
+
+    assertEquals(1, response.getCreated());
+    assertEquals(UserImportResult.CREATED, response.getResults().get(0).getStatus());
+    assertEquals("User already exists with email Ann@Example.com", response.getResults().get(1).getError());
+    assertEquals(1, userRepository.count());
+  }
+
+  @Test
+  void rejectsARepeatAcrossChunks() {
+    UserImportResponse response = userImportService.importUsers(Arrays.asList(
+        user("Ann", "ann@example.com", null),
+        user("Bob", "bob@example.com", null),
+        user("Ann Again", "ann@example.com", null)).iterator());
+
+    assertEquals(2, response.getCreated());
+    assertEquals("User already exists with email ann@example.com", response.getResults().get(2).getError());
+    assertEquals(2, userRepository.count());
+  }
+
+  @Test
+  void fallsBackToRowByRowWhenAnEmailIsRegisteredConcurrently() {
+    // Bob registers between the import's check for taken emails and its batch insert
+    userImportService.importUsers(Collections.singletonList(user("Bob", "bob@example.com", null)).iterator());
+    doReturn(Collections.emptyList()).when(userRepository).findExistingEmails(anyCollection());
+
+    UserImportResponse response = userImportService.importUsers(Arrays.asList(
+        user("Ann", "ann@example.com", null),
+        user("Bob Again", "bob@example.com", null)).iterator());
+
+    assertEquals(1, response.getCreated());
+    assertEquals(UserImportResult.CREATED, response.getResults().get(0).getStatus());
+    assertEquals("User already exists with email bob@example.com", response.getResults().get(1).getError());
+    assertNull(response.getResults().get(1).getUserId());
+    assertEquals(2, userRepository.count());
+    assertEquals("Bob", userRepository.findByEmail("bob@example.com").get().getName());
+  }
+
+  private static User user(String name, String email, String phone) {
+    return new User(null, name, email, "secret", phone, "1 Main St");
+  }
+
+  private static List<Long> userIds(UserImportResponse response) {
+    List<Long> ids = new ArrayList<>();
+    for (UserImportResult result : response.getResults()) {
+      ids.add(result.getUserId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,512 @@
+package com.foodSystem.user_service.service;
+
+import com.foodSystem.user_service.cache.UserCountCache;
+import com.foodSystem.user_service.controller.UserController;
+import com.foodSystem.user_service.dto.UserBatchResponse;
+import com.foodSystem.user_service.dto.UserResponse;
+import com.foodSystem.user_service.entity.User;
+import com.foodSystem.user_service.exception.GlobalExceptionHandler;
+import com.foodSystem.user_service.exception.PasswordHashingBusyException;
+import com.foodSystem.user_service.exception.UserAlreadyExistsException;
+import com.foodSystem.user_service.exception.UserNotFoundException;
+import com.foodSystem.user_service.repository.UserRepository;
+import com.foodSystem.user_service.search.UserSearchIndex;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+  private static final Sort BY_ID = Sort.by("id");
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private PasswordHasher passwordHasher;
+
+  @Mock private UserSearchIndex userSearchIndex;
+
+  @Spy private UserCountCache userCountCache = new UserCountCache(100, Duration.ofMinutes(1));
+
+  @InjectMocks private UserService userService;
+
+  private final Specification<User> spec = Specification.where(null);
+
+  private PasswordHasher realHasher;
+
+  private final ExecutorService writes = Executors.newSingleThreadExecutor(task -> new Thread(task, "rehash-writes"));
+
+  @BeforeEach
+  void useTaskExecutor() {
+    ReflectionTestUtils.setField(userService, "taskExecutor", (TaskExecutor) writes::execute);
+  }
+
+  @AfterEach
+  void stopHasher() {
+    if (realHasher != null) {
+      realHasher.stop();
+    }
+    writes.shutdownNow();
+  }
+
+  @Test
+  void approximateTotalIsExactOnTheLastPage() {
+    when(userRepository.findSlice(any(), any(), eq(20L), eq(11))).thenReturn(users(21, 5));
+
+    Page<User> page = userService.getAllUsersWithApproximateTotal(PageRequest.of(2, 10), spec, BY_ID, "all");
+
+    assertEquals(25, page.getTotalElements());
+    assertEquals(5, page.getNumberOfElements());
+    verify(userRepository, never()).count(any(Specification.class));
+  }
+
+  @Test
+  void approximateTotalOfAPagePastTheEndStopsAtItsOffset() {
+    when(userRepository.findSlice(any(), any(), anyLong(), anyInt())).thenReturn(new ArrayList<>());
+    when(userRepository.count(any(Specification.class))).thenReturn(10L);
+
+    Page<User> page = userService.getAllUsersWithApproximateTotal(PageRequest.of(100, 10), spec, BY_ID, "all");
+
+    assertEquals(10, page.getTotalElements());
+    assertEquals(0, page.getNumberOfElements());
+  }
+
+  @Test
+  void approximateTotalOfAPagePastTheEndIgnoresAStaleHigherCount() {
+    when(userRepository.count(any(Specification.class))).thenReturn(50L);
+    when(userRepository.findSlice(any(), any(), eq(0L), eq(11))).thenReturn(users(1, 11));
+    userService.getAllUsersWithApproximateTotal(PageRequest.of(0, 10), spec, BY_ID, "all"); // Caches 50
+    // Rows were deleted since: the page at offset 30 is empty, so there cannot be 50 any more
+    when(userRepository.findSlice(any(), any(), eq(30L), eq(11))).thenReturn(new ArrayList<>());
+
+    Page<User> page = userService.getAllUsersWithApproximateTotal(PageRequest.of(3, 10), spec, BY_ID, "all");
+
+    assertEquals(30, page.getTotalElements());
+    verify(userRepository, times(1)).count(any(Specification.class));
+  }
+
+  @Test
+  void approximateTotalIsRaisedAboveAStaleLowerCount() {
+    when(userRepository.count(any(Specification.class))).thenReturn(12L);
+    when(userRepository.findSlice(any(), any(), eq(0L), eq(11))).thenReturn(users(1, 11));
+    assertEquals(12, userService.getAllUsersWithApproximateTotal(PageRequest.of(0, 10), spec, BY_ID, "all")
+        .getTotalElements());
+    // Rows were added since: the second page still has a successor
+    when(userRepository.findSlice(any(), any(), eq(10L), eq(11))).thenReturn(users(11, 11));
+
+    Page<User> page = userService.getAllUsersWithApproximateTotal(PageRequest.of(1, 10), spec, BY_ID, "all");
+
+    assertEquals(21, page.getTotalElements());
+    assertEquals(10, page.getNumberOfElements());
+    verify(userRepository, times(1)).count(any(Specification.class));
+  }
+
+  @Test
+  void approximateTotalOfAnEmptyFirstPageIsZero() {
+    when(userRepository.findSlice(any(), any(), anyLong(), anyInt())).thenReturn(new ArrayList<>());
+
+    Page<User> page = userService.getAllUsersWithApproximateTotal(PageRequest.of(0, 10), spec, BY_ID, "none");
+
+    assertEquals(0, page.getTotalElements());
+    verify(userRepository, never()).count(any(Specification.class));
+  }
+
+  @Test
+  void loginChecksAHashOnThePool() {
+    PasswordHasher hasher = useRealHasher();
+    User user = user(1L, hasher.hash("secret"));
+    when(userRepository.findByEmail("user1@example.com")).thenReturn(Optional.of(user));
+
+    assertSame(user, userService.getUserForLogin("user1@example.com", "secret").join());
+    verify(userRepository, never()).rehashPassword(anyLong(), anyString(), anyString());
+  }
+
+  @Test
+  void loginWithAWrongPasswordFails() {
+    PasswordHasher hasher = useRealHasher();
+    when(userRepository.findByEmail("user1@example.com")).thenReturn(Optional.of(user(1L, hasher.hash("secret"))));
+
+    CompletableFuture<User> login = userService.getUserForLogin("user1@example.com", "wrong");
+
+    CompletionException ex = assertThrows(CompletionException.class, login::join);
+    assertInstanceOf(UserNotFoundException.class, ex.getCause());
+  }
+
+  @Test
+  void loginOfAnUnknownEmailIsCheckedAgainstTheDummyHash() {
+    PasswordHasher hasher = spy(useRealHasher());
+    ReflectionTestUtils.setField(userService, "passwordHasher", hasher);
+    when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+    CompletableFuture<User> login = userService.getUserForLogin("nobody@example.com", "secret");
+
+    CompletionException ex = assertThrows(CompletionException.class, login::join);
+    assertInstanceOf(UserNotFoundException.class, ex.getCause());
+    verify(hasher).matches("secret", null);
+  }
+
+  @Test
+  void loginRehashesALegacyPlaintextPasswordOffTheRequestThreadAndThePool() {
+    PasswordHasher hasher = useRealHasher();
+    User user = user(1L, "secret");
+    when(userRepository.findByEmail("user1@example.com")).thenReturn(Optional.of(user));
+    AtomicReference<Thread> writer = new AtomicReference<>();
+    when(userRepository.rehashPassword(eq(1L), eq("secret"), anyString())).thenAnswer(invocation -> {
+      writer.set(Thread.currentThread());
+      return 1;
+    });
+
+    User loggedIn = userService.getUserForLogin("user1@example.com", "secret").join();
+
+    assertEquals("rehash-writes", writer.get().getName());
+    assertTrue(hasher.isHashed(loggedIn.getPassword()));
+    assertTrue(hasher.matches("secret", loggedIn.getPassword()));
+  }
+
+  @Test
+  void loginKeepsAPasswordChangedDuringTheRehash() {
+    useRealHasher();
+    User user = user(1L, "secret");
+    when(userRepository.findByEmail("user1@example.com")).thenReturn(Optional.of(user));
+    when(userRepository.rehashPassword(eq(1L), eq("secret"), anyString())).thenReturn(0);
+
+    assertEquals("secret", userService.getUserForLogin("user1@example.com", "secret").join().getPassword());
+  }
+
+  @Test
+  void loginWithAWrongLegacyPasswordCostsABcryptCheckAndIsNotRehashed() {
+    PasswordHasher hasher = spy(useRealHasher());
+    ReflectionTestUtils.setField(userService, "passwordHasher", hasher);
+    when(userRepository.findByEmail("user1@example.com")).thenReturn(Optional.of(user(1L, "secret")));
+
+    CompletableFuture<User> login = userService.getUserForLogin("user1@example.com", "wrong");
+
+    CompletionException ex = assertThrows(CompletionException.class, login::join);
+    assertInstanceOf(UserNotFoundException.class, ex.getCause());
+    verify(hasher).matches("wrong", null);
+    verify(userRepository, never()).rehashPassword(anyLong(), anyString(), anyString());
+  }
+
+  @Test
+  void loginOnASaturatedPoolIsTurnedAwayWith503() throws Exception {
+    PasswordHasher hasher = useRealHasher();
+    when(userRepository.findByEmail("user1@example.com")).thenReturn(Optional.of(user(1L, hasher.hash("secret"))));
+    UserController controller = new UserController();
+    ReflectionTestUtils.setField(controller, "userService", userService);
+    MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
+        .setControllerAdvice(new GlobalExceptionHandler())
+        .build();
+
+    CountDownLatch release = PasswordHasherTest.saturate(hasher);
+    try {
+      assertThrows(PasswordHashingBusyException.class, () -> userService.getUserForLogin("user1@example.com", "secret"));
+      mockMvc
+          .perform(
+              MockMvcRequestBuilders.post("/api/users/login")
+                  .param("email", "user1@example.com")
+                  .param("password", "secret"))
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(header().string("Retry-After", "1"));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  void batchLookupRejectsMoreDistinctIdsThanTheLimit() {
+    ReflectionTestUtils.setField(userService, "batchMaxIds", 3);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> userService.getUsersByIds(Arrays.asList(1L, 2L, 3L, 4L)));
+
+    assertEquals("At most 3 ids per batch, got 4", ex.getMessage());
+    verify(userRepository, never()).findResponsesByIdIn(any());
+  }
+
+  @Test
+  void batchLookupCountsNullsAndDuplicatesOnce() {
+    ReflectionTestUtils.setField(userService, "batchMaxIds", 3);
+    when(userRepository.findResponsesByIdIn(any())).thenReturn(new ArrayList<>());
+
+    userService.getUsersByIds(Arrays.asList(1L, null, 1L, 2L, 3L, 3L, null));
+
+    verify(userRepository).findResponsesByIdIn(new LinkedHashSet<>(Arrays.asList(1L, 2L, 3L)));
+  }
+
+  @Test
+  void batchLookupKeepsTheRequestOrder() {
+    ReflectionTestUtils.setField(userService, "batchMaxIds", 500);
+    when(userRepository.findResponsesByIdIn(any())).thenReturn(Arrays.asList(
+        new UserResponse(1L, "User 1", "user1@example.com", null, null),
+        new UserResponse(3L, "User 3", "user3@example.com", null, null)));
+
+    UserBatchResponse batch = userService.getUsersByIds(Arrays.asList(3L, 2L, 1L, 4L));
+
+    assertEquals(Arrays.asList(3L, 1L), new ArrayList<>(batch.getUsers().keySet()));
+    assertEquals(Arrays.asList(2L, 4L), batch.getMissing());
+  }
+
+  @Test
+  void batchLookupOfNoIdsDoesNotQuery() {
+    ReflectionTestUtils.setField(userService, "batchMaxIds", 500);
+
+    UserBatchResponse batch = userService.getUsersByIds(Arrays.asList(null, null));
+
+    assertTrue(batch.getUsers().isEmpty());
+    assertTrue(batch.getMissing().isEmpty());
+    verify(userRepository, never()).findResponsesByIdIn(any());
+  }
+
+  @Test
+  void createUserReportsATakenEmailAsConflict() {
+    when(passwordHasher.hash("secret")).thenReturn("hashed");
+    when(userRepository.save(any(User.class))).thenThrow(emailIndexViolation("ann@example.com"));
+
+    User user = new User(null, "Ann", "ann@example.com", "secret", null, "1 Main St");
+
+    UserAlreadyExistsException ex = assertThrows(UserAlreadyExistsException.class, () -> userService.createUser(user));
+
+    assertEquals("User already exists with email ann@example.com", ex.getMessage());
+    verify(userSearchIndex, never()).put(any());
+  }
+
+  @Test
+  void createUserRethrowsOtherIntegrityViolations() {
+    when(passwordHasher.hash("secret")).thenReturn("hashed");
+    SQLIntegrityConstraintViolationException cause =
+        new SQLIntegrityConstraintViolationException("Column 'address' cannot be null", "23000", 1048);
+    DataIntegrityViolationException violation = new DataIntegrityViolationException(
+        "could not execute statement; SQL [n/a]; constraint [null]",
+        new ConstraintViolationException("could not execute statement", cause, null));
+    when(userRepository.save(any(User.class))).thenThrow(violation);
+
+    assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+        () -> userService.createUser(user(null, "secret"))));
+  }
+
+  @Test
+  void emailTakenRecognizesTheUniqueIndexThroughJdbc() {
+    String message = "Duplicate entry 'ann@example.com' for key 'users.uk_users_email'";
+    DuplicateKeyException ex = new DuplicateKeyException("PreparedStatementCallback; " + message,
+        new SQLIntegrityConstraintViolationException(message, "23000", 1062));
+
+    RuntimeException taken = UserService.emailTaken(ex, "ann@example.com");
+
+    assertInstanceOf(UserAlreadyExistsException.class, taken);
+    assertEquals("User already exists with email ann@example.com", taken.getMessage());
+  }
+
+  @Test
+  void emailTakenIgnoresOtherUniqueIndexes() {
+    String message = "Duplicate entry '7' for key 'users.PRIMARY'";
+    DuplicateKeyException ex = new DuplicateKeyException("PreparedStatementCallback; " + message,
+        new SQLIntegrityConstraintViolationException(message, "23000", 1062));
+
+    assertSame(ex, UserService.emailTaken(ex, "ann@example.com"));
+  }
+
+  // What Spring Data reports for an insert that hits uk_users_email on MySQL
+  private static DataIntegrityViolationException emailIndexViolation(String email) {
+    SQLIntegrityConstraintViolationException cause = new SQLIntegrityConstraintViolationException(
+        "Duplicate entry '" + email + "' for key 'users.uk_users_email'", "23000", 1062);
+    return new DataIntegrityViolationException(
+        "could not execute statement; SQL [n/a]; constraint [users.uk_users_email]",
+        new ConstraintViolationException("could not execute statement", cause, "users.uk_users_email"));
+  }
+
+  // Swaps the mocked hasher for a real 1-thread, 1-slot pool
+  private PasswordHasher useRealHasher() {
+    realHasher = PasswordHasherTest.hasher(1, 1);
+    ReflectionTestUtils.setField(userService, "passwordHasher", realHasher);
+    return realHasher;
+  }
+
+  private static User user(Long id, String password) {
+    return new User(id, "User " + id, "user" + id + "@example.com", password, null, null);
+  }
+
+  @Test
+  void searchIntersectsNameWithEmailAndPhone() {
+    when(userSearchIndex.search("jo", null)).thenReturn(new long[] {1, 3, 5, 7});
+    when(userRepository.findIdsByEmailAndPhonePrefix("jo!_n%", "1555%")).thenReturn(ids(3, 4, 7));
+    List<User> found = users(7, 1);
+    found.addAll(users(3, 1)); // In any order; the page keeps the ids' order
+    when(userRepository.findAllById(ids(3, 7))).thenReturn(found);
+
+    Page<User> page = userService.searchUsers("jo", "jo_n", "+1 (555)", null, Sort.Direction.ASC, PageRequest.of(0, 10));
+
+    assertEquals(2, page.getTotalElements());
+    assertEquals(ids(3, 7), ids(page));
+  }
+
+  @Test
+  void searchByEmailAlone() {
+    when(userSearchIndex.search(null, null)).thenReturn(null);
+    when(userRepository.findIdsByEmailAndPhonePrefix("ann%", null)).thenReturn(ids(2, 9));
+    when(userRepository.findAllById(ids(2, 9))).thenReturn(users(2, 1));
+
+    Page<User> page = userService.searchUsers(null, "ann", null, null, Sort.Direction.ASC, PageRequest.of(0, 10));
+
+    // 9 was deleted after its id was read: it is left out of the page, not of the total
+    assertEquals(2, page.getTotalElements());
+    assertEquals(ids(2), ids(page));
+  }
+
+  @Test
+  void searchWithNoNameMatchDoesNotQueryEmails() {
+    when(userSearchIndex.search("zz", "road")).thenReturn(new long[0]);
+
+    Page<User> page = userService.searchUsers("zz", "ann", null, "road", Sort.Direction.ASC, PageRequest.of(0, 10));
+
+    assertEquals(0, page.getTotalElements());
+    verify(userRepository, never()).findIdsByEmailAndPhonePrefix(any(), any());
+    verify(userRepository, never()).findAllById(any());
+  }
+
+  @Test
+  void searchPagesThroughTheMatchesInEitherDirection() {
+    long[] matches = new long[25];
+    for (int i = 0; i < matches.length; i++) {
+      matches[i] = i + 1;
+    }
+    when(userSearchIndex.search("user", null)).thenReturn(matches);
+    when(userRepository.findAllById(any())).thenAnswer(invocation -> {
+      List<User> found = new ArrayList<>();
+      for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+        found.addAll(users(id, 1));
+      }
+      return found;
+    });
+
+    Page<User> second = userService.searchUsers("user", null, null, null, Sort.Direction.ASC, PageRequest.of(1, 10));
+    Page<User> last = userService.searchUsers("user", null, null, null, Sort.Direction.DESC, PageRequest.of(2, 10));
+    Page<User> beyond = userService.searchUsers("user", null, null, null, Sort.Direction.ASC, PageRequest.of(3, 10));
+
+    assertEquals(ids(11, 12, 13, 14, 15, 16, 17, 18, 19, 20), ids(second));
+    assertEquals(25, second.getTotalElements());
+    assertEquals(ids(5, 4, 3, 2, 1), ids(last));
+    assertEquals(0, beyond.getNumberOfElements());
+    assertEquals(25, beyond.getTotalElements());
+  }
+
+  @Test
+  void searchNeedsACriterion() {
+    when(userSearchIndex.search(null, null)).thenReturn(null);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> userService.searchUsers(null, null, null, null, Sort.Direction.ASC, PageRequest.of(0, 10)));
+  }
+
+  @Test
+  void searchByPhoneNeedsDigits() {
+    when(userSearchIndex.search(null, null)).thenReturn(null);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> userService.searchUsers(null, null, "+ ()", null, Sort.Direction.ASC, PageRequest.of(0, 10)));
+  }
+
+  @Test
+  void backfillPagesByIdUntilABatchComesBackShort() {
+    int batch = UserService.BACKFILL_BATCH;
+    List<User> first = users(1, batch);
+    List<User> second = users(batch + 5, 3);
+    // Written before the column existed: a phone, but no normalized digits yet
+    second.get(0).setPhone("+1 (555) 010-2030");
+    ReflectionTestUtils.setField(second.get(0), "phoneNormalized", null);
+    when(userRepository.findByPhoneNormalizedIsNullAndIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(first);
+    when(userRepository.findByPhoneNormalizedIsNullAndIdGreaterThanOrderByIdAsc(eq((long) batch), any()))
+        .thenReturn(second);
+
+    userService.backfillNormalizedPhones();
+
+    verify(userRepository).saveAll(first);
+    verify(userRepository).saveAll(second);
+    verify(userRepository, times(2)).findByPhoneNormalizedIsNullAndIdGreaterThanOrderByIdAsc(anyLong(), any());
+    assertEquals("15550102030", second.get(0).getPhoneNormalized());
+  }
+
+  @Test
+  void backfillWithNothingToDoWritesNothing() {
+    when(userRepository.findByPhoneNormalizedIsNullAndIdGreaterThanOrderByIdAsc(eq(0L), any()))
+        .thenReturn(new ArrayList<>());
+
+    userService.backfillNormalizedPhones();
+
+    verify(userRepository, never()).saveAll(any());
+  }
+
+  private static List<Long> ids(long... ids) {
+    List<Long> list = new ArrayList<>(ids.length);
+    for (long id : ids) {
+      list.add(id);
+    }
+    return list;
+  }
+
+  private static List<Long> ids(Page<User> page) {
+    List<Long> ids = new ArrayList<>();
+    page.forEach(user -> ids.add(user.getId()));
+    return ids;
+  }
+
+  static List<User> users(long firstId, int count) {
+    List<User> users = new ArrayList<>(count);
+    for (long id = firstId; id < firstId + count; id++) {
+      User user = new User();
+      user.setId(id);
+      user.setName("User " + id);
+      user.setEmail("user" + id + "@example.com");
+      users.add(user);
+    }
+    return users;
+  }
+}